@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import com.opentable.httpheaders.OTHeaders;
+
+/**
+ * Raw requests sent by the server benchmarks.
+ */
+final class BenchmarkRequests {
+    static final String PATH = "/bench";
+
+    static final String PLAIN = "GET " + PATH + " HTTP/1.1\r\n"
+            + "Host: localhost\r\n"
+            + "\r\n";
+
+    // Headers the conserved headers filters copy into the MDC and the response
+    static final String CONSERVED = "GET " + PATH + " HTTP/1.1\r\n"
+            + "Host: localhost\r\n"
+            + OTHeaders.REQUEST_ID + ": 5d7f2b1e-8a4c-4f0e-9b3a-2c6d1e0f9a87\r\n"
+            + OTHeaders.REFERRING_SERVICE + ": benchmark-client\r\n"
+            + OTHeaders.REFERRING_HOST + ": benchmark-host\r\n"
+            + "\r\n";
+
+    private BenchmarkRequests() {
+    }
+
+    static String of(boolean conservedHeaders) {
+        return conservedHeaders ? CONSERVED : PLAIN;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Server;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Runs a server application in-process and feeds it requests through a Jetty {@link LocalConnector}, so that
+ * benchmarks measure the server rather than sockets or an HTTP client.
+ * <p>
+ * The local connector shares the default connector's {@link HttpConfiguration}, so connector level customizers
+ * (secure request handling, backend info) apply to it as well.
+ */
+final class LocalServer implements Closeable {
+    private final ConfigurableApplicationContext context;
+    private final LocalConnector connector;
+
+    LocalServer(Class<?> application, Map<String, Object> properties) throws Exception {
+        final Map<String, Object> defaults = new HashMap<>(properties);
+        defaults.put("server.port", 0);
+        final SpringApplication app = new SpringApplication(application);
+        app.setDefaultProperties(defaults);
+        context = app.run();
+
+        final Server server = context.getBean(Server.class);
+        final HttpConfiguration httpConfig = Arrays.stream(server.getConnectors())
+                .map(c -> c.getConnectionFactory(HttpConnectionFactory.class))
+                .filter(f -> f != null)
+                .findFirst()
+                .map(HttpConnectionFactory::getHttpConfiguration)
+                .orElseThrow(() -> new IllegalStateException("No HTTP connector on " + server));
+        connector = new LocalConnector(server, new HttpConnectionFactory(httpConfig));
+        connector.setName("benchmark-local");
+        server.addConnector(connector);
+        connector.start();
+    }
+
+    /**
+     * Send a raw HTTP/1.1 request and return the raw response.
+     */
+    String request(String request) throws Exception {
+        return connector.getResponse(request);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
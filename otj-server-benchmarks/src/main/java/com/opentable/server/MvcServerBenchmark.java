@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.opentable.server.mvc.MVCServer;
+import com.opentable.service.ServiceInfo;
+
+/**
+ * Throughput of a trivial Spring MVC endpoint on {@link EmbeddedJetty} with each default component turned off in
+ * turn. Run with {@code -prof gc} to see the allocation rate as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MvcServerBenchmark {
+
+    @Param
+    private ServerVariant variant;
+
+    @Param({"false", "true"})
+    private boolean conservedHeaders;
+
+    private LocalServer server;
+    private String request;
+
+    @Setup
+    public void setup() throws Exception {
+        server = new LocalServer(Application.class, variant.getProperties());
+        request = BenchmarkRequests.of(conservedHeaders);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public String request() throws Exception {
+        return server.request(request);
+    }
+
+    @Configuration
+    @MVCServer
+    public static class Application {
+        @Bean
+        ServiceInfo serviceInfo() {
+            return () -> "otj-server-benchmarks";
+        }
+
+        @RestController
+        public static class Endpoint {
+            @GetMapping(BenchmarkRequests.PATH)
+            public String bench() {
+                return "ok";
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Server configurations compared by the benchmarks, each turning one default component off or swapping it for an
+ * alternative.
+ */
+public enum ServerVariant {
+    DEFAULTS,
+    NO_THREAD_NAME_FILTER("ot.server.thread-name-filter", "false"),
+    FAST_THREAD_NAME_FILTER("ot.server.thread-name-filter.mode", "fast"),
+    NO_EXCEPTION_LOG_FILTER("ot.server.exception-log-filter", "false"),
+    NO_BACKEND_INFO(WireBackendInfo.OT_SERVER_BACKEND_INFO_ENABLED, "false"),
+    BACKEND_INFO_FILTER(WireBackendInfo.OT_SERVER_BACKEND_INFO_MODE, WireBackendInfo.FILTER_MODE),
+    NO_REQUEST_LOG("ot.httpserver.request-log.enabled", "false"),
+    ASYNC_REQUEST_LOG("ot.httpserver.request-log.async.enabled", "true"),
+    MINIMAL("ot.server.thread-name-filter", "false",
+            "ot.server.exception-log-filter", "false",
+            WireBackendInfo.OT_SERVER_BACKEND_INFO_ENABLED, "false",
+            "ot.httpserver.request-log.enabled", "false");
+
+    private final Map<String, Object> properties = new HashMap<>();
+
+    ServerVariant(String... keyValues) {
+        for (int i = 0; i < keyValues.length; i += 2) {
+            properties.put(keyValues[i], keyValues[i + 1]);
+        }
+    }
+
+    Map<String, Object> getProperties() {
+        return properties;
+    }
+}
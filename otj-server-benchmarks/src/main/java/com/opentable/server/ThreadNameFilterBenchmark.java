@@ -0,0 +1,81 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.opentable.server.ThreadNameFilterConfiguration.ThreadNameFilter;
+
+/**
+ * Compares the thread name filter modes. Run with {@code -prof gc} to see the allocation rate as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadNameFilterBenchmark {
+
+    @Param({ThreadNameFilter.FULL_MODE, ThreadNameFilter.FAST_MODE})
+    private String mode;
+
+    @Param({"/api/v1/restaurants/1234/availability"})
+    private String uri;
+
+    private ThreadNameFilter filter;
+    private HttpServletRequest request;
+    private FilterChain chain;
+
+    @Setup
+    public void setup() {
+        filter = new ThreadNameFilter(mode, Duration.ofMillis(10), 256);
+        filter.init(null);
+        request = (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class },
+                (proxy, method, args) -> "getRequestURI".equals(method.getName()) ? uri : null);
+        chain = (req, resp) -> { };
+    }
+
+    @Benchmark
+    public String threadName() {
+        return filter.threadName(uri);
+    }
+
+    @Benchmark
+    public void doFilter(Blackhole blackhole) throws IOException, ServletException {
+        filter.doFilter(request, null, chain);
+        blackhole.consume(Thread.currentThread().getName());
+    }
+}
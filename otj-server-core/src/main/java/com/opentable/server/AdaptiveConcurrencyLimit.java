@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * TCP Vegas style concurrency limit.
+ *
+ * The limit is derived from the difference between the lowest observed latency (the "no load" latency) and the
+ * latency of the current sample. That difference estimates how many requests are queued inside the server; the limit
+ * grows while that queue is small and shrinks once it gets large. Every so often the no load latency is reset so the
+ * estimate can follow changes in the service (deploys of dependencies, cache warmup, etc).
+ */
+class AdaptiveConcurrencyLimit {
+    private static final int PROBE_MULTIPLIER = 30;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private long rttNoLoadNanos;
+    private long probeCountdown;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double smoothing) {
+        Preconditions.checkArgument(minLimit > 0, "minLimit must be positive");
+        Preconditions.checkArgument(maxLimit >= minLimit, "maxLimit must be >= minLimit");
+        Preconditions.checkArgument(initialLimit >= minLimit && initialLimit <= maxLimit, "initialLimit must be between minLimit and maxLimit");
+        Preconditions.checkArgument(smoothing > 0 && smoothing <= 1, "smoothing must be in (0, 1]");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+        this.probeCountdown = nextProbeCountdown();
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    synchronized long getRttNoLoadNanos() {
+        return rttNoLoadNanos;
+    }
+
+    /**
+     * @param rttNanos time taken to serve the request
+     * @param inFlight number of requests in flight when this request was admitted
+     * @param dropped whether the request failed in a way that indicates overload
+     */
+    synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (--probeCountdown <= 0) {
+            probeCountdown = nextProbeCountdown();
+            rttNoLoadNanos = rttNanos;
+            return;
+        }
+        if (rttNoLoadNanos == 0 || rttNanos < rttNoLoadNanos) {
+            rttNoLoadNanos = rttNanos;
+            return;
+        }
+
+        final double log = Math.max(1, Math.log10(estimatedLimit));
+        final double newLimit;
+        if (dropped) {
+            newLimit = estimatedLimit - log;
+        } else if (inFlight * 2 < estimatedLimit) {
+            // Application limited; we learn nothing about the server's capacity
+            return;
+        } else {
+            final double queueSize = Math.ceil(estimatedLimit * (1 - (double) rttNoLoadNanos / rttNanos));
+            final double alpha = 3 * log;
+            final double beta = 6 * log;
+            if (queueSize <= log) {
+                newLimit = estimatedLimit + beta;
+            } else if (queueSize < alpha) {
+                newLimit = estimatedLimit + log;
+            } else if (queueSize > beta) {
+                newLimit = estimatedLimit - log;
+            } else {
+                return;
+            }
+        }
+
+        final double bounded = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        estimatedLimit = (1 - smoothing) * estimatedLimit + smoothing * bounded;
+        limit = (int) estimatedLimit;
+    }
+
+    private long nextProbeCountdown() {
+        return (long) (PROBE_MULTIPLIER * estimatedLimit * (1 + ThreadLocalRandom.current().nextDouble()));
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveConcurrencyLimit{limit=" + limit + ", minLimit=" + minLimit + ", maxLimit=" + maxLimit + ", smoothing=" + smoothing + '}';
+    }
+}
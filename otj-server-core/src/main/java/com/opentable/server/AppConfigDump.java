@@ -0,0 +1,174 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedOperationParameters;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import com.opentable.spring.PropertySourceUtil;
+
+/**
+ * Logs every resolved configuration property once at startup, and dumps them on demand over JMX.
+ * <p>
+ * Resolving thousands of keys is slow, so by default the log is written from a background thread once the context
+ * has been refreshed rather than while beans are being created. Keys can be limited to some prefixes and the logged
+ * text capped in size; the JMX operation is never capped.
+ */
+@ManagedResource
+public class AppConfigDump implements ApplicationListener<ContextRefreshedEvent> {
+    private static final Logger LOG = LoggerFactory.getLogger(ServerConfigConfiguration.class);
+    private static final String INDENT = "    ";
+
+    static final String SYNC_MODE = "sync";
+    static final String ASYNC_MODE = "async";
+    static final String OFF_MODE = "off";
+
+    private final ConfigurableEnvironment env;
+    private final ApplicationStartup applicationStartup;
+    private final String mode;
+    private final List<String> prefixes;
+    private final int maxSize;
+    private final AtomicBoolean logged = new AtomicBoolean();
+
+    /**
+     * @param mode sync logs while the context is being created, async from a background thread once it is
+     * refreshed, off not at all
+     * @param prefixes comma separated key prefixes to log, blank for all keys
+     * @param maxSize most characters to log, -1 for no limit
+     */
+    @Inject
+    AppConfigDump(ConfigurableEnvironment env,
+                  ApplicationStartup applicationStartup,
+                  @Value("${ot.server.config-log.mode:async}") String mode,
+                  @Value("${ot.server.config-log.prefixes:}") String prefixes,
+                  @Value("${ot.server.config-log.max-size:-1}") int maxSize) {
+        if (!SYNC_MODE.equals(mode) && !ASYNC_MODE.equals(mode) && !OFF_MODE.equals(mode)) {
+            throw new IllegalStateException(String.format("'ot.server.config-log.mode' must be %s, %s or %s, got '%s'", SYNC_MODE, ASYNC_MODE, OFF_MODE, mode));
+        }
+        this.env = env;
+        this.applicationStartup = applicationStartup;
+        this.mode = mode;
+        this.prefixes = parsePrefixes(prefixes);
+        this.maxSize = maxSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (SYNC_MODE.equals(mode)) {
+            // Startup steps track one current step for the whole context, so only record from the starting thread
+            final StartupStep step = applicationStartup.start("otj.config.log-app-config");
+            try {
+                log();
+            } finally {
+                step.end();
+            }
+        }
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (ASYNC_MODE.equals(mode) && !logged.get()) {
+            final Thread thread = new Thread(this::log, "app-config-log");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    void log() {
+        if (!logged.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            LOG.info("{}:\n\n{}{}\n", env, INDENT, dump(prefixes, maxSize));
+        } catch (RuntimeException e) {
+            LOG.warn("Couldn't log the application configuration", e);
+        }
+    }
+
+    @VisibleForTesting
+    boolean isLogged() {
+        return logged.get();
+    }
+
+    @ManagedOperation(description = "resolved configuration properties, one per line")
+    @ManagedOperationParameters({
+            @ManagedOperationParameter(name = "prefixes", description = "comma separated key prefixes, blank for the configured ones")
+    })
+    public String dumpConfig(String prefixes) {
+        final List<String> requested = parsePrefixes(prefixes);
+        return dump(requested.isEmpty() ? this.prefixes : requested, -1);
+    }
+
+    /**
+     * Resolve the sorted keys starting with one of the prefixes, stopping once the text would exceed maxSize.
+     */
+    String dump(List<String> keyPrefixes, int maxSize) {
+        final List<String> keys = PropertySourceUtil.getKeys(env)
+                .filter(k -> keyPrefixes.isEmpty() || keyPrefixes.stream().anyMatch(k::startsWith))
+                .sorted()
+                .distinct()
+                .collect(Collectors.toList());
+        final StringBuilder result = new StringBuilder();
+        final Iterator<String> it = keys.iterator();
+        int written = 0;
+        while (it.hasNext()) {
+            final String line = resolve(it.next());
+            if (maxSize >= 0 && result.length() + line.length() > maxSize) {
+                result.append(String.format("... %d more properties", keys.size() - written));
+                break;
+            }
+            result.append(line);
+            written++;
+            if (it.hasNext()) {
+                result.append('\n').append(INDENT);
+            }
+        }
+        return result.toString();
+    }
+
+    private String resolve(String k) {
+        try {
+            return k + "=" + Optional.ofNullable(env.getProperty(k)).orElse("null")
+                .replace("\n", "\\n");
+        } catch (Exception e) {
+            return k + "= Error: " + e.getMessage();
+        }
+    }
+
+    private static List<String> parsePrefixes(String prefixes) {
+        return prefixes == null ? List.of() : Splitter.on(',').trimResults().omitEmptyStrings().splitToList(prefixes);
+    }
+}
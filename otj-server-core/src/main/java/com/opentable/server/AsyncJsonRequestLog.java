@@ -0,0 +1,442 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.google.common.base.Preconditions;
+
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import com.opentable.bucket.BucketLog;
+import com.opentable.httpheaders.OTHeaders;
+import com.opentable.logging.CommonLogHolder;
+import com.opentable.logging.jetty.JsonRequestLog;
+import com.opentable.logging.jetty.JsonRequestLogConfig;
+import com.opentable.logging.jetty.RequestLogEvent;
+import com.opentable.logging.otl.HttpV1;
+
+/**
+ * A {@link JsonRequestLog} that keeps the request thread out of event construction and appending.
+ * <p>
+ * The request thread only copies the fields that make up the {@link HttpV1} event into a preallocated
+ * slot of a bounded ring buffer. A single writer thread drains the buffer in batches, builds the events
+ * and hands them to {@link #sendEvent(RequestLogEvent)}. When the buffer is full the record is either dropped
+ * or the request thread waits for room, depending on the {@link OverflowPolicy}.
+ * <p>
+ * Since events are built from the captured fields, overrides of {@link #createEvent(Request, Response)} and
+ * {@link #getRequestIdFrom(Request, Response)} are not consulted.
+ */
+@ManagedObject("Asynchronous JSON request log")
+public class AsyncJsonRequestLog extends JsonRequestLog {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncJsonRequestLog.class);
+    private static final Logger BUCKET_LOG = BucketLog.of(AsyncJsonRequestLog.class, 1, Duration.ofSeconds(10)); // 1 per 10 second
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long STOP_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    public enum OverflowPolicy {
+        /** Discard the record and count it as dropped. */
+        DROP,
+        /** Make the request thread wait until the writer has freed a slot. */
+        BLOCK
+    }
+
+    private final Set<String> startsWithBlocklist;
+    private final Set<String> equalityBlocklist;
+    private final OverflowPolicy overflowPolicy;
+    private final int batchSize;
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Only touched by the writer thread
+    private long head;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    public AsyncJsonRequestLog(Clock clock, JsonRequestLogConfig config, int bufferSize, int batchSize, OverflowPolicy overflowPolicy) {
+        super(clock, config);
+        Preconditions.checkArgument(bufferSize > 0, "bufferSize must be positive: %s", bufferSize);
+        Preconditions.checkArgument(batchSize > 0, "batchSize must be positive: %s", batchSize);
+        this.startsWithBlocklist = config.getStartsWithBlocklist();
+        this.equalityBlocklist = config.getEqualityBlocklist();
+        this.overflowPolicy = Preconditions.checkNotNull(overflowPolicy, "overflowPolicy");
+        this.batchSize = batchSize;
+
+        final int capacity = Integer.highestOneBit(bufferSize) == bufferSize ? bufferSize : Integer.highestOneBit(bufferSize) << 1;
+        this.slots = new Slot[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot(i);
+        }
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        super.doStart();
+        running = true;
+        final Thread thread = new Thread(this::drainLoop, "request-log-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        running = false;
+        final Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(STOP_TIMEOUT_MILLIS);
+            if (thread.isAlive()) {
+                LOG.warn("Request log writer did not finish within {}ms, {} records may be lost", STOP_TIMEOUT_MILLIS, getPending());
+            }
+            writer = null;
+        }
+        super.doStop();
+    }
+
+    @Override
+    public void log(Request request, Response response) {
+        final String requestUri = request.getRequestURI();
+        if (isBlocked(requestUri)) {
+            return;
+        }
+
+        final Slot slot = claim();
+        if (slot == null) {
+            dropped.increment();
+            return;
+        }
+        try {
+            slot.capture(getClock(), request, response);
+        } finally {
+            // A claimed slot must always be published, or the writer stalls on it
+            slot.sequence = slot.position + 1;
+        }
+    }
+
+    private boolean isBlocked(String requestUri) {
+        for (final String prefix : startsWithBlocklist) {
+            if (StringUtils.startsWithIgnoreCase(requestUri, prefix)) {
+                return true;
+            }
+        }
+        for (final String path : equalityBlocklist) {
+            if (StringUtils.equalsIgnoreCase(requestUri, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Claim the next free slot, or {@code null} if the record should be dropped.
+     * Slot sequences follow the usual bounded MPMC queue scheme: a slot is free for position {@code p} when its
+     * sequence equals {@code p}, and readable when it equals {@code p + 1}.
+     */
+    private Slot claim() {
+        boolean waited = false;
+        long pos = tail.get();
+        while (true) {
+            final Slot slot = slots[(int) (pos & mask)];
+            final long diff = slot.sequence - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slot.position = pos;
+                    return slot;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                // Full, make sure the writer isn't idling
+                final Thread thread = writer;
+                if (thread != null) {
+                    LockSupport.unpark(thread);
+                }
+                if (overflowPolicy == OverflowPolicy.DROP || !running) {
+                    return null;
+                }
+                if (!waited) {
+                    waited = true;
+                    blocked.increment();
+                }
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+                pos = tail.get();
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    private void drainLoop() {
+        while (true) {
+            final int drained = drainBatch();
+            if (drained == 0) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private int drainBatch() {
+        int drained = 0;
+        while (drained < batchSize) {
+            final Slot slot = slots[(int) (head & mask)];
+            if (slot.sequence != head + 1) {
+                break;
+            }
+            try {
+                write(slot);
+                written.increment();
+            } catch (RuntimeException e) {
+                failed.increment();
+                BUCKET_LOG.warn("Unable to write request log record", e);
+            } finally {
+                slot.clear();
+                slot.sequence = head + slots.length;
+                head++;
+            }
+            drained++;
+        }
+        return drained;
+    }
+
+    private void write(Slot slot) {
+        if (!slot.captured) {
+            throw new IllegalStateException("Request log record was claimed but not captured");
+        }
+        final HttpV1 payload = slot.toPayload();
+        final RequestLogEvent event = new RequestLogEvent(payload, constructMessage(payload));
+        MDC.put("request-id", Objects.toString(payload.getRequestId(), null));
+        try {
+            event.prepareForDeferredProcessing();
+            sendEvent(event);
+        } finally {
+            MDC.remove("request-id");
+        }
+    }
+
+    @ManagedAttribute("Ring buffer capacity")
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    @ManagedAttribute("Records waiting to be written")
+    public long getPending() {
+        return Math.max(0, tail.get() - head);
+    }
+
+    @ManagedAttribute("Records written")
+    public long getWritten() {
+        return written.sum();
+    }
+
+    @ManagedAttribute("Records dropped because the buffer was full")
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    @ManagedAttribute("Requests that waited for room in the buffer")
+    public long getBlocked() {
+        return blocked.sum();
+    }
+
+    @ManagedAttribute("Records that failed to be written")
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    @ManagedAttribute("Policy applied when the buffer is full")
+    public String getOverflowPolicy() {
+        return overflowPolicy.name();
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncJsonRequestLog{" +
+                "capacity=" + slots.length +
+                ", batchSize=" + batchSize +
+                ", overflowPolicy=" + overflowPolicy +
+                '}';
+    }
+
+    /**
+     * One preallocated record. Header values are references to strings Jetty already holds, so capturing
+     * a request copies references and primitives only.
+     */
+    private final class Slot {
+        volatile long sequence;
+        long position;
+
+        Instant timestamp;
+        long startMillis;
+        String method;
+        int status;
+        String requestUri;
+        String queryString;
+        long bodySize;
+        long responseSize;
+        String correlationId;
+        String acceptLanguage;
+        String anonymousId;
+        String referer;
+        String referringHost;
+        String referringService;
+        String referringEnv;
+        String remoteAddress;
+        String requestId;
+        String sessionId;
+        String userAgent;
+        String userId;
+        String originalUri;
+        String actualHost;
+        String domain;
+        String host;
+        String accept;
+        String forwardedFor;
+        String forwardedPort;
+        String forwardedProto;
+        boolean captured;
+
+        Slot(long sequence) {
+            this.sequence = sequence;
+        }
+
+        void capture(Clock clock, Request request, Response response) {
+            captured = false;
+            timestamp = clock.instant();
+            startMillis = request.getTimeStamp();
+            method = request.getMethod();
+            status = response.getStatus();
+            requestUri = request.getRequestURI();
+            queryString = request.getQueryString();
+            bodySize = request.getContentLengthLong();
+            responseSize = response.getContentCount();
+            correlationId = request.getHeader(OTHeaders.CORRELATION_ID);
+            acceptLanguage = request.getHeader(OTHeaders.ACCEPT_LANGUAGE);
+            anonymousId = request.getHeader(OTHeaders.ANONYMOUS_ID);
+            referer = request.getHeader("Referer");
+            referringHost = request.getHeader(OTHeaders.REFERRING_HOST);
+            referringService = request.getHeader(OTHeaders.REFERRING_SERVICE);
+            referringEnv = request.getHeader(OTHeaders.REFERRING_ENV);
+            remoteAddress = request.getRemoteAddr();
+            requestId = response.getHeader(OTHeaders.REQUEST_ID);
+            sessionId = request.getHeader(OTHeaders.SESSION_ID);
+            userAgent = request.getHeader("User-Agent");
+            userId = request.getHeader(OTHeaders.USER_ID);
+            originalUri = request.getHeader(OTHeaders.ORIGINAL_URI);
+            actualHost = request.getHeader(OTHeaders.ACTUAL_HOST);
+            domain = request.getHeader(OTHeaders.DOMAIN);
+            host = request.getHeader("Host");
+            accept = request.getHeader("Accept");
+            forwardedFor = request.getHeader("X-Forwarded-For");
+            forwardedPort = request.getHeader("X-Forwarded-Port");
+            forwardedProto = request.getHeader("X-Forwarded-Proto");
+            captured = true;
+        }
+
+        HttpV1 toPayload() {
+            final String url = StringUtils.isNotEmpty(queryString) ? requestUri + '?' + queryString : requestUri;
+            final UUID parsedRequestId = optUuid(requestId);
+            return HttpV1.builder()
+                    .logName("request")
+                    .serviceType(CommonLogHolder.getServiceType())
+                    .uuid(UUID.randomUUID())
+                    .timestamp(timestamp)
+                    .method(method)
+                    .status(status)
+                    .incoming(true)
+                    .url(url)
+                    .urlQuerystring(queryString)
+                    .duration(TimeUnit.NANOSECONDS.toMicros(Duration.between(Instant.ofEpochMilli(startMillis), timestamp).toNanos()))
+                    .bodySize(bodySize)
+                    .responseSize(responseSize)
+                    .correlationId(correlationId)
+                    .acceptLanguage(acceptLanguage)
+                    .anonymousId(anonymousId)
+                    .referer(referer)
+                    .referringHost(referringHost)
+                    .referringService(referringService)
+                    .headerOtReferringEnvironment(referringEnv)
+                    .remoteAddress(remoteAddress)
+                    .requestId(parsedRequestId)
+                    .sessionId(sessionId)
+                    .userAgent(userAgent)
+                    .userId(userId)
+                    .headerOtOriginaluri(originalUri)
+                    .headerOtActualHost(actualHost)
+                    .headerOtDomain(domain)
+                    .headerHost(host)
+                    .headerAccept(accept)
+                    .headerXForwardedFor(forwardedFor)
+                    .headerXForwardedPort(forwardedPort)
+                    .headerXForwardedProto(forwardedProto)
+                    .build();
+        }
+
+        void clear() {
+            timestamp = null;
+            method = null;
+            requestUri = null;
+            queryString = null;
+            correlationId = null;
+            acceptLanguage = null;
+            anonymousId = null;
+            referer = null;
+            referringHost = null;
+            referringService = null;
+            referringEnv = null;
+            remoteAddress = null;
+            requestId = null;
+            sessionId = null;
+            userAgent = null;
+            userId = null;
+            originalUri = null;
+            actualHost = null;
+            domain = null;
+            host = null;
+            accept = null;
+            forwardedFor = null;
+            forwardedPort = null;
+            forwardedProto = null;
+            captured = false;
+        }
+    }
+}
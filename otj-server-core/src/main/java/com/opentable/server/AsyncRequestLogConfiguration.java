@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.time.Clock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.lang.NonNull;
+
+import com.opentable.logging.jetty.JsonRequestLogConfig;
+
+/**
+ * Replaces the synchronous request log installed by {@link EmbeddedJettyBase} with an {@link AsyncJsonRequestLog}.
+ */
+@Configuration
+@Conditional(AsyncRequestLogConfiguration.InstallAsyncRequestLog.class)
+public class AsyncRequestLogConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncRequestLogConfiguration.class);
+
+    public static class InstallAsyncRequestLog implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, @NonNull AnnotatedTypeMetadata metadata) {
+            final String value = context.getEnvironment().
+                    getProperty("ot.httpserver.request-log.async.enabled", "false");
+            return Boolean.parseBoolean(value);
+        }
+    }
+
+    /**
+     * bufferSize - number of preallocated records, rounded up to a power of two
+     */
+    @Value("${ot.httpserver.request-log.async.buffer-size:8192}")
+    private int bufferSize;
+
+    /**
+     * batchSize - maximum records written per pass of the writer thread
+     */
+    @Value("${ot.httpserver.request-log.async.batch-size:256}")
+    private int batchSize;
+
+    /**
+     * overflowPolicy - DROP or BLOCK, what a request thread does when the buffer is full
+     */
+    @Value("${ot.httpserver.request-log.async.overflow-policy:DROP}")
+    private AsyncJsonRequestLog.OverflowPolicy overflowPolicy;
+
+    @Bean
+    public AsyncJsonRequestLog asyncJsonRequestLog(JsonRequestLogConfig requestLogConfig) {
+        final AsyncJsonRequestLog requestLog = new AsyncJsonRequestLog(Clock.systemUTC(), requestLogConfig,
+                bufferSize, batchSize, overflowPolicy);
+        LOG.debug("Creating asynchronous request log: {}", requestLog);
+        return requestLog;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.PreEncodedHttpField;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.Request;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+
+import com.opentable.service.AppInfo;
+import com.opentable.service.ServiceInfo;
+
+/**
+ * Adds the headers with prefix {@link #HEADER_PREFIX} to every response from every connector, servlet and reactive
+ * alike. The headers are encoded once at startup and added by a Jetty {@link HttpConfiguration.Customizer} before the
+ * request is handed to the handler chain, so no filter runs and nothing is parsed or encoded per request.
+ */
+@Configuration
+@Conditional(WireBackendInfo.ConnectorMode.class)
+public class BackendInfoConnectorConfiguration extends BackendInfoFilterBaseConfiguration {
+
+    @Bean
+    public BackendInfoCustomizer backendInfoCustomizer(final AppInfo appInfo, final ServiceInfo serviceInfo) {
+        return new BackendInfoCustomizer(assembleInfo(appInfo, serviceInfo));
+    }
+
+    @Bean
+    public Consumer<HttpConfiguration> backendInfoHttpConfigCustomizer(final BackendInfoCustomizer customizer) {
+        return httpConfig -> httpConfig.addCustomizer(customizer);
+    }
+
+    public static class BackendInfoCustomizer implements HttpConfiguration.Customizer {
+        private final HttpField[] fields;
+
+        BackendInfoCustomizer(final Map<String, String> headers) {
+            fields = headers.entrySet().stream()
+                    .map(e -> new PreEncodedHttpField(e.getKey(), e.getValue()))
+                    .toArray(HttpField[]::new);
+        }
+
+        @Override
+        public void customize(final Connector connector, final HttpConfiguration channelConfig, final Request request) {
+            final HttpFields.Mutable responseFields = request.getResponse().getHttpFields();
+            for (final HttpField field : fields) {
+                responseFields.add(field);
+            }
+        }
+    }
+}
@@ -36,10 +36,13 @@ import com.opentable.service.ServiceInfo;
 /**
  * Adds headers with prefix {@link #HEADER_PREFIX} with some information about the backend that actually
  * handled the request. The Front Door filters out these headers for public-facing instances.
+ * <p>
+ * Only used with {@code ot.server.backend.info.mode=filter}, otherwise {@link BackendInfoConnectorConfiguration}
+ * adds the same headers at the connector level.
  */
 @Configuration
 @Import(BackendInfoFilterConfiguration.BackendInfoFilter.class)
-@Conditional(WireBackendInfo.class)
+@Conditional(WireBackendInfo.FilterMode.class)
 public class BackendInfoFilterConfiguration extends BackendInfoFilterBaseConfiguration {
 
     @Bean
@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+
+import com.google.common.base.Suppliers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Build information (title, version and commit) from every {@code META-INF/MANIFEST.MF} on the classpath.
+ * <p>
+ * The classpath is scanned once, on first use, with the manifests parsed in parallel; afterwards every lookup is
+ * served from memory, so nothing else needs to re-read manifests.
+ */
+public class BuildInfoRegistry {
+    static final String COMMIT = "X-BasePOM-Git-Commit-Id";
+
+    private static final Logger LOG = LoggerFactory.getLogger(BuildInfoRegistry.class);
+
+    private final ClassLoader classLoader;
+    private final Supplier<List<BuildInfo>> buildInfos = Suppliers.memoize(this::scan);
+
+    public BuildInfoRegistry() {
+        this(Thread.currentThread().getContextClassLoader());
+    }
+
+    BuildInfoRegistry(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * @return build information of every manifest with a title or version, in classpath order
+     */
+    public List<BuildInfo> getAll() {
+        return buildInfos.get();
+    }
+
+    /**
+     * @param title an {@code Implementation-Title}
+     * @return the first build information on the classpath with that title
+     */
+    public Optional<BuildInfo> find(String title) {
+        return getAll().stream().filter(b -> title.equals(b.getTitle())).findFirst();
+    }
+
+    private List<BuildInfo> scan() {
+        final List<URL> urls;
+        try {
+            urls = Collections.list(classLoader.getResources("META-INF/MANIFEST.MF"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Collections.unmodifiableList(urls.parallelStream()
+                .map(BuildInfoRegistry::read)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+    }
+
+    private static BuildInfo read(URL url) {
+        try (InputStream is = url.openStream()) {
+            final Attributes atts = new Manifest(is).getMainAttributes();
+            final String title = atts.getValue(Attributes.Name.IMPLEMENTATION_TITLE);
+            final String version = atts.getValue(Attributes.Name.IMPLEMENTATION_VERSION);
+            if (title == null && version == null) {
+                return null;
+            }
+            return new BuildInfo(title, version, atts.getValue(COMMIT), url.toString());
+        } catch (IOException e) {
+            LOG.debug("Error while reading manifest {}", url, e);
+            return null;
+        }
+    }
+
+    public static final class BuildInfo {
+        private final String title;
+        private final String version;
+        private final String commit;
+        private final String source;
+
+        BuildInfo(String title, String version, String commit, String source) {
+            this.title = title;
+            this.version = version;
+            this.commit = commit;
+            this.source = source;
+        }
+
+        /**
+         * @return the {@code Implementation-Title}, may be null
+         */
+        public String getTitle() {
+            return title;
+        }
+
+        /**
+         * @return the {@code Implementation-Version}, may be null
+         */
+        public String getVersion() {
+            return version;
+        }
+
+        /**
+         * @return the git commit the artifact was built from, null if basepom didn't record it
+         */
+        public String getCommit() {
+            return commit;
+        }
+
+        /**
+         * @return the URL of the manifest
+         */
+        public String getSource() {
+            return source;
+        }
+
+        @Override
+        public String toString() {
+            return title + " version " + version + " - built from commit " + commit;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http2.HTTP2Connection;
+import org.eclipse.jetty.io.Connection;
+import org.eclipse.jetty.io.EndPoint;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.HttpConnection;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
+import org.eclipse.jetty.util.thread.Scheduler;
+import org.slf4j.Logger;
+
+import com.opentable.bucket.BucketLog;
+
+/**
+ * Limits the concurrent connections and the request rate of each client address, so that a single client can't use
+ * up the capacity of the whole server.
+ * <p>
+ * Connections are counted once they speak HTTP, i.e. after any PROXY protocol header and TLS handshake, so the
+ * address is the real client's even behind a {@code proxy+http} or {@code proxy+https} connector. Connections over
+ * the limit are closed as soon as they open. Requests are metered with a token bucket per address refilled at
+ * {@code requestsPerSecond} and holding up to {@code burst} tokens; requests finding it empty get a {@code 429} with
+ * a {@code Retry-After} header.
+ * <p>
+ * Addresses without open connections are forgotten once idle for {@code evictAfter}, which bounds the map by the
+ * number of recently active clients. Rejections are metered as {@code http-server.client-limit.rejected-connections}
+ * and {@code http-server.client-limit.rejected-requests}. Rejected requests reach the request log like any other;
+ * connections closed on opening never become requests, so they are logged here, rate limited.
+ */
+@ManagedObject("Per client address connection and request rate limits")
+public class ClientLimitHandler extends HandlerWrapper {
+    private static final Logger BUCKET_LOG = BucketLog.of(ClientLimitHandler.class, 1, Duration.ofSeconds(10)); // 1 per 10 second
+
+    static final String PREFIX = "http-server.client-limit";
+
+    private final int maxConnections;
+    private final double requestsPerNano;
+    private final double burst;
+    private final long evictAfterNanos;
+    private final Set<InetAddress> exempt;
+
+    private final ConcurrentMap<InetAddress, Client> clients = new ConcurrentHashMap<>();
+    private final Map<Connection, InetAddress> counted = new ConcurrentHashMap<>();
+    private final Connection.Listener connectionListener = new ConnectionTracker();
+    private final Scheduler scheduler = new ScheduledExecutorScheduler("client-limit-evictor", true);
+    private final Meter rejectedConnections;
+    private final Meter rejectedRequests;
+
+    ClientLimitHandler(int maxConnections, double requestsPerSecond, int burst, long evictAfterNanos, Set<InetAddress> exempt, MetricRegistry registry) {
+        this.maxConnections = maxConnections;
+        this.requestsPerNano = requestsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.evictAfterNanos = evictAfterNanos;
+        this.exempt = Set.copyOf(exempt);
+        this.rejectedConnections = registry.meter(MetricRegistry.name(PREFIX, "rejected-connections"));
+        this.rejectedRequests = registry.meter(MetricRegistry.name(PREFIX, "rejected-requests"));
+        registry.gauge(MetricRegistry.name(PREFIX, "clients"), () -> clients::size);
+        addBean(scheduler);
+    }
+
+    /**
+     * Count the connections of a connector. Spring Boot starts the server before adding the connectors, so they
+     * are registered as they are created rather than when this handler starts.
+     */
+    void track(Connector connector) {
+        if (maxConnections > 0) {
+            // Connection factories hand their connector's listener beans to every new connection
+            connector.addBean(connectionListener);
+        }
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        super.doStart();
+        scheduleEviction();
+    }
+
+    @Override
+    public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
+        if (requestsPerNano > 0 && baseRequest.getHttpChannelState().isInitial()) {
+            final InetAddress address = address(baseRequest.getHttpChannel().getEndPoint());
+            if (address != null && !exempt.contains(address)) {
+                final long waitNanos = clients.computeIfAbsent(address, a -> new Client()).acquire(System.nanoTime());
+                if (waitNanos > 0) {
+                    rejectedRequests.mark();
+                    baseRequest.setHandled(true);
+                    response.setStatus(429);
+                    response.setHeader(HttpHeader.RETRY_AFTER.asString(), String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1))));
+                    return;
+                }
+            }
+        }
+        super.handle(target, baseRequest, request, response);
+    }
+
+    /**
+     * @return the client's address, or null for endpoints without one such as unix domain sockets
+     */
+    private static InetAddress address(EndPoint endPoint) {
+        final SocketAddress remote = endPoint.getRemoteSocketAddress();
+        return remote instanceof InetSocketAddress ? ((InetSocketAddress) remote).getAddress() : null;
+    }
+
+    private void evict() {
+        final long now = System.nanoTime();
+        clients.forEach((address, client) -> clients.computeIfPresent(address, (a, c) -> c.isIdle(now) ? null : c));
+    }
+
+    private void scheduleEviction() {
+        if (isRunning()) {
+            scheduler.schedule(() -> {
+                try {
+                    evict();
+                } finally {
+                    scheduleEviction();
+                }
+            }, Math.max(TimeUnit.SECONDS.toNanos(1), evictAfterNanos / 2), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @ManagedAttribute("concurrent connections allowed per client address, <= 0 for no limit")
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    @ManagedAttribute("requests per second allowed per client address, <= 0 for no limit")
+    public double getRequestsPerSecond() {
+        return requestsPerNano * TimeUnit.SECONDS.toNanos(1);
+    }
+
+    @ManagedAttribute("client addresses being tracked")
+    public int getClients() {
+        return clients.size();
+    }
+
+    @ManagedAttribute("connections closed for exceeding the per client limit")
+    public long getRejectedConnections() {
+        return rejectedConnections.getCount();
+    }
+
+    @ManagedAttribute("requests rejected with 429")
+    public long getRejectedRequests() {
+        return rejectedRequests.getCount();
+    }
+
+    @Override
+    public String toString() {
+        return "ClientLimitHandler{" +
+                "maxConnections=" + maxConnections +
+                ", requestsPerSecond=" + getRequestsPerSecond() +
+                ", burst=" + burst +
+                ", clients=" + clients.size() +
+                '}';
+    }
+
+    private final class Client {
+        // Guarded by the map entry, only changed inside compute
+        private int connections;
+
+        // Guarded by this
+        private double tokens = burst;
+        private long refilled = System.nanoTime();
+
+        private volatile long lastSeen = System.nanoTime();
+
+        /**
+         * @return 0 if a token was taken, otherwise the nanos until one is available
+         */
+        synchronized long acquire(long now) {
+            lastSeen = now;
+            tokens = Math.min(burst, tokens + (now - refilled) * requestsPerNano);
+            refilled = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / requestsPerNano);
+        }
+
+        boolean isIdle(long now) {
+            return connections == 0 && now - lastSeen >= evictAfterNanos;
+        }
+    }
+
+    private final class ConnectionTracker implements Connection.Listener {
+        @Override
+        public void onOpened(Connection connection) {
+            // PROXY protocol, TLS and protocol negotiation connections come first, their successor has the real address
+            if (!(connection instanceof HttpConnection || connection instanceof HTTP2Connection)) {
+                return;
+            }
+            final InetAddress address = address(connection.getEndPoint());
+            if (address == null || exempt.contains(address)) {
+                return;
+            }
+            final int[] connections = new int[1];
+            clients.compute(address, (a, client) -> {
+                final Client c = client == null ? new Client() : client;
+                c.connections++;
+                c.lastSeen = System.nanoTime();
+                connections[0] = c.connections;
+                return c;
+            });
+            counted.put(connection, address);
+            if (connections[0] > maxConnections) {
+                rejectedConnections.mark();
+                BUCKET_LOG.warn("Closing connection from {}, it has {} open connections and the limit is {}",
+                        address.getHostAddress(), connections[0], maxConnections);
+                connection.getEndPoint().close();
+            }
+        }
+
+        @Override
+        public void onClosed(Connection connection) {
+            final InetAddress address = counted.remove(connection);
+            if (address != null) {
+                clients.computeIfPresent(address, (a, c) -> {
+                    c.connections--;
+                    c.lastSeen = System.nanoTime();
+                    return c;
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.server.HttpChannelState;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+
+/**
+ * Sheds load once the number of in flight requests exceeds an adaptive limit, see {@link AdaptiveConcurrencyLimit}.
+ * Rejected requests are answered immediately with a {@code 503} and a {@code Retry-After} header, instead of
+ * waiting in the thread pool queue until the client has long given up.
+ * <p>
+ * Only async timeouts count as drops. Requests failing with an exception are not sampled at all: a bug answering
+ * everything with a {@code 500} says nothing about load, and must not throttle healthy traffic.
+ */
+@ManagedObject("Adaptive concurrency limit")
+public class ConcurrencyLimitHandler extends HandlerWrapper {
+    private final AdaptiveConcurrencyLimit limit;
+    private final String retryAfterSeconds;
+    private final List<String> bypassPaths;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    ConcurrencyLimitHandler(AdaptiveConcurrencyLimit limit, long retryAfterSeconds, List<String> bypassPaths) {
+        this.limit = limit;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        this.bypassPaths = List.copyOf(bypassPaths);
+    }
+
+    @Override
+    public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
+        final HttpChannelState state = baseRequest.getHttpChannelState();
+        // Async re-dispatches were admitted on their initial dispatch
+        if (!state.isInitial() || isBypassed(target)) {
+            super.handle(target, baseRequest, request, response);
+            return;
+        }
+
+        final int current = inFlight.incrementAndGet();
+        if (current > limit.getLimit()) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            baseRequest.setHandled(true);
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeader.RETRY_AFTER.asString(), retryAfterSeconds);
+            return;
+        }
+        accepted.increment();
+
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            super.handle(target, baseRequest, request, response);
+            failed = false;
+        } finally {
+            if (state.isAsyncStarted()) {
+                state.addListener(new Completion(start, current));
+            } else {
+                complete(start, current, failed, false);
+            }
+        }
+    }
+
+    private boolean isBypassed(String target) {
+        for (final String path : bypassPaths) {
+            if (target.startsWith(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void complete(long start, int inFlightAtStart, boolean failed, boolean timedOut) {
+        inFlight.decrementAndGet();
+        if (timedOut || !failed) {
+            limit.onSample(System.nanoTime() - start, inFlightAtStart, timedOut);
+        }
+    }
+
+    @ManagedAttribute("current concurrency limit")
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    @ManagedAttribute("requests currently in flight")
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @ManagedAttribute("requests admitted")
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    @ManagedAttribute("requests rejected with 503")
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrencyLimitHandler{" + limit + ", inFlight=" + inFlight + ", bypassPaths=" + bypassPaths + '}';
+    }
+
+    private class Completion implements AsyncListener {
+        private final long start;
+        private final int inFlightAtStart;
+        private boolean failed;
+        private boolean timedOut;
+
+        Completion(long start, int inFlightAtStart) {
+            this.start = start;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            complete(start, inFlightAtStart, failed, timedOut);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            timedOut = true;
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
+/**
+ * A thread pool owned by a single connector, so that a flood of traffic on one connector can't starve the others.
+ * Like the server pool it is eagerly sized; a bounded queue makes it reject work once full, which Jetty handles by
+ * closing the connection.
+ * <p>
+ * The connector's acceptors and selectors run on this pool too. They are submitted together when the connector
+ * starts, faster than the idle threads take them off the queue, so the queue has room for one job per thread on top
+ * of {@code queueSize}. Work is only rejected once no thread is idle and {@code queueSize} jobs are already waiting,
+ * so the extra room only ever holds jobs an idle thread is about to take.
+ */
+@ManagedObject("Thread pool dedicated to one connector")
+public class ConnectorThreadPool extends QueuedThreadPool {
+    private static final int IDLE_TIMEOUT_MILLIS = 60_000;
+
+    private final String connector;
+    private final int queueSize;
+    private final LongAdder rejected = new LongAdder();
+
+    ConnectorThreadPool(String connector, int threads, int queueSize) {
+        super(threads, threads, IDLE_TIMEOUT_MILLIS, queueSize > 0 ? new BlockingArrayQueue<>(queueSize + threads) : null);
+        this.connector = connector;
+        this.queueSize = queueSize;
+        setName("qtp-" + connector);
+    }
+
+    @Override
+    public void execute(Runnable job) {
+        if (queueSize > 0 && getIdleThreads() == 0 && getQueueSize() >= queueSize) {
+            rejected.increment();
+            throw new RejectedExecutionException(job.toString());
+        }
+        try {
+            super.execute(job);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    @ManagedAttribute("connector this pool serves")
+    public String getConnector() {
+        return connector;
+    }
+
+    @ManagedAttribute("jobs rejected because the queue was full")
+    public long getRejectedJobs() {
+        return rejected.sum();
+    }
+}
@@ -41,6 +41,8 @@ import com.opentable.security.mitigation.ApplySecurityMitigations;
     EmbeddedJetty.class,
     // Filter for transfer core info to MDC
     BackendInfoFilterConfiguration.class,
+    // Core backend info at the connector level, the default
+    BackendInfoConnectorConfiguration.class,
     // Support static resources
     StaticResourceConfiguration.class,
     // Sets thread name to the req.getRequestURI()
@@ -53,6 +55,20 @@ import com.opentable.security.mitigation.ApplySecurityMitigations;
     EmbeddedJettyLowResourceMonitor.class,
     // Connection Limiter
     EmbeddedJettyConnectionLimit.class,
+    // Per client address connection and request rate limits
+    EmbeddedJettyClientLimit.class,
+    // Adaptive concurrency limiter
+    EmbeddedJettyConcurrencyLimit.class,
+    // Bounded priority request queue
+    EmbeddedJettyRequestQueue.class,
+    // Selector and thread pool latency probes
+    EmbeddedJettyEventLoopMonitor.class,
+    // Asynchronous request log
+    AsyncRequestLogConfiguration.class,
+    // Per route latency and status metrics
+    RouteMetricsConfiguration.class,
+    // Drain traffic before shutdown
+    EmbeddedJettyShutdownDrain.class,
 
 })
 @ApplySecurityMitigations
@@ -14,6 +14,15 @@
 package com.opentable.server;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Clock;
 import java.time.Duration;
 import java.util.ArrayList;
@@ -22,6 +31,8 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -30,11 +41,18 @@ import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.management.MBeanServer;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
 import com.google.common.base.Verify;
 import com.google.common.collect.ImmutableMap;
 
+import org.eclipse.jetty.alpn.server.ALPNServerConnectionFactory;
+import org.eclipse.jetty.http2.HTTP2Cipher;
+import org.eclipse.jetty.http2.server.AbstractHTTP2ServerConnectionFactory;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.http2.server.HTTP2ServerConnectionFactory;
 import org.eclipse.jetty.jmx.MBeanContainer;
 import org.eclipse.jetty.server.ConnectionFactory;
 import org.eclipse.jetty.server.Connector;
@@ -44,9 +62,10 @@ import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.ProxyConnectionFactory;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
-import org.eclipse.jetty.server.SslConnectionFactory;
 import org.eclipse.jetty.server.handler.RequestLogHandler;
 import org.eclipse.jetty.server.handler.StatisticsHandler;
+import org.eclipse.jetty.unixdomain.server.UnixDomainServerConnector;
+import org.eclipse.jetty.util.VirtualThreads;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.eclipse.jetty.util.thread.ThreadPool;
@@ -67,6 +86,7 @@ import org.springframework.context.event.EventListener;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.core.env.PropertyResolver;
+import org.springframework.core.metrics.ApplicationStartup;
 import org.springframework.util.CollectionUtils;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -89,6 +109,10 @@ import com.opentable.util.Optionals;
 public abstract class EmbeddedJettyBase {
     public static final String DEFAULT_CONNECTOR_NAME = "default-http";
     public static final String BOOT_CONNECTOR_NAME = "boot";
+    public static final String UNIX_PROTOCOL = "unix";
+    public static final String PLATFORM_EXECUTOR = "platform";
+    public static final String VIRTUAL_EXECUTOR = "virtual";
+    static final String CONNECTOR_EXECUTOR_METRICS_PREFIX = "http-server.executors";
     private static final Logger LOG = LoggerFactory.getLogger(EmbeddedJettyBase.class);
 
     @Value("${ot.http.bind-port:#{null}}")
@@ -110,6 +134,11 @@ public abstract class EmbeddedJettyBase {
     // Specifying this fails the build.
     private Integer minThreads;
 
+    // "platform" runs requests on the QueuedThreadPool, "virtual" hands blocking work to virtual threads
+    // while selectors and acceptors stay on the (platform) QueuedThreadPool.
+    @Value("${ot.httpserver.executor:" + PLATFORM_EXECUTOR + "}")
+    private String executor;
+
     @Value("${ot.httpserver.active-connectors:default-http}")
     List<String> activeConnectors;
 
@@ -154,6 +183,27 @@ public abstract class EmbeddedJettyBase {
     @Inject
     Optional<MBeanServer> mbs;
 
+    @Inject
+    Optional<ConcurrencyLimitHandler> concurrencyLimitHandler;
+
+    @Inject
+    Optional<RouteMetricsHandler> routeMetricsHandler;
+
+    @Inject
+    Optional<ShutdownDrainCoordinator> shutdownDrainCoordinator;
+
+    @Inject
+    Optional<RequestQueueHandler> requestQueueHandler;
+
+    @Inject
+    Optional<ClientLimitHandler> clientLimitHandler;
+
+    @Inject
+    Optional<MetricRegistry> metricRegistry;
+
+    @Inject
+    Optional<ApplicationStartup> applicationStartup;
+
     private Map<String, ConnectorInfo> connectorInfos;
 
     @Bean
@@ -195,6 +245,30 @@ public abstract class EmbeddedJettyBase {
                 }
             }
 
+            // Innermost, since it resumes queued requests as a new dispatch
+            if (requestQueueHandler.isPresent()) {
+                final RequestQueueHandler queueHandler = requestQueueHandler.get();
+                queueHandler.setHandler(customizedHandler);
+                customizedHandler = queueHandler;
+                LOG.debug("request queue enabled; added {}", queueHandler);
+            }
+
+            if (concurrencyLimitHandler.isPresent()) {
+                final ConcurrencyLimitHandler limitHandler = concurrencyLimitHandler.get();
+                limitHandler.setHandler(customizedHandler);
+                customizedHandler = limitHandler;
+                LOG.debug("concurrency limit enabled; added {}", limitHandler);
+            }
+
+            // Outside the concurrency limit, so throttled clients don't take up its slots
+            if (clientLimitHandler.isPresent()) {
+                final ClientLimitHandler limitHandler = clientLimitHandler.get();
+                limitHandler.setHandler(customizedHandler);
+                customizedHandler = limitHandler;
+                LOG.debug("client limits enabled; added {}", limitHandler);
+            }
+
+            // Outside the limits, so the requests they reject are logged too
             if (!requestLogConfig.isEnabled()) {
                 LOG.debug("request logging disabled; config {}", requestLogConfig);
             } else {
@@ -206,6 +280,13 @@ public abstract class EmbeddedJettyBase {
                 LOG.debug("request logging enabled; added log handler with config {}", requestLogConfig);
             }
 
+            if (routeMetricsHandler.isPresent()) {
+                final RouteMetricsHandler metricsHandler = routeMetricsHandler.get();
+                metricsHandler.setHandler(customizedHandler);
+                customizedHandler = metricsHandler;
+                LOG.debug("route metrics enabled; added {}", metricsHandler);
+            }
+
             // Required for graceful shutdown to work
             final StatisticsHandler stats = new StatisticsHandler();
             stats.setHandler(customizedHandler);
@@ -227,6 +308,14 @@ public abstract class EmbeddedJettyBase {
             bootConnector.close();
             this.connectorInfos = connectorInfos.build();
 
+            // Spring Boot starts the server while creating it, and the connectors once the context is refreshed
+            applicationStartup.ifPresent(startup -> {
+                StartupRecorder.recordStart(startup, server, "otj.jetty.start", null);
+                for (final Connector connector : server.getConnectors()) {
+                    StartupRecorder.recordStart(startup, connector, "otj.jetty.connector.start", connector.getName());
+                }
+            });
+
             server.setStopTimeout(shutdownTimeout.toMillis());
         });
         factory.addServerCustomizers(this::sizeThreadPool);
@@ -240,28 +329,37 @@ public abstract class EmbeddedJettyBase {
     @SuppressWarnings("resource")
     @SuppressFBWarnings("SF_SWITCH_FALLTHROUGH")
     private ConnectorInfo createConnector(Server server, String name,  ServerConnectorConfig config, ServerConnector bootConnector, PropertyResolver pr) {
-        final List<ConnectionFactory> factories = new ArrayList<>();
-
         final SslContextFactory.Server ssl;
+        boolean proxy = false;
 
         switch (config.getProtocol()) { // NOPMD
             case "proxy+http":
-                factories.add(new ProxyConnectionFactory());
+                proxy = true;
                 //$FALL-THROUGH$
             case "http":
+            case "h2c":
+            case UNIX_PROTOCOL:
                 ssl = null;
                 break;
             case "proxy+https":
-                factories.add(new ProxyConnectionFactory());
+                proxy = true;
                 //$FALL-THROUGH$
             case "https":
+            case "h2":
                 ssl = new SslContextFactory.Server();
                 ssl.setKeyStorePath(config.getKeystore());
                 ssl.setKeyStorePassword(config.getKeystorePassword());
+                if (config.getSslSessionCacheSize() >= 0) {
+                    ssl.setSslSessionCacheSize(config.getSslSessionCacheSize());
+                }
+                if (config.getSslSessionTimeout() >= 0) {
+                    ssl.setSslSessionTimeout(config.getSslSessionTimeout());
+                }
                 break;
             default:
                 throw new UnsupportedOperationException(String.format("For connector '%s', unsupported protocol '%s'", name, config.getProtocol()));
         }
+        final boolean http2 = "h2".equals(config.getProtocol()) || "h2c".equals(config.getProtocol());
 
         final HttpConfiguration httpConfig = new HttpConfiguration();
 
@@ -285,7 +383,6 @@ public abstract class EmbeddedJettyBase {
         }
 
         httpConfigCustomizers.ifPresent(c -> c.forEach(h -> h.accept(httpConfig)));
-        final HttpConnectionFactory http = new HttpConnectionFactory(httpConfig);
 
         if (ssl != null) {
             if (!CollectionUtils.isEmpty(excludedProtocols)) {
@@ -299,30 +396,215 @@ public abstract class EmbeddedJettyBase {
                 excludedCipherSuits.forEach(cipher -> LOG.warn("Disabling {}", cipher));
                 ssl.setExcludeCipherSuites(excludedCipherSuits.toArray(new String[0]));
             }
+        }
 
-            factories.add(new SslConnectionFactory(ssl, http.getProtocol()));
+        if (UNIX_PROTOCOL.equals(config.getProtocol())) {
+            return createUnixSocketConnector(server, name, config, httpConfig);
         }
 
-        factories.add(http);
+        final int listeners = Math.max(1, config.getListeners());
+        if (listeners > 1 && !isReusePortSupported()) {
+            throw new UnsupportedOperationException(String.format("For connector '%s', %d listeners need SO_REUSEPORT, which this platform doesn't support", name, listeners));
+        }
 
+        final ConnectorThreadPool pool = createConnectorThreadPool(server, name, config);
+        final TlsHandshakeMetrics handshakes = ssl == null ? null : new TlsHandshakeMetrics(name, metricRegistry);
+        ServerConnector primary = null;
+        for (int i = 0; i < listeners; i++) {
+            // Each listener gets its own connection factories, only the configuration and TLS context are shared
+            final ConnectionFactory[] factories = createConnectionFactories(config, httpConfig, ssl, handshakes, proxy, http2);
+            @SuppressWarnings("PMD.CloseResource")
+            final ServerConnector connector = primary == null
+                    ? new ServerConnector(server, pool, null, null, config.getAcceptors(), config.getSelectors(), factories)
+                    : new SiblingServerConnector(server, pool, config.getAcceptors(), config.getSelectors(), primary, factories);
+            if (pool != null) {
+                // The server owns the pool, so it outlives every listener using it
+                connector.unmanage(pool);
+            }
+            connector.setName(name);
+            if (BOOT_CONNECTOR_NAME.equals(name) && bootConnector != null) {
+                connector.setHost(bootConnector.getHost());
+                connector.setPort(Integer.parseInt(pr.getProperty("server.port", "8080").trim()));
+                LOG.debug("Configuring HTTP connector, setting host and port to Spring's defaults.");
+            } else {
+                connector.setHost(config.getBindAddress());
+                connector.setPort(selectPort(config));
+            }
+            if (config.getIdleTimeout() > 0) {
+                connector.setIdleTimeout(config.getIdleTimeout());
+            }
+            if (config.getAcceptQueueSize() > 0) {
+                connector.setAcceptQueueSize(config.getAcceptQueueSize());
+            }
+            connector.setReusePort(listeners > 1);
+            clientLimitHandler.ifPresent(limitHandler -> limitHandler.track(connector));
+
+            server.addConnector(connector);
+            if (primary == null) {
+                primary = connector;
+            }
+        }
+        if (ssl != null && config.getKeystoreScanInterval() > 0) {
+            primary.addBean(createKeystoreReloader(name, ssl, config));
+        }
+        if (listeners > 1) {
+            LOG.info("Connector '{}' listens on {} SO_REUSEPORT sockets with {} acceptors and {} selectors each",
+                    name, listeners, primary.getAcceptors(), primary.getSelectorManager().getSelectorCount());
+        }
+        return new ServerConnectorInfo(name, primary, config);
+    }
+
+    private ConnectorInfo createUnixSocketConnector(Server server, String name, ServerConnectorConfig config, HttpConfiguration httpConfig) {
+        if (Runtime.version().feature() < 16) {
+            throw new UnsupportedOperationException(String.format("For connector '%s', protocol '%s' needs Java 16+", name, UNIX_PROTOCOL));
+        }
+        if (Strings.isNullOrEmpty(config.getUnixSocketPath())) {
+            throw new IllegalStateException(String.format("For connector '%s', protocol '%s' needs a unixSocketPath", name, UNIX_PROTOCOL));
+        }
+        if (config.getListeners() > 1) {
+            throw new UnsupportedOperationException(String.format("For connector '%s', protocol '%s' supports a single listener", name, UNIX_PROTOCOL));
+        }
+        final Path path = Paths.get(config.getUnixSocketPath()).toAbsolutePath();
+        removeStaleSocket(name, path);
+
+        final ConnectorThreadPool pool = createConnectorThreadPool(server, name, config);
         @SuppressWarnings("PMD.CloseResource")
-        final ServerConnector connector = new ServerConnector(server,
-                factories.toArray(new ConnectionFactory[factories.size()]));
-        connector.setName(name);
-        if (BOOT_CONNECTOR_NAME.equals(name) && bootConnector != null) {
-            connector.setHost(bootConnector.getHost());
-            connector.setPort(Integer.parseInt(pr.getProperty("server.port", "8080").trim()));
-            LOG.debug("Configuring HTTP connector, setting host and port to Spring's defaults.");
-        } else {
-            connector.setHost(config.getBindAddress());
-            connector.setPort(selectPort(config));
+        final UnixDomainServerConnector connector = new UnixDomainServerConnector(server, pool, null, null,
+                config.getAcceptors(), config.getSelectors(), new HttpConnectionFactory(httpConfig));
+        if (pool != null) {
+            connector.unmanage(pool);
         }
+        connector.setName(name);
+        connector.setUnixDomainPath(path);
         if (config.getIdleTimeout() > 0) {
             connector.setIdleTimeout(config.getIdleTimeout());
         }
+        if (config.getAcceptQueueSize() > 0) {
+            connector.setAcceptQueueSize(config.getAcceptQueueSize());
+        }
 
         server.addConnector(connector);
-        return new ServerConnectorInfo(name, connector, config);
+        LOG.info("Connector '{}' listens on unix domain socket {}", name, path);
+        return new UnixSocketConnectorInfo(name, path);
+    }
+
+    private KeystoreReloader createKeystoreReloader(String name, SslContextFactory.Server ssl, ServerConnectorConfig config) {
+        final KeystoreReloader reloader;
+        try {
+            reloader = new KeystoreReloader(name, ssl, config.getKeystorePassword(), config.getKeystoreScanInterval(), metricRegistry);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(String.format("For connector '%s', can't watch keystore '%s'", name, config.getKeystore()), e);
+        }
+        LOG.info("Connector '{}' checks keystore {} for changes every {}s", name, reloader.getKeystore(), config.getKeystoreScanInterval());
+        return reloader;
+    }
+
+    /**
+     * A socket file left behind by a previous process that didn't exit cleanly would make the bind fail.
+     */
+    private static void removeStaleSocket(String name, Path path) {
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            if (!attributes.isOther()) {
+                throw new IllegalStateException(String.format("For connector '%s', %s exists and is not a socket", name, path));
+            }
+            LOG.warn("Removing stale socket {} for connector '{}'", path, name);
+            Files.delete(path);
+        } catch (NoSuchFileException e) {
+            LOG.trace("No stale socket at {}", path, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("For connector '%s', couldn't remove stale socket %s", name, path), e);
+        }
+    }
+
+    /**
+     * @return a pool for this connector alone, or null to share the server's pool
+     */
+    private ConnectorThreadPool createConnectorThreadPool(Server server, String name, ServerConnectorConfig config) {
+        if (config.getExecutorThreads() <= 0) {
+            return null;
+        }
+        final ConnectorThreadPool pool = new ConnectorThreadPool(name, config.getExecutorThreads(), config.getExecutorQueueSize());
+        final String connectorExecutor = config.getExecutor() == null ? executor : config.getExecutor();
+        configureExecutor(pool, connectorExecutor, "ot.httpserver.connector." + name + ".executor");
+        server.addBean(pool, true);
+
+        metricRegistry.ifPresent(registry -> {
+            final String prefix = MetricRegistry.name(CONNECTOR_EXECUTOR_METRICS_PREFIX, RouteMetricsHandler.sanitize(name));
+            registry.gauge(MetricRegistry.name(prefix, "threads"), () -> pool::getThreads);
+            registry.gauge(MetricRegistry.name(prefix, "busy-threads"), () -> pool::getBusyThreads);
+            registry.gauge(MetricRegistry.name(prefix, "queue-size"), () -> pool::getQueueSize);
+            registry.gauge(MetricRegistry.name(prefix, "utilization"), () -> pool::getUtilizationRate);
+            registry.gauge(MetricRegistry.name(prefix, "rejected-jobs"), () -> pool::getRejectedJobs);
+        });
+        LOG.info("Connector '{}' has its own {} executor with {} threads, queue size {}", name, connectorExecutor,
+                config.getExecutorThreads(), config.getExecutorQueueSize() > 0 ? config.getExecutorQueueSize() : "unbounded");
+        return pool;
+    }
+
+    private ConnectionFactory[] createConnectionFactories(ServerConnectorConfig config, HttpConfiguration httpConfig,
+                                                          SslContextFactory.Server ssl, TlsHandshakeMetrics handshakes,
+                                                          boolean proxy, boolean http2) {
+        final List<ConnectionFactory> factories = new ArrayList<>();
+        if (proxy) {
+            factories.add(new ProxyConnectionFactory());
+        }
+
+        final HttpConnectionFactory http = new HttpConnectionFactory(httpConfig);
+        final AbstractHTTP2ServerConnectionFactory h2 = http2 ? createHttp2ConnectionFactory(config, httpConfig, ssl != null) : null;
+
+        if (ssl != null) {
+            if (h2 != null) {
+                // h2 over TLS, negotiated with ALPN, falling back to HTTP/1.1 for clients that don't speak it
+                ssl.setCipherComparator(HTTP2Cipher.COMPARATOR);
+                ssl.setUseCipherSuitesOrder(true);
+                final ALPNServerConnectionFactory alpn = new ALPNServerConnectionFactory(h2.getProtocol(), http.getProtocol());
+                alpn.setDefaultProtocol(http.getProtocol());
+                factories.add(new InstrumentedSslConnectionFactory(ssl, alpn.getProtocol(), handshakes));
+                factories.add(alpn);
+                factories.add(h2);
+            } else {
+                factories.add(new InstrumentedSslConnectionFactory(ssl, http.getProtocol(), handshakes));
+            }
+        }
+
+        factories.add(http);
+        if (h2 != null && ssl == null) {
+            // h2c: HTTP/1.1 handles both the prior knowledge preface and the Upgrade: h2c request
+            factories.add(h2);
+        }
+        return factories.toArray(new ConnectionFactory[0]);
+    }
+
+    private AbstractHTTP2ServerConnectionFactory createHttp2ConnectionFactory(ServerConnectorConfig config, HttpConfiguration httpConfig, boolean secure) {
+        final AbstractHTTP2ServerConnectionFactory h2 = secure
+                ? new HTTP2ServerConnectionFactory(httpConfig)
+                : new HTTP2CServerConnectionFactory(httpConfig);
+        // As with the header size, values <= 0 keep the Jetty defaults
+        if (config.getHttp2MaxConcurrentStreams() > 0) {
+            h2.setMaxConcurrentStreams(config.getHttp2MaxConcurrentStreams());
+        }
+        if (config.getHttp2InitialStreamRecvWindow() > 0) {
+            h2.setInitialStreamRecvWindow(config.getHttp2InitialStreamRecvWindow());
+        }
+        if (config.getHttp2InitialSessionRecvWindow() > 0) {
+            h2.setInitialSessionRecvWindow(config.getHttp2InitialSessionRecvWindow());
+        }
+        if (config.getHttp2HpackTableSize() > 0) {
+            h2.setMaxDynamicTableSize(config.getHttp2HpackTableSize());
+        }
+        h2.setUseInputDirectByteBuffers(config.isUseDirectBuffers());
+        h2.setUseOutputDirectByteBuffers(config.isUseDirectBuffers());
+        return h2;
+    }
+
+    private static boolean isReusePortSupported() {
+        try (ServerSocketChannel channel = ServerSocketChannel.open()) {
+            return channel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT);
+        } catch (IOException e) {
+            LOG.warn("Couldn't check for SO_REUSEPORT support", e);
+            return false;
+        }
     }
 
     private int selectPort(ServerConnectorConfig connectorConfig) {
@@ -343,6 +625,27 @@ public abstract class EmbeddedJettyBase {
         qtp.setMinThreads(maxThreads);
         qtp.setMaxThreads(maxThreads);
 
+        configureExecutor(qtp, executor, "ot.httpserver.executor");
+        if (VIRTUAL_EXECUTOR.equals(executor)) {
+            LOG.info("Request handling will run on virtual threads, {} platform threads remain for selectors and acceptors", maxThreads);
+        }
+    }
+
+    static void configureExecutor(QueuedThreadPool qtp, String executor, String property) {
+        switch (executor) { // NOPMD
+            case PLATFORM_EXECUTOR:
+                break;
+            case VIRTUAL_EXECUTOR:
+                if (!VirtualThreads.areSupported()) {
+                    throw new IllegalStateException(String.format("'%s=virtual' requires a JVM with virtual thread support (Java 21+)", property));
+                }
+                // Selectors and acceptors keep running on the platform threads of the pool,
+                // Jetty dispatches blocking work (ie request handling) to a new virtual thread per task.
+                qtp.setUseVirtualThreads(true);
+                break;
+            default:
+                throw new UnsupportedOperationException(String.format("Unsupported executor '%s' for '%s'", executor, property));
+        }
     }
 
     @EventListener
@@ -371,13 +674,19 @@ public abstract class EmbeddedJettyBase {
         LOG.debug("Received application context closed event {}. Shutting down...", evt);
         LOG.info("Early shutdown of Jetty connectors on {}", container);
         if (container != null) {
-            if(shouldSleepBeforeShutdown) {
+            if (shutdownDrainCoordinator.isPresent()) {
+                if (shouldSleepBeforeShutdown) {
+                    LOG.info("Shutdown drain is enabled, ignoring ot.httpserver.sleep-before-shutdown");
+                }
+                shutdownDrainCoordinator.get().drain(getServer());
+            } else if(shouldSleepBeforeShutdown) {
                 long sleepDurationMillisBeforeShutdown = sleepDurationBeforeShutdown.toMillis();
                 LOG.info("Application config requesting sleep for {} ms before Jetty shutdown", sleepDurationMillisBeforeShutdown);
                 sleepBeforeJettyShutdown(sleepDurationMillisBeforeShutdown);
             }
+            final long stopStart = System.nanoTime();
             container.stop();
-            LOG.info("Jetty is stopped.");
+            LOG.info("Jetty is stopped in {} ms.", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stopStart));
         } else {
             LOG.warn("Never got a Jetty?");
         }
@@ -411,8 +720,23 @@ public abstract class EmbeddedJettyBase {
 
             @Override
             public int getPoolSize() {
+                if (isVirtualThreads()) {
+                    return UNBOUNDED_POOL_SIZE;
+                }
+                final WebServer container = serverHolder().get();
+                if (container != null) {
+                    final ThreadPool threadPool = ((JettyWebServer) container).getServer().getThreadPool();
+                    if (threadPool instanceof ThreadPool.SizedThreadPool) {
+                        return ((ThreadPool.SizedThreadPool) threadPool).getMaxThreads();
+                    }
+                }
                 return maxThreads;
             }
+
+            @Override
+            public boolean isVirtualThreads() {
+                return VIRTUAL_EXECUTOR.equals(executor);
+            }
         };
     }
 
@@ -441,6 +765,28 @@ public abstract class EmbeddedJettyBase {
         return httpActualPort;
     }
 
+    /**
+     * An additional listener for a connector. When the port is ephemeral it binds to whatever port the first
+     * listener got, which it can do because connectors are opened in the order they were added.
+     */
+    private static class SiblingServerConnector extends ServerConnector {
+        private final ServerConnector primary;
+
+        SiblingServerConnector(Server server, Executor executor, int acceptors, int selectors, ServerConnector primary, ConnectionFactory... factories) {
+            super(server, executor, null, null, acceptors, selectors, factories);
+            this.primary = primary;
+        }
+
+        @Override
+        public void open() throws IOException {
+            if (getPort() == 0 && !isOpen()) {
+                Preconditions.checkState(primary.getLocalPort() > 0, "first listener of connector '%s' isn't open yet", getName());
+                setPort(primary.getLocalPort());
+            }
+            super.open();
+        }
+    }
+
     interface WebServerFactoryAdapter<T> {
 
         void setPort(int port);
@@ -0,0 +1,104 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.net.InetAddresses;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.lang.NonNull;
+
+/**
+ * Installs a {@link ClientLimitHandler}, limiting connections and requests per client address.
+ */
+@Configuration
+@Conditional(EmbeddedJettyClientLimit.InstallEmbeddedJettyClientLimit.class)
+public class EmbeddedJettyClientLimit {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddedJettyClientLimit.class);
+
+    public static class InstallEmbeddedJettyClientLimit implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, @NonNull AnnotatedTypeMetadata metadata) {
+            final String value = context.getEnvironment().
+                    getProperty("ot.server.client-limit.enabled", "false");
+            return Boolean.parseBoolean(value);
+        }
+    }
+
+    /**
+     * maxConnections - concurrent connections per client address, further ones are closed; <= 0 for no limit
+     */
+    @Value("${ot.server.client-limit.max-connections:50}")
+    private int maxConnections;
+
+    /**
+     * requestsPerSecond, burst - sustained request rate and burst size per client address; a rate <= 0 for no limit
+     */
+    @Value("${ot.server.client-limit.requests-per-second:0}")
+    private double requestsPerSecond;
+
+    @Value("${ot.server.client-limit.burst:100}")
+    private int burst;
+
+    /**
+     * evictAfter - how long an address without connections is remembered
+     */
+    @Value("${ot.server.client-limit.evict-after:PT1M}")
+    private Duration evictAfter;
+
+    /**
+     * exemptAddresses - literal IP addresses never limited, e.g. the load balancer's health checker
+     */
+    @Value("${ot.server.client-limit.exempt-addresses:}")
+    private List<String> exemptAddresses;
+
+    @Bean
+    public ClientLimitHandler clientLimitHandler(MetricRegistry metricRegistry) {
+        if (maxConnections <= 0 && requestsPerSecond <= 0) {
+            throw new IllegalStateException("'ot.server.client-limit.enabled' needs 'max-connections' or 'requests-per-second' to be positive");
+        }
+        if (evictAfter.isNegative() || evictAfter.isZero()) {
+            throw new IllegalStateException(String.format("'ot.server.client-limit.evict-after' must be positive, got %s", evictAfter));
+        }
+        final Set<InetAddress> exempt;
+        try {
+            exempt = exemptAddresses.stream()
+                    .map(String::trim)
+                    .filter(address -> !address.isEmpty())
+                    .map(InetAddresses::forString)
+                    .collect(Collectors.toSet());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("'ot.server.client-limit.exempt-addresses' must be IP addresses", e);
+        }
+        final ClientLimitHandler handler = new ClientLimitHandler(maxConnections, requestsPerSecond, burst,
+                evictAfter.toNanos(), exempt, metricRegistry);
+        LOG.debug("Creating client limit handler: {}", handler);
+        return handler;
+    }
+}
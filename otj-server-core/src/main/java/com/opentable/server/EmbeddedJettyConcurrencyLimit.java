@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.lang.NonNull;
+
+/**
+ * Installs a {@link ConcurrencyLimitHandler} right inside the {@code StatisticsHandler} set up by {@link EmbeddedJettyBase}.
+ */
+@Configuration
+@Conditional(EmbeddedJettyConcurrencyLimit.InstallEmbeddedJettyConcurrencyLimit.class)
+public class EmbeddedJettyConcurrencyLimit {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddedJettyConcurrencyLimit.class);
+
+    public static class InstallEmbeddedJettyConcurrencyLimit implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, @NonNull AnnotatedTypeMetadata metadata) {
+            final String value = context.getEnvironment().
+                    getProperty("ot.server.concurrency-limit.enabled", "false");
+            return Boolean.parseBoolean(value);
+        }
+    }
+
+    /**
+     * initialLimit - in flight requests permitted before any latency has been observed
+     */
+    @Value("${ot.server.concurrency-limit.initial-limit:20}")
+    private int initialLimit;
+
+    /**
+     * minLimit, maxLimit - bounds for the computed limit
+     */
+    @Value("${ot.server.concurrency-limit.min-limit:4}")
+    private int minLimit;
+
+    @Value("${ot.server.concurrency-limit.max-limit:1000}")
+    private int maxLimit;
+
+    /**
+     * smoothing - weight (0, 1] given to each new limit estimate, lower values react more slowly
+     */
+    @Value("${ot.server.concurrency-limit.smoothing:1.0}")
+    private double smoothing;
+
+    /**
+     * retryAfter - value of the Retry-After header sent with rejections, rounded up to whole seconds and at least 1
+     */
+    @Value("${ot.server.concurrency-limit.retry-after:PT1S}")
+    private Duration retryAfter;
+
+    /**
+     * bypassPaths - path prefixes (e.g. health checks) never subject to the limit
+     */
+    @Value("${ot.server.concurrency-limit.bypass-paths:}")
+    private List<String> bypassPaths;
+
+    @Bean
+    public ConcurrencyLimitHandler concurrencyLimitHandler() {
+        final ConcurrencyLimitHandler handler = new ConcurrencyLimitHandler(
+                new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, smoothing),
+                Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfter.toNanos() + TimeUnit.SECONDS.toNanos(1) - 1)),
+                bypassPaths);
+        LOG.debug("Creating concurrency limit handler: {}", handler);
+        return handler;
+    }
+}
@@ -66,7 +66,7 @@ public class EmbeddedJettyConnectionLimit {
     }
 
     @Bean
-    public Consumer<Server> lowResourcesCustomizer() {
+    public Consumer<Server> connectionLimitCustomizer() {
         return  server -> {
            if (connectionLimit > 0) {
                server.addBean(connectionLimit(connectionLimit, server));
@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import com.codahale.metrics.MetricRegistry;
+
+import org.eclipse.jetty.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.lang.NonNull;
+
+/**
+ * Adds an {@link EventLoopMonitor} to the server, probing selector and thread pool latency.
+ */
+@Configuration
+@Conditional(EmbeddedJettyEventLoopMonitor.InstallEmbeddedJettyEventLoopMonitor.class)
+public class EmbeddedJettyEventLoopMonitor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddedJettyEventLoopMonitor.class);
+
+    public static class InstallEmbeddedJettyEventLoopMonitor implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, @NonNull AnnotatedTypeMetadata metadata) {
+            final String value = context.getEnvironment().
+                    getProperty("ot.server.event-loop-monitor.enabled", "false");
+            return Boolean.parseBoolean(value);
+        }
+    }
+
+    /**
+     * period - how often every selector and executor is probed
+     */
+    @Value("${ot.server.event-loop-monitor.period:PT0.1S}")
+    private Duration period;
+
+    /**
+     * window, significantDigits - histograms, as for the route metrics
+     */
+    @Value("${ot.server.event-loop-monitor.window:PT1M}")
+    private Duration window;
+
+    @Value("${ot.server.event-loop-monitor.significant-digits:2}")
+    private int significantDigits;
+
+    @Bean
+    public Consumer<Server> eventLoopMonitorCustomizer(MetricRegistry metricRegistry) {
+        if (period.isNegative() || period.isZero()) {
+            throw new IllegalStateException(String.format("'ot.server.event-loop-monitor.period' must be positive, got %s", period));
+        }
+        return server -> {
+            final EventLoopMonitor monitor = new EventLoopMonitor(server, period.toNanos(), metricRegistry,
+                    () -> new HdrHistogramReservoir(significantDigits, window));
+            LOG.debug("Installing {}", monitor);
+            server.addBean(monitor);
+        };
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.MetricRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.lang.NonNull;
+
+/**
+ * Installs a {@link RequestQueueHandler} around the application's handler, inside everything set up by
+ * {@link EmbeddedJettyBase}.
+ */
+@Configuration
+@Conditional(EmbeddedJettyRequestQueue.InstallEmbeddedJettyRequestQueue.class)
+public class EmbeddedJettyRequestQueue {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddedJettyRequestQueue.class);
+
+    public static class InstallEmbeddedJettyRequestQueue implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, @NonNull AnnotatedTypeMetadata metadata) {
+            final String value = context.getEnvironment().
+                    getProperty("ot.server.request-queue.enabled", "false");
+            return Boolean.parseBoolean(value);
+        }
+    }
+
+    /**
+     * maxConcurrent - requests handled at once, the rest wait in the queue
+     */
+    @Value("${ot.server.request-queue.max-concurrent:${ot.httpserver.max-threads:32}}")
+    private int maxConcurrent;
+
+    /**
+     * maxQueued - requests waiting across all priorities before new ones are rejected
+     */
+    @Value("${ot.server.request-queue.max-queued:256}")
+    private int maxQueued;
+
+    /**
+     * target - longest wait once the queue is standing
+     */
+    @Value("${ot.server.request-queue.target:PT0.05S}")
+    private Duration target;
+
+    /**
+     * interval - longest wait otherwise, and how long the queue must stay non empty to count as standing
+     */
+    @Value("${ot.server.request-queue.interval:PT0.5S}")
+    private Duration interval;
+
+    /**
+     * retryAfter - value of the Retry-After header sent with rejections, rounded up to whole seconds and at least 1
+     */
+    @Value("${ot.server.request-queue.retry-after:PT1S}")
+    private Duration retryAfter;
+
+    /**
+     * highPriorityPaths, highPriorityConnectors - path prefixes (e.g. health checks) and connectors served first
+     */
+    @Value("${ot.server.request-queue.high-priority-paths:}")
+    private List<String> highPriorityPaths;
+
+    @Value("${ot.server.request-queue.high-priority-connectors:}")
+    private List<String> highPriorityConnectors;
+
+    /**
+     * priorityHeader - request header whose value, high or low, picks the priority of other requests
+     */
+    @Value("${ot.server.request-queue.priority-header:}")
+    private String priorityHeader;
+
+    /**
+     * window, significantDigits - queue time histograms, as for the route metrics
+     */
+    @Value("${ot.server.request-queue.window:PT1M}")
+    private Duration window;
+
+    @Value("${ot.server.request-queue.significant-digits:2}")
+    private int significantDigits;
+
+    @Bean
+    public RequestQueueHandler requestQueueHandler(MetricRegistry metricRegistry) {
+        if (maxConcurrent <= 0 || maxQueued < 0) {
+            throw new IllegalStateException(String.format("'ot.server.request-queue.max-concurrent' must be positive and 'max-queued' not negative, got %d and %d", maxConcurrent, maxQueued));
+        }
+        if (target.compareTo(interval) > 0) {
+            throw new IllegalStateException(String.format("'ot.server.request-queue.target' (%s) must not exceed 'interval' (%s)", target, interval));
+        }
+        final long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfter.toNanos() + TimeUnit.SECONDS.toNanos(1) - 1));
+        final RequestQueueHandler handler = new RequestQueueHandler(maxConcurrent, maxQueued,
+                target.toNanos(), interval.toNanos(), retryAfterSeconds,
+                highPriorityPaths, new HashSet<>(highPriorityConnectors), priorityHeader,
+                metricRegistry, () -> new HdrHistogramReservoir(significantDigits, window));
+        LOG.debug("Creating request queue handler: {}", handler);
+        return handler;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.lang.NonNull;
+
+import com.opentable.metrics.ready.ReadyCheck;
+
+/**
+ * Replaces the fixed sleep before {@link EmbeddedJettyBase} stops Jetty with a {@link ShutdownDrainCoordinator}.
+ */
+@Configuration
+@Conditional(EmbeddedJettyShutdownDrain.InstallEmbeddedJettyShutdownDrain.class)
+public class EmbeddedJettyShutdownDrain {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddedJettyShutdownDrain.class);
+
+    public static class InstallEmbeddedJettyShutdownDrain implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, @NonNull AnnotatedTypeMetadata metadata) {
+            final String value = context.getEnvironment().
+                    getProperty("ot.httpserver.shutdown.drain.enabled", "false");
+            return Boolean.parseBoolean(value);
+        }
+    }
+
+    /**
+     * timeout - longest wait for requests in flight to finish
+     */
+    @Value("${ot.httpserver.shutdown.drain.timeout:PT20S}")
+    private Duration timeout;
+
+    /**
+     * quietPeriod - how long no new request may start before the server counts as drained
+     */
+    @Value("${ot.httpserver.shutdown.drain.quiet-period:PT1S}")
+    private Duration quietPeriod;
+
+    /**
+     * shutdownTimeout, fallbackTimeout - only used to warn about a drain that can't finish before the JVM is killed
+     */
+    @Value("${ot.httpserver.shutdown-timeout:PT5s}")
+    private Duration shutdownTimeout;
+
+    @Value("${" + StartupShutdownFailedHandler.FALLBACK_TIMEOUT_PROPERTY + ":PT30S}")
+    private Duration fallbackTimeout;
+
+    @Bean
+    public ShutdownDrainCoordinator shutdownDrainCoordinator() {
+        final ShutdownDrainCoordinator coordinator = new ShutdownDrainCoordinator(timeout, quietPeriod);
+        if (timeout.plus(shutdownTimeout).compareTo(fallbackTimeout) >= 0) {
+            LOG.warn("Drain timeout {} plus shutdown timeout {} exceed the fallback shutdown timeout {}, the JVM may be terminated mid drain",
+                    timeout, shutdownTimeout, fallbackTimeout);
+        }
+        LOG.debug("Creating shutdown drain coordinator: {}", coordinator);
+        return coordinator;
+    }
+
+    @Bean
+    public ReadyCheck shutdownDrainReadyCheck(ShutdownDrainCoordinator coordinator) {
+        return coordinator.readyCheck();
+    }
+
+    @Bean
+    public Consumer<HttpConfiguration> shutdownDrainHttpConfigCustomizer(ShutdownDrainCoordinator coordinator) {
+        return httpConfig -> httpConfig.addCustomizer(coordinator);
+    }
+
+    // Shows up in the Jetty dump and JMX
+    @Bean
+    public Consumer<Server> shutdownDrainServerCustomizer(ShutdownDrainCoordinator coordinator) {
+        return server -> server.addBean(coordinator);
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Timer;
+
+import org.eclipse.jetty.io.ManagedSelector;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.component.ContainerLifeCycle;
+import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
+import org.eclipse.jetty.util.thread.Scheduler;
+import org.eclipse.jetty.util.thread.strategy.AdaptiveExecutionStrategy;
+
+/**
+ * Probes the selectors and executors of every connector at a fixed period, to tell apart latency added by the event
+ * loop and thread pool from latency of the application itself.
+ * <ul>
+ * <li>{@code http-server.selectors.<connector>.loop-latency}: time from submitting a no-op update to a selector until
+ * its loop runs it, i.e. how long ready keys wait while the selector thread is busy</li>
+ * <li>{@code http-server.selectors.<connector>.selected-keys}: average keys selected per select since the previous
+ * probe</li>
+ * <li>{@code http-server.selectors.<connector>.reserved-thread-hit-percent}: share of blocking tasks since the previous
+ * probe that a reserved thread picked up, the rest waited for a pool thread</li>
+ * <li>{@code http-server.executors.<connector|server>.queue-dwell}: time a no-op task waits in the thread pool queue
+ * before running</li>
+ * </ul>
+ * A probe still outstanding at the next period is left alone rather than piled onto, and records the full stall once
+ * it runs. Connectors are looked up on every probe, since Spring Boot adds them after the server has started.
+ */
+@ManagedObject("Selector and thread pool latency probes")
+public class EventLoopMonitor extends ContainerLifeCycle {
+    static final String SELECTOR_PREFIX = "http-server.selectors";
+    static final String SHARED_EXECUTOR = "server";
+
+    private final Server server;
+    private final long periodNanos;
+    private final MetricRegistry registry;
+    private final Supplier<Reservoir> reservoirs;
+    private final Scheduler scheduler = new ScheduledExecutorScheduler("event-loop-monitor", true);
+
+    private final Map<ManagedSelector, SelectorProbe> selectors = new ConcurrentHashMap<>();
+    private final Map<Executor, ExecutorProbe> executors = new ConcurrentHashMap<>();
+    // Only touched by the scheduler thread
+    private final Map<String, long[]> lastStrategyCounts = new HashMap<>();
+
+    EventLoopMonitor(Server server, long periodNanos, MetricRegistry registry, Supplier<Reservoir> reservoirs) {
+        this.server = server;
+        this.periodNanos = periodNanos;
+        this.registry = registry;
+        this.reservoirs = reservoirs;
+        addBean(scheduler);
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        super.doStart();
+        scheduleProbe();
+    }
+
+    private void probe() {
+        selectors.keySet().removeIf(selector -> !selector.isRunning());
+        final Map<String, long[]> strategyCounts = new HashMap<>();
+        for (final Connector connector : server.getConnectors()) {
+            if (!connector.isStarted() || !(connector instanceof ContainerLifeCycle)) {
+                continue;
+            }
+            final String name = connector.getName() == null ? EmbeddedJettyBase.DEFAULT_CONNECTOR_NAME : connector.getName();
+            for (final ManagedSelector selector : ((ContainerLifeCycle) connector).getContainedBeans(ManagedSelector.class)) {
+                if (selector.isRunning()) {
+                    selectors.computeIfAbsent(selector, s -> new SelectorProbe(s, name)).probe();
+                    final AdaptiveExecutionStrategy strategy = selector.getBean(AdaptiveExecutionStrategy.class);
+                    if (strategy != null) {
+                        final long[] counts = strategyCounts.computeIfAbsent(name, n -> new long[2]);
+                        final long[] tasks = reservedAndPooledTasks(strategy);
+                        counts[0] += tasks[0];
+                        counts[1] += tasks[1];
+                    }
+                }
+            }
+            final Executor executor = connector.getExecutor();
+            if (executor != null) {
+                executors.computeIfAbsent(executor, e -> new ExecutorProbe(e instanceof ConnectorThreadPool ? name : SHARED_EXECUTOR)).probe(executor);
+            }
+        }
+        strategyCounts.forEach(this::recordHitRate);
+    }
+
+    /**
+     * @return blocking tasks the strategy ran since it started, split into those a reserved thread took over and
+     * those that waited for a pool thread
+     */
+    static long[] reservedAndPooledTasks(AdaptiveExecutionStrategy strategy) {
+        // EPC: tryExecute handed production to a reserved thread and this thread consumed the task.
+        // PEC: no reserved thread was available, so the task went through executor.execute.
+        return new long[] {strategy.getEPCTasksConsumed(), strategy.getPECTasksExecuted()};
+    }
+
+    private void recordHitRate(String connector, long[] counts) {
+        final long[] last = lastStrategyCounts.put(connector, counts);
+        if (last == null) {
+            return;
+        }
+        final long reserved = counts[0] - last[0];
+        final long pooled = counts[1] - last[1];
+        // Listeners of a connector come and go together, but don't record nonsense if one didn't
+        if (reserved >= 0 && pooled >= 0 && reserved + pooled > 0) {
+            registry.histogram(MetricRegistry.name(SELECTOR_PREFIX, RouteMetricsHandler.sanitize(connector), "reserved-thread-hit-percent"),
+                    () -> new Histogram(reservoirs.get())).update(100 * reserved / (reserved + pooled));
+        }
+    }
+
+    private void scheduleProbe() {
+        if (isRunning()) {
+            scheduler.schedule(() -> {
+                try {
+                    probe();
+                } finally {
+                    scheduleProbe();
+                }
+            }, periodNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @ManagedAttribute("selectors being probed")
+    public int getSelectors() {
+        return selectors.size();
+    }
+
+    @ManagedAttribute("executors being probed")
+    public int getExecutors() {
+        return executors.size();
+    }
+
+    @ManagedAttribute("probe period in ms")
+    public long getPeriod() {
+        return TimeUnit.NANOSECONDS.toMillis(periodNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "EventLoopMonitor{" +
+                "period=" + getPeriod() + "ms" +
+                ", selectors=" + selectors.size() +
+                ", executors=" + executors.size() +
+                '}';
+    }
+
+    private final class SelectorProbe {
+        private final ManagedSelector selector;
+        private final Timer loopLatency;
+        private final Histogram selectedKeys;
+        private final AtomicBoolean pending = new AtomicBoolean();
+        private long lastSelects;
+        private double lastKeys;
+
+        SelectorProbe(ManagedSelector selector, String connector) {
+            this.selector = selector;
+            final String prefix = MetricRegistry.name(SELECTOR_PREFIX, RouteMetricsHandler.sanitize(connector));
+            // Listeners sharing a connector name share its metrics
+            this.loopLatency = registry.timer(MetricRegistry.name(prefix, "loop-latency"), () -> new Timer(reservoirs.get()));
+            this.selectedKeys = registry.histogram(MetricRegistry.name(prefix, "selected-keys"), () -> new Histogram(reservoirs.get()));
+            this.lastSelects = selector.getSelectCount();
+            this.lastKeys = selector.getAverageSelectedKeys() * lastSelects;
+        }
+
+        void probe() {
+            final long selects = selector.getSelectCount();
+            final double keys = selector.getAverageSelectedKeys() * selects;
+            if (selects > lastSelects) {
+                selectedKeys.update(Math.round((keys - lastKeys) / (selects - lastSelects)));
+            }
+            lastSelects = selects;
+            lastKeys = keys;
+
+            if (pending.compareAndSet(false, true)) {
+                final long submitted = System.nanoTime();
+                selector.submit(nioSelector -> {
+                    loopLatency.update(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                    pending.set(false);
+                });
+            }
+        }
+    }
+
+    private final class ExecutorProbe {
+        private final Timer queueDwell;
+        private final AtomicBoolean pending = new AtomicBoolean();
+
+        ExecutorProbe(String name) {
+            this.queueDwell = registry.timer(MetricRegistry.name(EmbeddedJettyBase.CONNECTOR_EXECUTOR_METRICS_PREFIX, RouteMetricsHandler.sanitize(name), "queue-dwell"),
+                    () -> new Timer(reservoirs.get()));
+        }
+
+        void probe(Executor executor) {
+            if (!pending.compareAndSet(false, true)) {
+                return;
+            }
+            final long submitted = System.nanoTime();
+            try {
+                executor.execute(() -> {
+                    queueDwell.update(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                    pending.set(false);
+                });
+            } catch (RejectedExecutionException e) {
+                // A full bounded queue; the connector's rejected-jobs gauge already tells
+                pending.set(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+
+/**
+ * Logs the first occurrence of each kind of exception in full and only counts repeats, which {@link #summarize()}
+ * then logs as a single line per kind.
+ * <p>
+ * Exceptions are fingerprinted by their type, the type of their root cause and the frame that threw the root cause;
+ * messages are left out as they often carry ids. Neither fingerprinting nor counting renders the stack trace. Once
+ * {@code maxFingerprints} kinds have been seen, any further kinds are treated as one, {@link #OTHER}.
+ */
+class ExceptionLogDeduplicator {
+    static final String OTHER = "OTHER";
+
+    private final Logger log;
+    private final int maxFingerprints;
+    private final ConcurrentMap<String, Occurrences> occurrences = new ConcurrentHashMap<>();
+
+    ExceptionLogDeduplicator(Logger log, int maxFingerprints) {
+        this.log = log;
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    static String fingerprint(Throwable e) {
+        final Throwable root = ExceptionUtils.getRootCause(e);
+        final StringBuilder fingerprint = new StringBuilder(e.getClass().getName());
+        if (root != null && root != e) {
+            fingerprint.append(" <- ").append(root.getClass().getName());
+        }
+        final StackTraceElement[] stack = (root == null ? e : root).getStackTrace();
+        if (stack.length > 0) {
+            fingerprint.append(" at ").append(stack[0]);
+        }
+        return fingerprint.toString();
+    }
+
+    void log(String url, Throwable e) {
+        final String fingerprint = fingerprint(e);
+        final String key = occurrences.size() < maxFingerprints || occurrences.containsKey(fingerprint) ? fingerprint : OTHER;
+        final boolean[] first = new boolean[1];
+        final Occurrences occurrence = occurrences.computeIfAbsent(key, k -> {
+            first[0] = true;
+            return new Occurrences();
+        });
+        occurrence.record(url, first[0]);
+        if (first[0]) {
+            log.warn("{} (first of [{}], repeats are summarized)", url, key, e);
+        }
+    }
+
+    /**
+     * Log a line for every kind of exception that repeated since the last summary.
+     */
+    void summarize() {
+        occurrences.forEach((fingerprint, occurrence) -> {
+            final long repeats = occurrence.sinceSummary.getAndSet(0);
+            if (repeats > 0) {
+                log.warn("[{}] occurred {} more times since the last summary, {} in total, most recently for {}",
+                        fingerprint, repeats, occurrence.total.sum(), occurrence.lastUrl);
+            }
+        });
+    }
+
+    /**
+     * @return occurrences of each kind of exception so far
+     */
+    Map<String, Long> getCounts() {
+        final Map<String, Long> counts = new TreeMap<>();
+        occurrences.forEach((fingerprint, occurrence) -> counts.put(fingerprint, occurrence.total.sum()));
+        return counts;
+    }
+
+    private static final class Occurrences {
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong sinceSummary = new AtomicLong();
+        private volatile String lastUrl;
+
+        void record(String url, boolean first) {
+            total.increment();
+            // The first occurrence is logged in full, so it isn't a repeat
+            if (!first) {
+                sinceSummary.incrementAndGet();
+            }
+            lastUrl = url;
+        }
+    }
+}
@@ -14,7 +14,14 @@
 package com.opentable.server;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import javax.inject.Inject;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
@@ -23,11 +30,14 @@ import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.eclipse.jetty.io.QuietException;
 import org.eclipse.jetty.servlet.ServletHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Condition;
@@ -35,6 +45,8 @@ import org.springframework.context.annotation.ConditionContext;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Import;
 import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.util.NestedServletException;
 
@@ -57,11 +69,57 @@ public class ExceptionLogFilterConfiguration {
     }
 
     @Component
+    @ManagedResource
     public static class ExceptionLogFilter implements Filter {
         private static final Logger LOG = LoggerFactory.getLogger(ServletHandler.class);
+        static final String FULL_MODE = "full";
+        static final String DEDUPLICATED_MODE = "deduplicated";
+
+        private final ExceptionLogDeduplicator deduplicator;
+        private final Duration summaryInterval;
+        private ScheduledExecutorService summarizer;
+
+        public ExceptionLogFilter() {
+            this(FULL_MODE, Duration.ofMinutes(1), 0);
+        }
+
+        /**
+         * @param mode full logs every exception with its stack trace, deduplicated only the first of each kind
+         * @param summaryInterval how often repeats are summarized in deduplicated mode
+         * @param maxFingerprints kinds of exception told apart in deduplicated mode
+         */
+        @Inject
+        public ExceptionLogFilter(@Value("${ot.server.exception-log-filter.mode:full}") String mode,
+                                  @Value("${ot.server.exception-log-filter.summary-interval:PT1M}") Duration summaryInterval,
+                                  @Value("${ot.server.exception-log-filter.max-fingerprints:1000}") int maxFingerprints) {
+            switch (mode) {
+                case FULL_MODE:
+                    this.deduplicator = null;
+                    break;
+                case DEDUPLICATED_MODE:
+                    if (summaryInterval.isNegative() || summaryInterval.isZero()) {
+                        throw new IllegalStateException(String.format("'ot.server.exception-log-filter.summary-interval' must be positive, got %s", summaryInterval));
+                    }
+                    this.deduplicator = new ExceptionLogDeduplicator(LOG, maxFingerprints);
+                    break;
+                default:
+                    throw new IllegalStateException(String.format("'ot.server.exception-log-filter.mode' must be %s or %s, got '%s'", FULL_MODE, DEDUPLICATED_MODE, mode));
+            }
+            this.summaryInterval = summaryInterval;
+        }
+
         @Override
         public void init(FilterConfig filterConfig) {
-            LOG.info("Exception log filter enabled.");
+            if (deduplicator == null) {
+                LOG.info("Exception log filter enabled.");
+                return;
+            }
+            summarizer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("exception-log-summary")
+                    .setDaemon(true)
+                    .build());
+            summarizer.scheduleAtFixedRate(deduplicator::summarize, summaryInterval.toMillis(), summaryInterval.toMillis(), TimeUnit.MILLISECONDS);
+            LOG.info("Exception log filter enabled, repeated exceptions are summarized every {}.", summaryInterval);
         }
 
         @Override
@@ -70,17 +128,34 @@ public class ExceptionLogFilterConfiguration {
                 chain.doFilter(request, response);
             } catch (RuntimeException e) {
                 final String url = ((HttpServletRequest)request).getRequestURI();
-                LOG.warn("{}", url, e);
+                log(url, e);
                 throw new QuietServletException(ExceptionUtils.getRootCause(e)); //NOPMD
             } catch (ServletException e) {
                 final String url = ((HttpServletRequest)request).getRequestURI();
-                LOG.warn("{}", url, e);
+                log(url, e);
                 throw new QuietServletException(e.getRootCause()); //NOPMD
             }
         }
 
+        private void log(String url, Exception e) {
+            if (deduplicator == null) {
+                LOG.warn("{}", url, e);
+            } else {
+                deduplicator.log(url, e);
+            }
+        }
+
+        @ManagedAttribute(description = "exceptions logged in deduplicated mode, by kind")
+        public Map<String, Long> getExceptionCounts() {
+            return deduplicator == null ? Collections.emptyMap() : deduplicator.getCounts();
+        }
+
         @Override
         public void destroy() {
+            if (summarizer != null) {
+                summarizer.shutdownNow();
+                deduplicator.summarize();
+            }
         }
     }
 
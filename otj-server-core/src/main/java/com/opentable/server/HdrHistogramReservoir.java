@@ -0,0 +1,196 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Ints;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.HdrHistogram.Recorder;
+
+/**
+ * A {@link Reservoir} backed by HdrHistogram {@link Recorder}s.
+ * <p>
+ * A {@link Recorder} is already safe for concurrent writers, so one stripe is the default. Every stripe costs three
+ * histograms ({@code Recorder} keeps two, plus the one recycled between reads) on top of the two windows, so more than
+ * a few stripes only pays off for a handful of very hot reservoirs. Updates go to a stripe picked by thread id.
+ * Snapshots merge the stripes and cover between one and two {@code window}s of recent values, which keeps every reader
+ * (JMX, graphite) seeing the same data rather than resetting each other's intervals.
+ */
+class HdrHistogramReservoir implements Reservoir {
+    static final int DEFAULT_STRIPES = 1;
+
+    // Snapshot values beyond this many are sampled evenly across the distribution
+    static final int MAX_SNAPSHOT_VALUES = 1028;
+
+    private final Recorder[] stripes;
+    private final int mask;
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+
+    // Guarded by this
+    private final Histogram[] recycled;
+    private Histogram current;
+    private Histogram previous;
+    private long currentStart;
+
+    HdrHistogramReservoir(int significantDigits, Duration window) {
+        this(significantDigits, window, DEFAULT_STRIPES);
+    }
+
+    HdrHistogramReservoir(int significantDigits, Duration window, int stripes) {
+        this(significantDigits, window, stripes, System::nanoTime);
+    }
+
+    HdrHistogramReservoir(int significantDigits, Duration window, int stripes, LongSupplier nanoClock) {
+        Preconditions.checkArgument(significantDigits >= 0 && significantDigits <= 5, "significantDigits must be in [0, 5]: %s", significantDigits);
+        Preconditions.checkArgument(!window.isNegative() && !window.isZero(), "window must be positive: %s", window);
+        Preconditions.checkArgument(stripes > 0, "stripes must be positive: %s", stripes);
+        final int count = Integer.highestOneBit(stripes) == stripes ? stripes : Integer.highestOneBit(stripes) << 1;
+        this.stripes = new Recorder[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Recorder(significantDigits);
+        }
+        this.recycled = new Histogram[count];
+        this.mask = count - 1;
+        this.windowNanos = window.toNanos();
+        this.nanoClock = nanoClock;
+        this.current = new Histogram(significantDigits);
+        this.previous = new Histogram(significantDigits);
+        this.currentStart = nanoClock.getAsLong();
+    }
+
+    @Override
+    public synchronized int size() {
+        drain();
+        return Ints.saturatedCast(previous.getTotalCount() + current.getTotalCount());
+    }
+
+    @Override
+    public void update(long value) {
+        stripes[(int) (Thread.currentThread().getId() & mask)].recordValue(Math.max(0, value));
+    }
+
+    @Override
+    public synchronized Snapshot getSnapshot() {
+        drain();
+        final Histogram merged = previous.copy();
+        merged.add(current);
+        return new HdrSnapshot(merged);
+    }
+
+    /**
+     * Move the stripes' values into the current window, then start a new window if that one has ended.
+     * After two windows without a read the stripes may hold values of any age, so they are dropped along with both
+     * windows rather than reported as recent.
+     */
+    private void drain() {
+        final long now = nanoClock.getAsLong();
+        final boolean stale = now - currentStart >= 2 * windowNanos;
+        for (int i = 0; i < stripes.length; i++) {
+            recycled[i] = stripes[i].getIntervalHistogram(recycled[i]);
+            if (!stale) {
+                current.add(recycled[i]);
+            }
+        }
+        if (stale) {
+            previous.reset();
+            current.reset();
+            currentStart = now;
+        } else if (now - currentStart >= windowNanos) {
+            final Histogram rotated = previous;
+            previous = current;
+            current = rotated;
+            current.reset();
+            currentStart = now;
+        }
+    }
+
+    static final class HdrSnapshot extends Snapshot {
+        private final Histogram histogram;
+
+        HdrSnapshot(Histogram histogram) {
+            this.histogram = histogram;
+        }
+
+        @Override
+        public double getValue(double quantile) {
+            return histogram.getValueAtPercentile(quantile * 100.0);
+        }
+
+        /**
+         * @return every recorded value while there are at most {@link HdrHistogramReservoir#MAX_SNAPSHOT_VALUES}, otherwise that many values
+         * picked at evenly spaced ranks, so the distribution keeps its shape without allocating per recorded value
+         */
+        @Override
+        public long[] getValues() {
+            final long total = histogram.getTotalCount();
+            final long[] values = new long[(int) Math.min(total, MAX_SNAPSHOT_VALUES)];
+            int i = 0;
+            long seen = 0;
+            for (final HistogramIterationValue value : histogram.recordedValues()) {
+                seen += value.getCountAddedInThisIterationStep();
+                // The i-th value sits at rank (i + 0.5) * total / length, which is exactly i when nothing is sampled
+                while (i < values.length && (long) ((i + 0.5) * total / values.length) < seen) {
+                    values[i++] = value.getValueIteratedTo();
+                }
+            }
+            return values;
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(Integer.MAX_VALUE, histogram.getTotalCount());
+        }
+
+        @Override
+        public long getMax() {
+            return histogram.getMaxValue();
+        }
+
+        @Override
+        public double getMean() {
+            return histogram.getMean();
+        }
+
+        @Override
+        public long getMin() {
+            return histogram.getMinValue();
+        }
+
+        @Override
+        public double getStdDev() {
+            return histogram.getStdDeviation();
+        }
+
+        @Override
+        public void dump(OutputStream output) {
+            try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+                for (final long value : getValues()) {
+                    out.println(value);
+                }
+            }
+        }
+    }
+}
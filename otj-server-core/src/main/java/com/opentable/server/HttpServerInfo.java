@@ -22,12 +22,24 @@ import java.util.Map;
  * connector is called {@code default-http}.
  */
 public interface HttpServerInfo {
+    /** {@link #getPoolSize()} when requests are handled on virtual threads, which are not pooled. */
+    int UNBOUNDED_POOL_SIZE = -1;
+
     /** @return the main (almost always 'http') port */
     int getPort();
 
-    /** @return the size of the thread pool */
+    /**
+     * @return the maximum number of threads handling requests, or {@link #UNBOUNDED_POOL_SIZE} when
+     * {@link #isVirtualThreads()} is true. The platform pool then only runs selectors, acceptors and non blocking
+     * tasks, and {@code ot.httpserver.max-threads} sizes it without capping request handling.
+     */
     int getPoolSize();
 
+    /** @return true if requests are handled on virtual threads ({@code ot.httpserver.executor=virtual}) */
+    default boolean isVirtualThreads() {
+        return false;
+    }
+
     /** @return information on the currently active server connectors */
     Map<String, ConnectorInfo> getConnectors();
 
@@ -37,7 +49,11 @@ public interface HttpServerInfo {
         String getName();
         /** @return the protocol the connector is expecting to speak */
         String getProtocol();
-        /** @return the (actual) listen port of this connector */
+        /** @return the (actual) listen port of this connector, or -1 for a unix domain socket connector */
         int getPort();
+        /** @return the socket file of a unix domain socket connector, or null for a TCP connector */
+        default String getUnixSocketPath() {
+            return null;
+        }
     }
 }
@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import javax.net.ssl.SSLEngine;
+
+import org.eclipse.jetty.io.EndPoint;
+import org.eclipse.jetty.io.ssl.SslConnection;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.SslConnectionFactory;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+
+/**
+ * An {@link SslConnectionFactory} that reports every handshake to a {@link TlsHandshakeMetrics}.
+ */
+class InstrumentedSslConnectionFactory extends SslConnectionFactory {
+    private final TlsHandshakeMetrics metrics;
+
+    InstrumentedSslConnectionFactory(SslContextFactory.Server sslContextFactory, String nextProtocol, TlsHandshakeMetrics metrics) {
+        super(sslContextFactory, nextProtocol);
+        this.metrics = metrics;
+        addBean(metrics);
+    }
+
+    @Override
+    protected SslConnection newSslConnection(Connector connector, EndPoint endPoint, SSLEngine engine) {
+        final SslConnection connection = super.newSslConnection(connector, endPoint, engine);
+        connection.addHandshakeListener(metrics.listener(endPoint.getCreatedTimeStamp()));
+        return connection;
+    }
+}
@@ -14,31 +14,98 @@
 package com.opentable.server;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
 import org.eclipse.jetty.server.Server;
+import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedOperationParameters;
 import org.springframework.jmx.export.annotation.ManagedResource;
 
 @ManagedResource
 public class JettyDumper {
+    private static final Logger LOG = LoggerFactory.getLogger(JettyDumper.class);
+    private static final JsonFactory JSON = new JsonFactory();
 
     private final Provider<Server> jetty;
+    private final Path dumpDirectory;
+    private final AtomicInteger dumps = new AtomicInteger();
 
+    /**
+     * @param dumpDirectory the only directory {@link #dumpJettyToFile(String)} writes to
+     */
     @Inject
-    JettyDumper(Provider<Server> jetty) {
+    JettyDumper(Provider<Server> jetty,
+                @Value("${ot.server.jetty-dump.directory:#{systemProperties['java.io.tmpdir']}}") String dumpDirectory) {
         this.jetty = jetty;
+        this.dumpDirectory = Paths.get(dumpDirectory);
     }
 
+    /**
+     * Jetty's own text dump. It is built in memory and can run to megabytes on a busy server, so only its size is
+     * logged; prefer {@link #dumpJettyToFile(String)} during an incident.
+     */
     @ManagedOperation
     public String dumpJetty() throws IOException {
         final StringBuilder dump = new StringBuilder();
         jetty.get().dump(dump, "  ");
         final String result = dump.toString();
-        LoggerFactory.getLogger(JettyDumper.class).info("Jetty Internal State\n{}", result);
+        LOG.info("Dumped Jetty internal state, {} characters", result.length());
+        LOG.debug("Jetty Internal State\n{}", result);
         return result;
     }
+
+    @ManagedOperation(description = "summary counters of the server as JSON, cheap enough to poll")
+    public String dumpJettySummary() throws IOException {
+        final StringWriter out = new StringWriter();
+        try (JsonGenerator json = JSON.createGenerator(out)) {
+            json.writeStartObject();
+            new JettyStateWriter(jetty.get()).writeSummary(json);
+            json.writeEndObject();
+        }
+        return out.toString();
+    }
+
+    @ManagedOperation(description = "server state as JSON, limited to some components")
+    @ManagedOperationParameters({
+            @ManagedOperationParameter(name = "components", description = "comma separated connectors, threadpool, selectors, endpoints; blank for all"),
+    })
+    public String dumpJettyJson(String components) throws IOException {
+        final StringWriter out = new StringWriter();
+        try (JsonGenerator json = JSON.createGenerator(out)) {
+            new JettyStateWriter(jetty.get()).write(json, JettyStateWriter.Component.parse(components));
+        }
+        return out.toString();
+    }
+
+    @ManagedOperation(description = "stream the server state as JSON to a new file in the dump directory, returning its path")
+    @ManagedOperationParameters({
+            @ManagedOperationParameter(name = "components", description = "comma separated connectors, threadpool, selectors, endpoints; blank for all"),
+    })
+    public String dumpJettyToFile(String components) throws IOException {
+        final Path file = dumpDirectory.resolve(String.format("jetty-dump-%d-%d.json", System.currentTimeMillis(), dumps.incrementAndGet()));
+        // Never overwrite an existing file
+        try (OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+             JsonGenerator json = JSON.createGenerator(out, JsonEncoding.UTF8)) {
+            new JettyStateWriter(jetty.get()).write(json, JettyStateWriter.Component.parse(components));
+        }
+        LOG.info("Dumped Jetty internal state to {}, {} bytes", file, Files.size(file));
+        return file.toString();
+    }
 }
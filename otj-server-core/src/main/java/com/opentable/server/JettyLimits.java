@@ -0,0 +1,215 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+import com.google.common.base.Preconditions;
+
+import org.eclipse.jetty.server.ConnectionLimit;
+import org.eclipse.jetty.server.LowResourceMonitor;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Lets the server thread pool, connection limit and low resource monitor be retuned at runtime, e.g. to shed or
+ * open capacity during an incident without a redeploy. Values are validated before being applied, and every change
+ * is logged and kept in a short audit trail. Changes are not persisted; a restart goes back to the configuration.
+ * <p>
+ * Getters of a feature that isn't enabled return -1 (or false), and setting them fails.
+ */
+@ManagedResource
+public class JettyLimits {
+    private static final Logger LOG = LoggerFactory.getLogger(JettyLimits.class);
+    private static final int AUDIT_ENTRIES = 100;
+
+    private final Provider<Server> jetty;
+
+    // Guarded by itself
+    private final Deque<String> audit = new ArrayDeque<>(AUDIT_ENTRIES);
+
+    @Inject
+    JettyLimits(Provider<Server> jetty) {
+        this.jetty = jetty;
+    }
+
+    @ManagedAttribute(description = "worker threads of the server pool")
+    public int getMaxThreads() {
+        return threadPool().getMaxThreads();
+    }
+
+    @ManagedAttribute(description = "worker threads of the server pool")
+    public void setMaxThreads(int maxThreads) {
+        final QueuedThreadPool qtp = threadPool();
+        Preconditions.checkArgument(maxThreads > qtp.getMaxLeasedThreads(),
+                "maxThreads must exceed the %s threads leased to acceptors and selectors: %s", qtp.getMaxLeasedThreads(), maxThreads);
+        final int previous = qtp.getMaxThreads();
+        // The pool is eagerly sized, keep min == max; order matters as each setter drags the other along
+        if (maxThreads > previous) {
+            qtp.setMaxThreads(maxThreads);
+            qtp.setMinThreads(maxThreads);
+        } else {
+            qtp.setMinThreads(maxThreads);
+            qtp.setMaxThreads(maxThreads);
+        }
+        audit("maxThreads", previous, maxThreads);
+    }
+
+    @ManagedAttribute(description = "connections accepted before accepting pauses, -1 if not enabled")
+    public int getMaxConnections() {
+        final ConnectionLimit limit = jetty.get().getBean(ConnectionLimit.class);
+        return limit == null ? -1 : limit.getMaxConnections();
+    }
+
+    @ManagedAttribute(description = "connections accepted before accepting pauses, -1 if not enabled")
+    public void setMaxConnections(int maxConnections) {
+        Preconditions.checkArgument(maxConnections > 0, "maxConnections must be positive: %s", maxConnections);
+        final ConnectionLimit limit = require(ConnectionLimit.class, "ot.server.connection-limit.enabled");
+        final int previous = limit.getMaxConnections();
+        limit.setMaxConnections(maxConnections);
+        audit("maxConnections", previous, maxConnections);
+    }
+
+    @ManagedAttribute(description = "idle timeout in ms applied while at the connection limit, -1 if not enabled")
+    public long getConnectionLimitIdleTimeout() {
+        final ConnectionLimit limit = jetty.get().getBean(ConnectionLimit.class);
+        return limit == null ? -1 : limit.getIdleTimeout();
+    }
+
+    @ManagedAttribute(description = "idle timeout in ms applied while at the connection limit, -1 if not enabled")
+    public void setConnectionLimitIdleTimeout(long idleTimeout) {
+        Preconditions.checkArgument(idleTimeout >= 0, "idleTimeout must not be negative: %s", idleTimeout);
+        final ConnectionLimit limit = require(ConnectionLimit.class, "ot.server.connection-limit.enabled");
+        final long previous = limit.getIdleTimeout();
+        limit.setIdleTimeout(idleTimeout);
+        audit("connectionLimitIdleTimeout", previous, idleTimeout);
+    }
+
+    @ManagedAttribute(description = "low resource check period in ms, -1 if not enabled")
+    public int getLowResourcesPeriod() {
+        final LowResourceMonitor monitor = jetty.get().getBean(LowResourceMonitor.class);
+        return monitor == null ? -1 : monitor.getPeriod();
+    }
+
+    @ManagedAttribute(description = "low resource check period in ms, -1 if not enabled")
+    public void setLowResourcesPeriod(int period) {
+        Preconditions.checkArgument(period > 0, "period must be positive: %s", period);
+        final LowResourceMonitor monitor = require(LowResourceMonitor.class, "ot.server.low-resource-monitor.enabled");
+        final int previous = monitor.getPeriod();
+        monitor.setPeriod(period);
+        audit("lowResourcesPeriod", previous, period);
+    }
+
+    @ManagedAttribute(description = "idle timeout in ms applied in the low resource state, -1 if not enabled")
+    public int getLowResourcesIdleTimeout() {
+        final LowResourceMonitor monitor = jetty.get().getBean(LowResourceMonitor.class);
+        return monitor == null ? -1 : monitor.getLowResourcesIdleTimeout();
+    }
+
+    @ManagedAttribute(description = "idle timeout in ms applied in the low resource state, -1 if not enabled")
+    public void setLowResourcesIdleTimeout(int idleTimeout) {
+        Preconditions.checkArgument(idleTimeout > 0, "idleTimeout must be positive: %s", idleTimeout);
+        final LowResourceMonitor monitor = require(LowResourceMonitor.class, "ot.server.low-resource-monitor.enabled");
+        final int previous = monitor.getLowResourcesIdleTimeout();
+        monitor.setLowResourcesIdleTimeout(idleTimeout);
+        audit("lowResourcesIdleTimeout", previous, idleTimeout);
+    }
+
+    @ManagedAttribute(description = "ms the low resource state may last before idle timeouts are reapplied, -1 if not enabled")
+    public int getMaxLowResourcesTime() {
+        final LowResourceMonitor monitor = jetty.get().getBean(LowResourceMonitor.class);
+        return monitor == null ? -1 : monitor.getMaxLowResourcesTime();
+    }
+
+    @ManagedAttribute(description = "ms the low resource state may last before idle timeouts are reapplied, -1 if not enabled")
+    public void setMaxLowResourcesTime(int maxLowResourcesTime) {
+        Preconditions.checkArgument(maxLowResourcesTime >= 0, "maxLowResourcesTime must not be negative: %s", maxLowResourcesTime);
+        final LowResourceMonitor monitor = require(LowResourceMonitor.class, "ot.server.low-resource-monitor.enabled");
+        final int previous = monitor.getMaxLowResourcesTime();
+        monitor.setMaxLowResourcesTime(maxLowResourcesTime);
+        audit("maxLowResourcesTime", previous, maxLowResourcesTime);
+    }
+
+    @ManagedAttribute(description = "whether connections are accepted in the low resource state")
+    public boolean isAcceptingInLowResources() {
+        final LowResourceMonitor monitor = jetty.get().getBean(LowResourceMonitor.class);
+        return monitor != null && monitor.isAcceptingInLowResources();
+    }
+
+    @ManagedAttribute(description = "whether connections are accepted in the low resource state")
+    public void setAcceptingInLowResources(boolean accepting) {
+        final LowResourceMonitor monitor = require(LowResourceMonitor.class, "ot.server.low-resource-monitor.enabled");
+        final boolean previous = monitor.isAcceptingInLowResources();
+        monitor.setAcceptingInLowResources(accepting);
+        audit("acceptingInLowResources", previous, accepting);
+    }
+
+    @ManagedAttribute(description = "whether running low on threads counts as low resources")
+    public boolean isMonitorThreads() {
+        final LowResourceMonitor monitor = jetty.get().getBean(LowResourceMonitor.class);
+        return monitor != null && monitor.getMonitorThreads();
+    }
+
+    @ManagedAttribute(description = "whether running low on threads counts as low resources")
+    public void setMonitorThreads(boolean monitorThreads) {
+        final LowResourceMonitor monitor = require(LowResourceMonitor.class, "ot.server.low-resource-monitor.enabled");
+        final boolean previous = monitor.getMonitorThreads();
+        monitor.setMonitorThreads(monitorThreads);
+        audit("monitorThreads", previous, monitorThreads);
+    }
+
+    @ManagedAttribute(description = "recent limit changes, oldest first")
+    public String[] getAuditLog() {
+        synchronized (audit) {
+            return audit.toArray(new String[0]);
+        }
+    }
+
+    private QueuedThreadPool threadPool() {
+        return (QueuedThreadPool) jetty.get().getThreadPool();
+    }
+
+    private <T> T require(Class<T> type, String property) {
+        final T bean = jetty.get().getBean(type);
+        if (bean == null) {
+            throw new IllegalStateException(String.format("%s is not enabled, see %s", type.getSimpleName(), property));
+        }
+        return bean;
+    }
+
+    private void audit(String setting, Object previous, Object value) {
+        if (Objects.equals(previous, value)) {
+            return;
+        }
+        // Remote JMX calls run on a thread named after the client connection
+        final String entry = String.format("%s %s changed from %s to %s by %s", Instant.now(), setting, previous, value, Thread.currentThread().getName());
+        LOG.warn("Runtime limit change: {}", entry);
+        synchronized (audit) {
+            if (audit.size() == AUDIT_ENTRIES) {
+                audit.removeFirst();
+            }
+            audit.addLast(entry);
+        }
+    }
+}
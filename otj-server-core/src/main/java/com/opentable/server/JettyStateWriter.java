@@ -0,0 +1,217 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.base.Splitter;
+
+import org.eclipse.jetty.io.Connection;
+import org.eclipse.jetty.io.EndPoint;
+import org.eclipse.jetty.io.ManagedSelector;
+import org.eclipse.jetty.server.AbstractNetworkConnector;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.StatisticsHandler;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+/**
+ * Writes the state of a running {@link Server} as a JSON tree, piece by piece to a {@link JsonGenerator}, so even a
+ * server with many thousands of connections never has its whole dump in memory.
+ * <p>
+ * Summary counters always come first, so a truncated or interrupted dump still has them; the rest is limited to the
+ * requested {@link Component}s.
+ */
+class JettyStateWriter {
+    enum Component {
+        CONNECTORS, THREADPOOL, SELECTORS, ENDPOINTS;
+
+        /**
+         * @param components comma separated component names, blank for all of them
+         */
+        static Set<Component> parse(String components) {
+            final Set<Component> result = EnumSet.noneOf(Component.class);
+            if (components == null || components.isBlank()) {
+                return EnumSet.allOf(Component.class);
+            }
+            for (final String component : Splitter.on(',').trimResults().omitEmptyStrings().split(components)) {
+                try {
+                    result.add(valueOf(component.toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(String.format("Unknown component '%s', expected some of %s", component, EnumSet.allOf(Component.class)), e);
+                }
+            }
+            return result;
+        }
+    }
+
+    private final Server server;
+
+    JettyStateWriter(Server server) {
+        this.server = server;
+    }
+
+    void write(JsonGenerator json, Set<Component> components) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("state", server.getState());
+        writeSummary(json);
+        if (components.contains(Component.CONNECTORS)) {
+            writeConnectors(json);
+        }
+        if (components.contains(Component.THREADPOOL)) {
+            writeThreadPools(json);
+        }
+        if (components.contains(Component.SELECTORS)) {
+            writeSelectors(json);
+        }
+        if (components.contains(Component.ENDPOINTS)) {
+            writeEndPoints(json);
+        }
+        json.writeEndObject();
+        json.flush();
+    }
+
+    void writeSummary(JsonGenerator json) throws IOException {
+        int connections = 0;
+        for (final Connector connector : server.getConnectors()) {
+            connections += connector.getConnectedEndPoints().size();
+        }
+        json.writeObjectFieldStart("summary");
+        json.writeNumberField("connectors", server.getConnectors().length);
+        json.writeNumberField("connections", connections);
+        final ThreadPool pool = server.getThreadPool();
+        json.writeNumberField("threads", pool.getThreads());
+        json.writeNumberField("idleThreads", pool.getIdleThreads());
+        json.writeBooleanField("lowOnThreads", pool.isLowOnThreads());
+        if (pool instanceof QueuedThreadPool) {
+            json.writeNumberField("busyThreads", ((QueuedThreadPool) pool).getBusyThreads());
+            json.writeNumberField("queueSize", ((QueuedThreadPool) pool).getQueueSize());
+        }
+        final StatisticsHandler statistics = server.getChildHandlerByClass(StatisticsHandler.class);
+        if (statistics != null) {
+            json.writeNumberField("requestsActive", statistics.getRequestsActive());
+            json.writeNumberField("dispatchedActive", statistics.getDispatchedActive());
+            json.writeNumberField("requests", statistics.getRequests());
+        }
+        json.writeEndObject();
+    }
+
+    private void writeConnectors(JsonGenerator json) throws IOException {
+        json.writeArrayFieldStart("connectors");
+        for (final Connector connector : server.getConnectors()) {
+            json.writeStartObject();
+            json.writeStringField("name", connector.getName());
+            json.writeStringField("state", AbstractLifeCycle.getState(connector));
+            json.writeArrayFieldStart("protocols");
+            for (final String protocol : connector.getProtocols()) {
+                json.writeString(protocol);
+            }
+            json.writeEndArray();
+            if (connector instanceof AbstractNetworkConnector) {
+                final AbstractNetworkConnector network = (AbstractNetworkConnector) connector;
+                json.writeStringField("host", network.getHost());
+                json.writeNumberField("port", network.getLocalPort());
+            }
+            json.writeNumberField("idleTimeout", connector.getIdleTimeout());
+            json.writeNumberField("connections", connector.getConnectedEndPoints().size());
+            json.writeBooleanField("ownExecutor", connector.getExecutor() != server.getThreadPool());
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    private void writeThreadPools(JsonGenerator json) throws IOException {
+        json.writeArrayFieldStart("threadPools");
+        final List<ThreadPool> pools = new ArrayList<>();
+        pools.add(server.getThreadPool());
+        pools.addAll(server.getBeans(ConnectorThreadPool.class));
+        for (final ThreadPool pool : pools) {
+            json.writeStartObject();
+            json.writeNumberField("threads", pool.getThreads());
+            json.writeNumberField("idleThreads", pool.getIdleThreads());
+            json.writeBooleanField("lowOnThreads", pool.isLowOnThreads());
+            if (pool instanceof QueuedThreadPool) {
+                final QueuedThreadPool qtp = (QueuedThreadPool) pool;
+                json.writeStringField("name", qtp.getName());
+                json.writeNumberField("minThreads", qtp.getMinThreads());
+                json.writeNumberField("maxThreads", qtp.getMaxThreads());
+                json.writeNumberField("busyThreads", qtp.getBusyThreads());
+                json.writeNumberField("leasedThreads", qtp.getMaxLeasedThreads());
+                json.writeNumberField("reservedThreads", qtp.getMaxReservedThreads());
+                json.writeNumberField("queueSize", qtp.getQueueSize());
+            }
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    private void writeSelectors(JsonGenerator json) throws IOException {
+        json.writeArrayFieldStart("selectors");
+        for (final Connector connector : server.getConnectors()) {
+            if (!(connector instanceof ServerConnector)) {
+                continue;
+            }
+            final Collection<ManagedSelector> selectors = ((ServerConnector) connector).getSelectorManager().getBeans(ManagedSelector.class);
+            int id = 0;
+            for (final ManagedSelector selector : selectors) {
+                json.writeStartObject();
+                json.writeStringField("connector", connector.getName());
+                json.writeNumberField("id", id++);
+                json.writeNumberField("keys", selector.getTotalKeys());
+                json.writeNumberField("pendingUpdates", selector.size());
+                json.writeNumberField("selects", selector.getSelectCount());
+                json.writeNumberField("averageSelectedKeys", selector.getAverageSelectedKeys());
+                json.writeNumberField("maxSelectedKeys", selector.getMaxSelectedKeys());
+                json.writeEndObject();
+            }
+        }
+        json.writeEndArray();
+    }
+
+    private void writeEndPoints(JsonGenerator json) throws IOException {
+        final long now = System.currentTimeMillis();
+        json.writeArrayFieldStart("endpoints");
+        for (final Connector connector : server.getConnectors()) {
+            for (final EndPoint endPoint : connector.getConnectedEndPoints()) {
+                json.writeStartObject();
+                json.writeStringField("connector", connector.getName());
+                json.writeStringField("local", String.valueOf(endPoint.getLocalSocketAddress()));
+                json.writeStringField("remote", String.valueOf(endPoint.getRemoteSocketAddress()));
+                json.writeBooleanField("open", endPoint.isOpen());
+                json.writeNumberField("ageMillis", now - endPoint.getCreatedTimeStamp());
+                json.writeNumberField("idleTimeout", endPoint.getIdleTimeout());
+                final Connection connection = endPoint.getConnection();
+                if (connection != null) {
+                    json.writeStringField("connection", connection.getClass().getSimpleName());
+                    json.writeNumberField("messagesIn", connection.getMessagesIn());
+                    json.writeNumberField("messagesOut", connection.getMessagesOut());
+                    json.writeNumberField("bytesIn", connection.getBytesIn());
+                    json.writeNumberField("bytesOut", connection.getBytesOut());
+                }
+                json.writeEndObject();
+            }
+        }
+        json.writeEndArray();
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.codahale.metrics.MetricRegistry;
+
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.ssl.KeyStoreScanner;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.ssl.X509;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches the keystore of a TLS connector and reloads its {@link SslContextFactory} when the file changes, so that
+ * certificates can be rotated without restarting. Connections already open keep the context they were accepted with.
+ * <p>
+ * Unlike {@link KeyStoreScanner#reload()} the new file is loaded on its own first, and only a keystore that opens
+ * with the connector's password and holds at least one key replaces the current context; anything else, e.g. a file
+ * still being written, is counted as a failed reload and the connector keeps serving the old certificates.
+ */
+@ManagedObject("Reloads the keystore of a TLS connector when it changes")
+public class KeystoreReloader extends KeyStoreScanner {
+    private static final Logger LOG = LoggerFactory.getLogger(KeystoreReloader.class);
+
+    private final String connector;
+    private final SslContextFactory sslContextFactory;
+    private final File keystore;
+    private final char[] password;
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile Instant lastReload;
+
+    KeystoreReloader(String connector, SslContextFactory sslContextFactory, String password, int scanInterval, Optional<MetricRegistry> registry) {
+        super(sslContextFactory);
+        this.connector = connector;
+        this.sslContextFactory = sslContextFactory;
+        this.keystore = keystoreFile(sslContextFactory);
+        this.password = password == null ? null : password.toCharArray();
+        setScanInterval(scanInterval);
+
+        registry.ifPresent(r -> {
+            final String prefix = MetricRegistry.name(TlsHandshakeMetrics.PREFIX, RouteMetricsHandler.sanitize(connector));
+            r.gauge(MetricRegistry.name(prefix, "keystore-reloads"), () -> this::getReloads);
+            r.gauge(MetricRegistry.name(prefix, "keystore-reload-failures"), () -> this::getFailedReloads);
+            r.gauge(MetricRegistry.name(prefix, "certificate-expiry-seconds"), () -> this::getSecondsUntilCertificateExpiry);
+        });
+    }
+
+    private static File keystoreFile(SslContextFactory sslContextFactory) {
+        try {
+            return sslContextFactory.getKeyStoreResource().getFile();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("keystore is not a file", e);
+        }
+    }
+
+    @Override
+    public void reload() {
+        try {
+            final KeyStore candidate = KeyStore.getInstance(keystore, password);
+            if (!hasKey(candidate)) {
+                throw new IllegalStateException(String.format("%s holds no keys", keystore));
+            }
+        } catch (Exception e) {
+            failures.increment();
+            LOG.warn("For connector '{}', not reloading unusable keystore {}, keeping the current certificates", connector, keystore, e);
+            return;
+        }
+        try {
+            sslContextFactory.reload(factory -> { });
+            reloads.increment();
+            lastReload = Instant.now();
+            LOG.info("For connector '{}', reloaded keystore {}, certificates expire at {}", connector, keystore, getCertificateExpiry());
+        } catch (Exception e) {
+            failures.increment();
+            LOG.error("For connector '{}', keystore {} failed to reload", connector, keystore, e);
+        }
+    }
+
+    private static boolean hasKey(KeyStore keyStore) throws Exception {
+        for (final String alias : Collections.list(keyStore.aliases())) {
+            if (keyStore.isKeyEntry(alias)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the earliest expiry of the certificates currently being served, or null if there are none
+     */
+    private Instant earliestExpiry() {
+        Instant earliest = null;
+        for (final String alias : sslContextFactory.getAliases()) {
+            final X509 x509 = sslContextFactory.getX509(alias);
+            final X509Certificate certificate = x509 == null ? null : x509.getCertificate();
+            if (certificate != null) {
+                final Instant notAfter = certificate.getNotAfter().toInstant();
+                if (earliest == null || notAfter.isBefore(earliest)) {
+                    earliest = notAfter;
+                }
+            }
+        }
+        return earliest;
+    }
+
+    @ManagedAttribute("connector whose keystore is watched")
+    public String getConnector() {
+        return connector;
+    }
+
+    @ManagedAttribute("keystore file being watched")
+    public String getKeystore() {
+        return keystore.getPath();
+    }
+
+    @ManagedAttribute("successful keystore reloads")
+    public long getReloads() {
+        return reloads.sum();
+    }
+
+    @ManagedAttribute("keystore changes that were not applied")
+    public long getFailedReloads() {
+        return failures.sum();
+    }
+
+    @ManagedAttribute("time of the last successful reload")
+    public String getLastReload() {
+        final Instant reload = lastReload;
+        return reload == null ? null : reload.toString();
+    }
+
+    @ManagedAttribute("earliest expiry of the certificates being served")
+    public String getCertificateExpiry() {
+        final Instant expiry = earliestExpiry();
+        return expiry == null ? null : expiry.toString();
+    }
+
+    @ManagedAttribute("seconds until the first certificate being served expires")
+    public long getSecondsUntilCertificateExpiry() {
+        final Instant expiry = earliestExpiry();
+        return expiry == null ? -1 : expiry.getEpochSecond() - Instant.now().getEpochSecond();
+    }
+
+    @Override
+    public String toString() {
+        return "KeystoreReloader{" +
+                "connector='" + connector + '\'' +
+                ", keystore=" + keystore +
+                ", reloads=" + reloads.sum() +
+                ", failures=" + failures.sum() +
+                '}';
+    }
+}
@@ -48,8 +48,12 @@ import com.opentable.service.K8sInfo;
         StartupShutdownFailedHandler.class,
         // Spit out version info on startup
         PreFlight.class,
+        // Build info from the classpath manifests, read once
+        BuildInfoRegistry.class,
         // Hook up Jetty Dump as MBEAN operation
         JettyDumper.class,
+        // Runtime tunable thread, connection and low resource limits as MBEAN attributes
+        JettyLimits.class,
         // Sets up app and environment info beans and property converters
         ServerConfigConfiguration.class,
 })
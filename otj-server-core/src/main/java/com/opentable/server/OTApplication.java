@@ -21,6 +21,8 @@ import java.util.function.Consumer;
 import com.google.common.base.Preconditions;
 
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.builder.SpringApplicationBuilder;
@@ -32,6 +34,9 @@ import org.springframework.core.env.StandardEnvironment;
 /**
  * OpenTable specific Spring Boot style application runner.
  * Sets up logging and other OT specific customizations.
+ * Setting the {@code ot.startup-recorder.enabled} system property records where startup time goes,
+ * see {@link StartupRecorder}. Setting {@code ot.startup.training-run} exits as soon as the application is ready,
+ * for creating a class data sharing archive.
  *
  * Note that this API only accepts {@code Class<?>} arguments
  * rather than generic {@code Object} -- this is a style choice,
@@ -44,6 +49,7 @@ public final class OTApplication {
     public static final String ORG_SPRINGFRAMEWORK_BOOT_LOGGING_LOGGING_SYSTEM = "org.springframework.boot.logging.LoggingSystem";
     public static final String LOGGING_CONFIG = "logging.config";
     public static final String LEGACY_LOGGING_CONFIG = "logback.configurationFile";
+    public static final String TRAINING_RUN = "ot.startup.training-run";
 
     private OTApplication() { }
 
@@ -126,8 +132,27 @@ public final class OTApplication {
 
         final SpringApplicationBuilder builder = new SpringApplicationBuilder(applicationClass);
         builder.main(applicationClass);
+        if (Boolean.parseBoolean(System.getProperty(StartupRecorder.ENABLED))) {
+            new StartupRecorder().install(builder);
+        }
         customize.accept(builder);
-        return builder.run(args);
+        final ConfigurableApplicationContext context = builder.run(args);
+        if (Boolean.parseBoolean(System.getProperty(TRAINING_RUN))) {
+            System.exit(finishTrainingRun(context));
+        }
+        return context;
+    }
+
+    /**
+     * End a training run: the application started and loaded its classes, now shut it down so the JVM can write
+     * e.g. its {@code -XX:ArchiveClassesAtExit} class data sharing archive on exit.
+     * @return the exit code
+     */
+    static int finishTrainingRun(ConfigurableApplicationContext context) {
+        // Not a static logger, run() must adjust the logging properties before logging is initialized
+        final Logger log = LoggerFactory.getLogger(OTApplication.class);
+        log.info("Training run: application started, shutting down");
+        return SpringApplication.exit(context);
     }
 
     /**
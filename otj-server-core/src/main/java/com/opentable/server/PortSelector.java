@@ -187,6 +187,15 @@ public class PortSelector {
     public Map<String, PortSelection> getPortSelectionMap() {
         Map<String, PortSelection> res = Arrays.stream(environment.getProperty("ot.httpserver.active-connectors", "default-http").split(","))
                 .map(String::trim)
+                .filter(connectorName -> {
+                    // Unix domain socket connectors don't listen on a port
+                    final boolean unix = EmbeddedJettyBase.UNIX_PROTOCOL.equalsIgnoreCase(
+                            environment.getProperty("ot.httpserver.connector." + connectorName + ".protocol", "http"));
+                    if (unix) {
+                        LOG.debug("Not allocating a port for unix domain socket connector {}", connectorName);
+                    }
+                    return !unix;
+                })
                 .map(connectorName -> {
                     /*
                      * Singularity:
@@ -217,7 +226,8 @@ public class PortSelector {
                         return getWithDefault(SERVER_PORT, namedPort, 8080);
                     }
                     if (connectorName.equals(DEFAULT_CONNECTOR_NAME)) {
-                        final boolean sslEnabled = "https".equalsIgnoreCase(environment.getProperty("ot.httpserver.connector." + connectorName + ".protocol", "http"));
+                        final String protocol = environment.getProperty("ot.httpserver.connector." + connectorName + ".protocol", "http");
+                        final boolean sslEnabled = "https".equalsIgnoreCase(protocol) || "h2".equalsIgnoreCase(protocol);
                         return getWithDefault("ot.httpserver.connector." + connectorName + ".port", sslEnabled ? "PORT_HTTPS" : "PORT_HTTP", 0);
                     }
                     return getWithDefault("ot.httpserver.connector." + connectorName + ".port", "PORT_" + connectorName.toUpperCase(Locale.US), 0);
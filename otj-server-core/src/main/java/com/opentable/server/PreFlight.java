@@ -14,11 +14,8 @@
 package com.opentable.server;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
-import java.util.Enumeration;
-import java.util.jar.Attributes;
-import java.util.jar.Manifest;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -26,49 +23,61 @@ import javax.inject.Inject;
 import org.eclipse.jetty.util.ProcessorUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationStartupAware;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 
 import com.opentable.logging.CommonLogHolder;
 import com.opentable.service.K8sInfo;
 
-public class PreFlight {
-    private static final String COMMIT = "X-BasePOM-Git-Commit-Id";
-
+public class PreFlight implements ApplicationStartupAware {
     private static final Logger LOG = LoggerFactory.getLogger(PreFlight.class);
 
-    @Inject
+    private final BuildInfoRegistry buildInfo;
+    private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
     public PreFlight(K8sInfo k8sInfo) {
+        this(k8sInfo, new BuildInfoRegistry());
+    }
+
+    @Inject
+    public PreFlight(K8sInfo k8sInfo, BuildInfoRegistry buildInfo) {
         LOG.debug("Setting k8sInfo kubernetes: {}, cluster: {}, namespace:{}",
                 k8sInfo.isKubernetes(), k8sInfo.getClusterName().orElse(null), k8sInfo.getNamespace().orElse(null));
         CommonLogHolder.setK8sInfo(k8sInfo);
+        this.buildInfo = buildInfo;
+    }
+
+    @Override
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup;
     }
 
     public void readManifests() throws IOException {
-        final Enumeration<URL> urlsEnum = Thread.currentThread().getContextClassLoader().getResources("META-INF/MANIFEST.MF");
-        while (urlsEnum.hasMoreElements()) {
-            readManifest(urlsEnum.nextElement());
+        final StartupStep step = applicationStartup.start("otj.preflight.read-manifests");
+        try {
+            logManifests();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            step.end();
         }
     }
 
-    private void readManifest(final URL url) throws IOException {
-        try (InputStream is = url.openStream()) {
-            final Manifest mf = new Manifest();
-            mf.read(is);
-            final Attributes atts = mf.getMainAttributes();
-            LOG.debug("Starting up: {} version {} - built from commit {}",
-                    atts.getValue(Attributes.Name.IMPLEMENTATION_TITLE),
-                    atts.getValue(Attributes.Name.IMPLEMENTATION_VERSION),
-                    atts.getValue(COMMIT)
-            );
-        }
+    private void logManifests() {
+        buildInfo.getAll().forEach(info -> LOG.debug("Starting up: {}", info));
     }
 
     @PostConstruct
     public void start() {
-        try {
-            LOG.info("At startup: JVM {} processors, and Jetty {} processors", Runtime.getRuntime().availableProcessors(), ProcessorUtils.availableProcessors());
-            readManifests();
-        } catch (IOException e) {
-            LOG.debug("Error while reading manifest", e);
+        LOG.info("At startup: JVM {} processors, and Jetty {} processors", Runtime.getRuntime().availableProcessors(), ProcessorUtils.availableProcessors());
+        // Manifests are only logged at DEBUG, so don't make startup wait for them, or scan them at all if nobody reads it
+        if (LOG.isDebugEnabled()) {
+            CompletableFuture.runAsync(this::logManifests)
+                    .exceptionally(e -> {
+                        LOG.debug("Error while reading manifest", e);
+                        return null;
+                    });
         }
     }
 }
@@ -0,0 +1,439 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Timer;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.HttpChannelState;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
+import org.eclipse.jetty.util.thread.Scheduler;
+
+/**
+ * Bounds the number of requests being handled, and parks the rest in a bounded queue per {@link Priority} without
+ * holding a thread. When a request finishes its slot goes to the oldest waiter of the highest priority.
+ * <p>
+ * Queue timeouts follow CoDel as applied to request queues: while the queue has been empty at some point during the
+ * last {@code interval} a request may wait up to {@code interval}, but once it has stayed non empty for longer than
+ * that the queue is considered standing and requests waiting more than {@code target} are dropped. Dropped requests,
+ * and those arriving at a full queue, get a fast {@code 503} with a {@code Retry-After} header.
+ * <p>
+ * Parked requests are resumed as a new {@code REQUEST} dispatch, so filters and handlers further in see them exactly
+ * as if they had never been queued. For that reason this handler has to sit inside any handler that only acts on the
+ * initial dispatch.
+ */
+@ManagedObject("Bounded priority request queue")
+public class RequestQueueHandler extends HandlerWrapper {
+    static final String PREFIX = "http-server.request-queue";
+    private static final String ADMITTED = RequestQueueHandler.class.getName() + ".admitted";
+
+    public enum Priority {
+        HIGH, NORMAL, LOW
+    }
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long targetNanos;
+    private final long intervalNanos;
+    private final String retryAfterSeconds;
+    private final List<String> highPriorityPaths;
+    private final Set<String> highPriorityConnectors;
+    private final String priorityHeader;
+
+    private final Map<Priority, PriorityMetrics> metrics = new EnumMap<>(Priority.class);
+    private final Scheduler scheduler = new ScheduledExecutorScheduler("request-queue-sweeper", true);
+
+    // Guarded by this
+    private final Map<Priority, ArrayDeque<Waiter>> queues = new EnumMap<>(Priority.class);
+    private int active;
+    private int queued;
+    private long lastEmpty = System.nanoTime();
+
+    RequestQueueHandler(int maxConcurrent, int maxQueued, long targetNanos, long intervalNanos, long retryAfterSeconds,
+                        List<String> highPriorityPaths, Set<String> highPriorityConnectors, String priorityHeader,
+                        MetricRegistry registry, Supplier<Reservoir> reservoirs) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.targetNanos = targetNanos;
+        this.intervalNanos = intervalNanos;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        this.highPriorityPaths = List.copyOf(highPriorityPaths);
+        this.highPriorityConnectors = Set.copyOf(highPriorityConnectors);
+        this.priorityHeader = priorityHeader == null || priorityHeader.isEmpty() ? null : priorityHeader;
+        for (final Priority priority : Priority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            metrics.put(priority, new PriorityMetrics(registry, priority, reservoirs));
+        }
+        addBean(scheduler);
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        super.doStart();
+        scheduleSweep();
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        final List<Waiter> dropped = new ArrayList<>();
+        synchronized (this) {
+            for (final ArrayDeque<Waiter> queue : queues.values()) {
+                dropped.addAll(queue);
+                queue.clear();
+            }
+            queued = 0;
+        }
+        dropped.forEach(waiter -> waiter.resume(false));
+        super.doStop();
+    }
+
+    @Override
+    public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
+        final HttpChannelState state = baseRequest.getHttpChannelState();
+        if (!state.isInitial()) {
+            final Object admitted = baseRequest.getAttribute(ADMITTED);
+            if (admitted == null) {
+                // An ordinary async re-dispatch, admitted on its initial dispatch
+                super.handle(target, baseRequest, request, response);
+                return;
+            }
+            baseRequest.removeAttribute(ADMITTED);
+            // Downstream this is the request's first dispatch
+            baseRequest.setDispatcherType(DispatcherType.REQUEST);
+            if (Boolean.TRUE.equals(admitted)) {
+                handleAdmitted(target, baseRequest, request, response);
+            } else {
+                reject(baseRequest, response);
+            }
+            return;
+        }
+
+        final Priority priority = priority(target, baseRequest);
+        if (tryAcquire()) {
+            metrics.get(priority).queueTime.update(0, TimeUnit.NANOSECONDS);
+            handleAdmitted(target, baseRequest, request, response);
+            return;
+        }
+        if (isFull()) {
+            metrics.get(priority).rejected.mark();
+            reject(baseRequest, response);
+            return;
+        }
+
+        final AsyncContext async = request.startAsync();
+        // The sweeper, not the container, times waiters out
+        async.setTimeout(0);
+        final Waiter waiter = new Waiter(baseRequest, async, priority);
+        final Boolean outcome;
+        synchronized (this) {
+            if (active < maxConcurrent) {
+                // A slot came free while suspending
+                active++;
+                outcome = Boolean.TRUE;
+            } else if (queued >= maxQueued) {
+                outcome = Boolean.FALSE;
+            } else {
+                queues.get(priority).addLast(waiter);
+                queued++;
+                outcome = null;
+            }
+        }
+        if (outcome != null) {
+            if (outcome) {
+                metrics.get(priority).queueTime.update(0, TimeUnit.NANOSECONDS);
+            } else {
+                metrics.get(priority).rejected.mark();
+            }
+            waiter.resume(outcome);
+        }
+    }
+
+    private void handleAdmitted(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
+        final HttpChannelState state = baseRequest.getHttpChannelState();
+        try {
+            super.handle(target, baseRequest, request, response);
+        } finally {
+            if (state.isAsyncStarted()) {
+                state.addListener(new Release());
+            } else {
+                release();
+            }
+        }
+    }
+
+    private void reject(Request baseRequest, HttpServletResponse response) {
+        baseRequest.setHandled(true);
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeader.RETRY_AFTER.asString(), retryAfterSeconds);
+    }
+
+    private Priority priority(String target, Request baseRequest) {
+        for (final String path : highPriorityPaths) {
+            if (target.startsWith(path)) {
+                return Priority.HIGH;
+            }
+        }
+        if (!highPriorityConnectors.isEmpty()) {
+            final Connector connector = baseRequest.getHttpChannel().getConnector();
+            if (connector != null && highPriorityConnectors.contains(connector.getName())) {
+                return Priority.HIGH;
+            }
+        }
+        if (priorityHeader != null) {
+            final String value = baseRequest.getHeader(priorityHeader);
+            if (value != null) {
+                switch (value.trim().toLowerCase(Locale.ROOT)) { // NOPMD
+                    case "high":
+                        return Priority.HIGH;
+                    case "low":
+                        return Priority.LOW;
+                    default:
+                        break;
+                }
+            }
+        }
+        return Priority.NORMAL;
+    }
+
+    private synchronized boolean tryAcquire() {
+        if (active < maxConcurrent) {
+            active++;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized boolean isFull() {
+        return queued >= maxQueued;
+    }
+
+    /**
+     * Hand the slot of a finished request to the next waiter still within its queue timeout.
+     */
+    private void release() {
+        final List<Waiter> dropped = new ArrayList<>();
+        final Waiter next;
+        final long now = System.nanoTime();
+        synchronized (this) {
+            next = poll(now, dropped);
+            if (next == null) {
+                active--;
+            }
+        }
+        resume(now, next, dropped);
+    }
+
+    /**
+     * Drop waiters that are past their queue timeout even though no request has finished.
+     */
+    private void sweep() {
+        final List<Waiter> dropped = new ArrayList<>();
+        final long now = System.nanoTime();
+        synchronized (this) {
+            final long timeout = timeout(now);
+            for (final ArrayDeque<Waiter> queue : queues.values()) {
+                // Oldest first, so stop at the first one still within its timeout
+                while (!queue.isEmpty() && now - queue.peekFirst().enqueued > timeout) {
+                    dropped.add(queue.pollFirst());
+                    queued--;
+                }
+            }
+            if (queued == 0) {
+                lastEmpty = now;
+            }
+        }
+        resume(now, null, dropped);
+    }
+
+    // Guarded by this
+    private Waiter poll(long now, List<Waiter> dropped) {
+        final long timeout = timeout(now);
+        Waiter next = null;
+        for (final Priority priority : Priority.values()) {
+            final ArrayDeque<Waiter> queue = queues.get(priority);
+            while (next == null && !queue.isEmpty()) {
+                final Waiter waiter = queue.pollFirst();
+                queued--;
+                if (now - waiter.enqueued > timeout) {
+                    dropped.add(waiter);
+                } else {
+                    next = waiter;
+                }
+            }
+        }
+        if (queued == 0) {
+            lastEmpty = now;
+        }
+        return next;
+    }
+
+    // Guarded by this
+    private long timeout(long now) {
+        return isStanding(now) ? targetNanos : intervalNanos;
+    }
+
+    // Guarded by this
+    private boolean isStanding(long now) {
+        return queued > 0 && now - lastEmpty > intervalNanos;
+    }
+
+    private void resume(long now, Waiter next, List<Waiter> dropped) {
+        for (final Waiter waiter : dropped) {
+            metrics.get(waiter.priority).dropped.mark();
+            waiter.resume(false);
+        }
+        if (next != null) {
+            metrics.get(next.priority).queueTime.update(now - next.enqueued, TimeUnit.NANOSECONDS);
+            next.resume(true);
+        }
+    }
+
+    private void scheduleSweep() {
+        if (isRunning()) {
+            scheduler.schedule(() -> {
+                try {
+                    sweep();
+                } finally {
+                    scheduleSweep();
+                }
+            }, Math.max(TimeUnit.MILLISECONDS.toNanos(1), targetNanos), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @ManagedAttribute("maximum requests handled at once")
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    @ManagedAttribute("maximum requests waiting")
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    @ManagedAttribute("requests being handled")
+    public synchronized int getActive() {
+        return active;
+    }
+
+    @ManagedAttribute("requests waiting")
+    public synchronized int getQueued() {
+        return queued;
+    }
+
+    @ManagedAttribute("true if the queue has not been empty for a whole interval")
+    public synchronized boolean isStanding() {
+        return isStanding(System.nanoTime());
+    }
+
+    @ManagedAttribute("requests dropped after waiting too long")
+    public long getDropped() {
+        return metrics.values().stream().mapToLong(m -> m.dropped.getCount()).sum();
+    }
+
+    @ManagedAttribute("requests rejected because the queue was full")
+    public long getRejected() {
+        return metrics.values().stream().mapToLong(m -> m.rejected.getCount()).sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RequestQueueHandler{" +
+                "maxConcurrent=" + maxConcurrent +
+                ", maxQueued=" + maxQueued +
+                ", targetMillis=" + TimeUnit.NANOSECONDS.toMillis(targetNanos) +
+                ", intervalMillis=" + TimeUnit.NANOSECONDS.toMillis(intervalNanos) +
+                ", highPriorityPaths=" + highPriorityPaths +
+                ", highPriorityConnectors=" + highPriorityConnectors +
+                ", priorityHeader=" + priorityHeader +
+                '}';
+    }
+
+    private static final class PriorityMetrics {
+        private final Timer queueTime;
+        private final Meter dropped;
+        private final Meter rejected;
+
+        PriorityMetrics(MetricRegistry registry, Priority priority, Supplier<Reservoir> reservoirs) {
+            final String name = MetricRegistry.name(PREFIX, priority.name().toLowerCase(Locale.ROOT));
+            this.queueTime = registry.timer(MetricRegistry.name(name, "queue-time"), () -> new Timer(reservoirs.get()));
+            this.dropped = registry.meter(MetricRegistry.name(name, "dropped"));
+            this.rejected = registry.meter(MetricRegistry.name(name, "rejected"));
+        }
+    }
+
+    private static final class Waiter {
+        private final Request baseRequest;
+        private final AsyncContext async;
+        private final Priority priority;
+        private final long enqueued = System.nanoTime();
+
+        Waiter(Request baseRequest, AsyncContext async, Priority priority) {
+            this.baseRequest = baseRequest;
+            this.async = async;
+            this.priority = priority;
+        }
+
+        void resume(boolean admitted) {
+            baseRequest.setAttribute(ADMITTED, admitted);
+            async.dispatch();
+        }
+    }
+
+    private class Release implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.time.Duration;
+
+import com.codahale.metrics.MetricRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.lang.NonNull;
+
+/**
+ * Installs a {@link RouteMetricsHandler} right inside the {@code StatisticsHandler} set up by {@link EmbeddedJettyBase}.
+ */
+@Configuration
+@Conditional(RouteMetricsConfiguration.InstallRouteMetrics.class)
+public class RouteMetricsConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RouteMetricsConfiguration.class);
+
+    public static class InstallRouteMetrics implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, @NonNull AnnotatedTypeMetadata metadata) {
+            final String value = context.getEnvironment().
+                    getProperty("ot.httpserver.route-metrics.enabled", "false");
+            return Boolean.parseBoolean(value);
+        }
+    }
+
+    /**
+     * maxRoutes - distinct connector, method and route combinations tracked before the rest share one bucket.
+     * Each route keeps one latency histogram reservoir, with the default single stripe that is five HdrHistograms.
+     * At 2 significant digits and latencies up to a few seconds each holds about 3,500 counts (some 28KB), so a
+     * route costs up to ~140KB of heap and a full 500 routes up to ~70MB. Every extra stripe adds three histograms.
+     */
+    @Value("${ot.httpserver.route-metrics.max-routes:500}")
+    private int maxRoutes;
+
+    /**
+     * window - latency histograms report roughly the last one to two windows
+     */
+    @Value("${ot.httpserver.route-metrics.window:PT1M}")
+    private Duration window;
+
+    /**
+     * significantDigits - histogram precision, 2 means values are kept to within 1%
+     */
+    @Value("${ot.httpserver.route-metrics.significant-digits:2}")
+    private int significantDigits;
+
+    /**
+     * stripes - recorders per histogram, a single recorder is already thread safe
+     */
+    @Value("${ot.httpserver.route-metrics.stripes:" + HdrHistogramReservoir.DEFAULT_STRIPES + "}")
+    private int stripes;
+
+    @Bean
+    public RouteMetricsHandler routeMetricsHandler(MetricRegistry metricRegistry) {
+        final RouteMetricsHandler handler = new RouteMetricsHandler(metricRegistry,
+                () -> new HdrHistogramReservoir(significantDigits, window, stripes),
+                maxRoutes);
+        LOG.debug("Creating route metrics handler: {}", handler);
+        return handler;
+    }
+}
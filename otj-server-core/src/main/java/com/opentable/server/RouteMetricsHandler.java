@@ -0,0 +1,308 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Timer;
+
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.HttpChannelState;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records a latency histogram and status class meters per connector, HTTP method and route template.
+ * <p>
+ * The route is taken from the {@link #ROUTE_ATTRIBUTE} request attribute if something set it, otherwise from the
+ * pattern Spring MVC matched. Requests without a route are bucketed by outcome, methods other than the standard ones
+ * are reported as {@code OTHER}, and once {@code maxRoutes} distinct routes have been seen further ones share a single
+ * {@code OTHER} bucket per connector, so that clients can't make the number of metrics grow without bound.
+ * <p>
+ * Names are made of {@link #sanitize(String) sanitized} components, which can map different routes to the same name,
+ * e.g. {@code /a/{id}} and {@code /a.{id}}. The first route to use a name keeps it, later ones are counted in the
+ * {@code OTHER} bucket and logged once.
+ * <p>
+ * Metrics are named {@code http-server.routes.<connector>.<method>.<route>.latency} and
+ * {@code http-server.routes.<connector>.<method>.<route>.<N>xx-responses}.
+ */
+@ManagedObject("Per route request metrics")
+public class RouteMetricsHandler extends HandlerWrapper {
+    private static final Logger LOG = LoggerFactory.getLogger(RouteMetricsHandler.class);
+
+    /**
+     * Request attribute holding the route template (e.g. {@code /users/{id}}) of the current request.
+     */
+    public static final String ROUTE_ATTRIBUTE = RouteMetricsHandler.class.getName() + ".route";
+
+    static final String PREFIX = "http-server.routes";
+    static final String MVC_PATTERN_ATTRIBUTE = "org.springframework.web.servlet.HandlerMapping.bestMatchingPattern";
+    static final String NOT_FOUND = "NOT_FOUND";
+    static final String REDIRECTION = "REDIRECTION";
+    static final String UNKNOWN = "UNKNOWN";
+    static final String OTHER = "OTHER";
+    static final Set<String> METHODS = Set.of("GET", "HEAD", "POST", "PUT", "DELETE", "PATCH", "OPTIONS");
+
+    private final MetricRegistry registry;
+    private final Supplier<Reservoir> reservoirs;
+    private final int maxRoutes;
+
+    private final ConcurrentMap<RouteKey, RouteMetrics> routes = new ConcurrentHashMap<>();
+    // Which route owns each metric name
+    private final ConcurrentMap<String, RouteKey> names = new ConcurrentHashMap<>();
+
+    RouteMetricsHandler(MetricRegistry registry, Supplier<Reservoir> reservoirs, int maxRoutes) {
+        this.registry = registry;
+        this.reservoirs = reservoirs;
+        this.maxRoutes = maxRoutes;
+    }
+
+    @Override
+    public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
+        final HttpChannelState state = baseRequest.getHttpChannelState();
+        // Async re-dispatches are recorded when the request completes
+        if (!state.isInitial()) {
+            super.handle(target, baseRequest, request, response);
+            return;
+        }
+
+        final long start = System.nanoTime();
+        try {
+            super.handle(target, baseRequest, request, response);
+        } finally {
+            if (state.isAsyncStarted()) {
+                state.addListener(new Completion(baseRequest, start));
+            } else {
+                record(baseRequest, start);
+            }
+        }
+    }
+
+    private void record(Request baseRequest, long start) {
+        final long elapsed = System.nanoTime() - start;
+        final int status = baseRequest.getResponse().getStatus();
+        final RouteMetrics metrics = metricsFor(connectorName(baseRequest), method(baseRequest), route(baseRequest, status));
+        metrics.latency.update(elapsed, TimeUnit.NANOSECONDS);
+        metrics.status(status).mark();
+    }
+
+    private static String connectorName(Request baseRequest) {
+        final Connector connector = baseRequest.getHttpChannel().getConnector();
+        final String name = connector == null ? null : connector.getName();
+        return name == null ? EmbeddedJettyBase.DEFAULT_CONNECTOR_NAME : name;
+    }
+
+    /**
+     * Any token is a valid method, so only the standard ones get their own metrics.
+     */
+    private static String method(Request baseRequest) {
+        final String method = baseRequest.getMethod();
+        return METHODS.contains(method) ? method : OTHER;
+    }
+
+    private static String route(Request baseRequest, int status) {
+        Object route = baseRequest.getAttribute(ROUTE_ATTRIBUTE);
+        if (route == null) {
+            route = baseRequest.getAttribute(MVC_PATTERN_ATTRIBUTE);
+        }
+        if (route != null) {
+            return route.toString();
+        }
+        if (status == HttpServletResponse.SC_NOT_FOUND) {
+            return NOT_FOUND;
+        }
+        if (status >= 300 && status < 400) {
+            return REDIRECTION;
+        }
+        return UNKNOWN;
+    }
+
+    private RouteMetrics metricsFor(String connector, String method, String route) {
+        final RouteKey key = new RouteKey(connector, method, route);
+        final RouteMetrics existing = routes.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (routes.size() >= maxRoutes) {
+            return other(connector);
+        }
+        final RouteMetrics created = routes.computeIfAbsent(key, this::create);
+        if (created != null) {
+            return created;
+        }
+        // Remembered, so the collision is only looked up once
+        final RouteMetrics other = other(connector);
+        routes.putIfAbsent(key, other);
+        return other;
+    }
+
+    private RouteMetrics other(String connector) {
+        return routes.computeIfAbsent(new RouteKey(connector, OTHER, OTHER), this::create);
+    }
+
+    /**
+     * @return the route's metrics, or null if its name is already used by a different route
+     */
+    private RouteMetrics create(RouteKey key) {
+        final String name = MetricRegistry.name(PREFIX, sanitize(key.connector), sanitize(key.method), sanitize(key.route));
+        final RouteKey owner = names.putIfAbsent(name, key);
+        // The OTHER bucket always gets its metrics, even if a route happens to sanitize to the same name
+        if (owner != null && !owner.equals(key) && !(OTHER.equals(key.method) && OTHER.equals(key.route))) {
+            LOG.warn("Counting {} {} on {} as {}, its metric name {} is already used by {} {}",
+                    key.method, key.route, key.connector, OTHER, name, owner.method, owner.route);
+            return null;
+        }
+        return new RouteMetrics(name, registry.timer(MetricRegistry.name(name, "latency"), () -> new Timer(reservoirs.get())));
+    }
+
+    /**
+     * Make a path safe to use as a single dotted metric name component, e.g. {@code /users/{id}} becomes
+     * {@code users_id}. Runs of other characters collapse into one {@code _}, so this isn't one-to-one.
+     */
+    static String sanitize(String component) {
+        final StringBuilder result = new StringBuilder(component.length());
+        boolean separator = false;
+        for (int i = 0; i < component.length(); i++) {
+            final char c = component.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '-') {
+                if (separator && result.length() > 0) {
+                    result.append('_');
+                }
+                separator = false;
+                result.append(c);
+            } else if (c != '{' && c != '}') {
+                separator = true;
+            }
+        }
+        return result.length() == 0 ? "root" : result.toString();
+    }
+
+    @ManagedAttribute("distinct routes being tracked")
+    public int getRouteCount() {
+        return routes.size();
+    }
+
+    @ManagedAttribute("maximum distinct routes tracked")
+    public int getMaxRoutes() {
+        return maxRoutes;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteMetricsHandler{" +
+                "maxRoutes=" + maxRoutes +
+                ", routes=" + routes.size() +
+                '}';
+    }
+
+    private static final class RouteKey {
+        private final String connector;
+        private final String method;
+        private final String route;
+        private final int hash;
+
+        RouteKey(String connector, String method, String route) {
+            this.connector = connector;
+            this.method = method;
+            this.route = route;
+            this.hash = 31 * (31 * connector.hashCode() + method.hashCode()) + route.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RouteKey)) {
+                return false;
+            }
+            final RouteKey other = (RouteKey) o;
+            return hash == other.hash && route.equals(other.route) && method.equals(other.method) && connector.equals(other.connector);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final class RouteMetrics {
+        private final String name;
+        private final Timer latency;
+        // Indexed by status / 100, created on first use
+        private final Meter[] statuses = new Meter[6];
+
+        RouteMetrics(String name, Timer latency) {
+            this.name = name;
+            this.latency = latency;
+        }
+
+        Meter status(int status) {
+            final int statusClass = status / 100 >= 1 && status / 100 <= 5 ? status / 100 : 0;
+            Meter meter = statuses[statusClass];
+            if (meter == null) {
+                // Racing threads both get the registry's single instance
+                meter = registry.meter(MetricRegistry.name(name, statusClass == 0 ? "other-responses" : statusClass + "xx-responses"));
+                statuses[statusClass] = meter;
+            }
+            return meter;
+        }
+    }
+
+    private final class Completion implements AsyncListener {
+        private final Request baseRequest;
+        private final long start;
+
+        Completion(Request baseRequest, long start) {
+            this.baseRequest = baseRequest;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            record(baseRequest, start);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
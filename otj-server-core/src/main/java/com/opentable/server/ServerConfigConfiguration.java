@@ -13,24 +13,15 @@
  */
 package com.opentable.server;
 
-import java.util.Optional;
-import java.util.stream.Collectors;
-
-import javax.inject.Inject;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
-import org.springframework.core.env.ConfigurableEnvironment;
 
 import com.opentable.service.AppInfo;
 import com.opentable.service.EnvInfo;
 import com.opentable.service.K8sInfo;
 import com.opentable.spring.ConversionServiceConfiguration;
-import com.opentable.spring.PropertySourceUtil;
 
 @Configuration
 @Import({
@@ -38,31 +29,12 @@ import com.opentable.spring.PropertySourceUtil;
         AppInfo.class,
         EnvInfo.class,
         K8sInfo.class,
+        // Logs the resolved configuration, and dumps it as an MBEAN operation
+        AppConfigDump.class,
 })
 public class ServerConfigConfiguration {
-    private static final String INDENT = "    ";
-
     @Bean
     public static PropertySourcesPlaceholderConfigurer propertyConfig() {
         return new PropertySourcesPlaceholderConfigurer();
     }
-
-    @Inject
-    public void logAppConfig(final ConfigurableEnvironment env) {
-        final Logger log = LoggerFactory.getLogger(ServerConfigConfiguration.class);
-        log.info("{}:\n\n{}{}\n", env, INDENT,
-            PropertySourceUtil.getKeys(env)
-                .sorted()
-                .distinct()
-                .map(k -> {
-                    try {
-                        return k + "=" + Optional.ofNullable(env.getProperty(k)).orElse("null")
-                            .replace("\n", "\\n");
-                    } catch (Exception e) {
-                        return k + "= Error: " + e.getMessage();
-                    }
-                })
-                .collect(Collectors.joining("\n" + INDENT)));
-    }
-
 }
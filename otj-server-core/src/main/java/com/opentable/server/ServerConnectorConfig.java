@@ -22,6 +22,13 @@ public interface ServerConnectorConfig {
         return null;
     }
 
+    /**
+     * Socket file to listen on, only used by the unix protocol.
+     */
+    default String getUnixSocketPath() {
+        return null;
+    }
+
     default int getPort() {
         return -1;
     }
@@ -46,6 +53,27 @@ public interface ServerConnectorConfig {
         return false;
     }
 
+    /*
+     * TLS session resumption, only used by the https protocols. A cache size of 0 is unlimited, the timeout is in
+     * seconds; values < 0 keep the JSSE defaults.
+     */
+
+    default int getSslSessionCacheSize() {
+        return -1;
+    }
+
+    default int getSslSessionTimeout() {
+        return -1;
+    }
+
+    /**
+     * Seconds between checks of the keystore file for changes, which are then loaded without a restart; <= 0 never
+     * checks. Only used by the https protocols.
+     */
+    default int getKeystoreScanInterval() {
+        return -1;
+    }
+
     default boolean isSniRequired() {
         return false;
     }
@@ -57,4 +85,64 @@ public interface ServerConnectorConfig {
     default boolean isAllowEmptySni() {
         return true;
     }
+
+    /*
+     * HTTP/2 settings, only used by the h2 and h2c protocols. Values <= 0 keep the Jetty defaults.
+     */
+
+    default int getHttp2MaxConcurrentStreams() {
+        return -1;
+    }
+
+    default int getHttp2InitialStreamRecvWindow() {
+        return -1;
+    }
+
+    default int getHttp2InitialSessionRecvWindow() {
+        return -1;
+    }
+
+    default int getHttp2HpackTableSize() {
+        return -1;
+    }
+
+    /*
+     * Listener settings. Acceptors and selectors <= 0 keep the Jetty defaults, an accept queue size of 0 the OS one.
+     * More than one listener opens that many sockets on the same port with SO_REUSEPORT, each with its own acceptors
+     * and selectors, and the kernel spreads new connections across them.
+     */
+
+    default int getListeners() {
+        return 1;
+    }
+
+    default int getAcceptors() {
+        return -1;
+    }
+
+    default int getSelectors() {
+        return -1;
+    }
+
+    default int getAcceptQueueSize() {
+        return 0;
+    }
+
+    /*
+     * Bulkhead executor. With executorThreads > 0 the connector gets a pool of its own instead of sharing the server's;
+     * its acceptors and selectors come out of it too. A queue size <= 0 leaves the queue unbounded, executor is
+     * "platform" or "virtual" and defaults to ot.httpserver.executor.
+     */
+
+    default int getExecutorThreads() {
+        return -1;
+    }
+
+    default int getExecutorQueueSize() {
+        return -1;
+    }
+
+    default String getExecutor() {
+        return null;
+    }
 }
@@ -0,0 +1,181 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpHeaderValue;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http.PreEncodedHttpField;
+import org.eclipse.jetty.http2.HTTP2Connection;
+import org.eclipse.jetty.http2.ISession;
+import org.eclipse.jetty.io.Connection;
+import org.eclipse.jetty.io.EndPoint;
+import org.eclipse.jetty.server.AbstractConnector;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.StatisticsHandler;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.opentable.metrics.ready.ReadyCheck;
+import com.opentable.metrics.ready.Result;
+
+/**
+ * Drains traffic before {@link EmbeddedJettyBase} stops Jetty, instead of sleeping for a fixed time.
+ * <ol>
+ *     <li>readiness starts failing, so load balancers and service discovery take the instance out</li>
+ *     <li>HTTP/1.1 responses carry {@code Connection: close} and HTTP/2 sessions get a {@code GOAWAY}, so clients
+ *     move their connections elsewhere</li>
+ *     <li>wait until no request is in flight and none has started for {@code quietPeriod}, or {@code timeout} passed</li>
+ *     <li>the caller stops the connectors</li>
+ * </ol>
+ * Connectors keep accepting until the end, so clients that haven't noticed yet aren't refused.
+ */
+@ManagedObject("Drains traffic before shutdown")
+public class ShutdownDrainCoordinator implements HttpConfiguration.Customizer {
+    private static final Logger LOG = LoggerFactory.getLogger(ShutdownDrainCoordinator.class);
+    private static final HttpField CONNECTION_CLOSE = new PreEncodedHttpField(HttpHeader.CONNECTION, HttpHeaderValue.CLOSE.asString());
+    private static final long POLL_MILLIS = 50;
+
+    private final Duration timeout;
+    private final Duration quietPeriod;
+
+    private volatile boolean draining;
+
+    ShutdownDrainCoordinator(Duration timeout, Duration quietPeriod) {
+        this.timeout = timeout;
+        this.quietPeriod = quietPeriod;
+    }
+
+    @Override
+    public void customize(Connector connector, HttpConfiguration channelConfig, Request request) {
+        if (draining && request.getHttpVersion() != HttpVersion.HTTP_2) {
+            request.getResponse().getHttpFields().put(CONNECTION_CLOSE);
+        }
+    }
+
+    /**
+     * @return a ready check failing as soon as draining starts
+     */
+    ReadyCheck readyCheck() {
+        return new ReadyCheck() {
+            @Override
+            protected Result check() {
+                return draining ? Result.unready("draining for shutdown") : Result.ready();
+            }
+        };
+    }
+
+    /**
+     * Run the first three phases, blocking until the server is drained or the timeout passed.
+     */
+    public void drain(Server server) {
+        final long start = System.nanoTime();
+        draining = true;
+        LOG.info("Shutdown drain: readiness failing, closing connections");
+
+        final Set<ISession> goneAway = Collections.newSetFromMap(new IdentityHashMap<>());
+        goAway(server, goneAway);
+        final long closing = System.nanoTime();
+        LOG.info("Shutdown drain: GOAWAY sent to {} HTTP/2 sessions, HTTP/1.1 responses close their connection ({} ms)",
+                goneAway.size(), millis(closing - start));
+
+        final StatisticsHandler stats = server.getChildHandlerByClass(StatisticsHandler.class);
+        if (stats == null) {
+            LOG.warn("Shutdown drain: no StatisticsHandler to count requests in flight, not waiting");
+            return;
+        }
+        final long deadline = closing + timeout.toNanos();
+        final long quietNanos = quietPeriod.toNanos();
+        int requests = stats.getRequests();
+        long quietSince = System.nanoTime();
+        while (true) {
+            final long now = System.nanoTime();
+            final int latest = stats.getRequests();
+            if (latest != requests) {
+                requests = latest;
+                quietSince = now;
+            }
+            final int active = stats.getRequestsActive();
+            if (active == 0 && now - quietSince >= quietNanos) {
+                LOG.info("Shutdown drain: drained in {} ms", millis(now - closing));
+                return;
+            }
+            if (now - deadline >= 0) {
+                LOG.warn("Shutdown drain: timed out after {} ms with {} requests in flight", millis(now - closing), active);
+                return;
+            }
+            // Connections accepted since the last pass
+            goAway(server, goneAway);
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                LOG.warn("Shutdown drain: interrupted with {} requests in flight", active);
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static void goAway(Server server, Set<ISession> goneAway) {
+        for (final Connector connector : server.getConnectors()) {
+            if (!(connector instanceof AbstractConnector)) {
+                continue;
+            }
+            for (final EndPoint endPoint : ((AbstractConnector) connector).getConnectedEndPoints()) {
+                final Connection connection = endPoint.getConnection();
+                if (connection instanceof HTTP2Connection) {
+                    final ISession session = ((HTTP2Connection) connection).getSession();
+                    if (goneAway.add(session)) {
+                        session.shutdown();
+                    }
+                }
+            }
+        }
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    @ManagedAttribute("whether shutdown draining has started")
+    public boolean isDraining() {
+        return draining;
+    }
+
+    @ManagedAttribute("longest wait for requests in flight")
+    public String getTimeout() {
+        return timeout.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "ShutdownDrainCoordinator{" +
+                "timeout=" + timeout +
+                ", quietPeriod=" + quietPeriod +
+                ", draining=" + draining +
+                '}';
+    }
+}
@@ -27,6 +27,7 @@ import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.EnumerablePropertySource;
 import org.springframework.core.env.MapPropertySource;
 import org.springframework.core.env.PropertySource;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.lang.NonNull;
 //TODO: make sure dmitry tested with Cloud Config - concerned about order of precedence - ping
 public class SpringPortSelectionPostProcessor implements EnvironmentPostProcessor {
@@ -42,7 +43,14 @@ public class SpringPortSelectionPostProcessor implements EnvironmentPostProcesso
                 .filter(i -> "true".equalsIgnoreCase(environment.getProperty("ot.port-selector.enabled", "true")))
                 .findFirst()
                 .map(i -> environment)
-                .ifPresent(this::injectPortSelectorPropertySource);
+                .ifPresent(env -> {
+                    final StartupStep step = application.getApplicationStartup().start("otj.port-selection");
+                    try {
+                        injectPortSelectorPropertySource(env);
+                    } finally {
+                        step.end();
+                    }
+                });
     }
 
     private void injectPortSelectorPropertySource(ConfigurableEnvironment environment) {
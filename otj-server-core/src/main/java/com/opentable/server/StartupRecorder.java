@@ -0,0 +1,386 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+/**
+ * Records a hierarchical timeline of application startup: Spring's own steps, every bean instantiation, and the
+ * otj phases (port selection, the configuration dump, manifest scanning, RESTEasy deployment and Jetty start).
+ * <p>
+ * Once the application is ready the recorder logs a one line summary, writes the whole timeline as JSON to
+ * {@code ot.startup-recorder.file} if set (otherwise at {@code DEBUG}), and fails startup if it took longer than
+ * {@code ot.startup-recorder.budget}. Recording then stops, so later lazy bean creation doesn't fill the buffer.
+ * <p>
+ * {@link OTApplication} installs one when the {@code ot.startup-recorder.enabled} system property is true; tests can
+ * instead pass {@link #install(SpringApplicationBuilder)} as the customizer and inspect the recorder afterwards.
+ */
+public final class StartupRecorder implements ApplicationListener<ApplicationReadyEvent> {
+    public static final String ENABLED = "ot.startup-recorder.enabled";
+    static final String FILE = "ot.startup-recorder.file";
+    static final String BUDGET = "ot.startup-recorder.budget";
+    static final int DEFAULT_CAPACITY = 10_000;
+
+    static final String BEAN_STEP = "spring.beans.instantiate";
+    private static final int SUMMARY_ENTRIES = 5;
+
+    private static final Logger LOG = LoggerFactory.getLogger(StartupRecorder.class);
+
+    private final BufferingApplicationStartup startup;
+
+    private volatile Instant startTime;
+    private volatile Duration total;
+    private volatile Duration jvmUptime;
+    private volatile List<Step> steps = Collections.emptyList();
+
+    public StartupRecorder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the most steps to record, later ones are dropped
+     */
+    public StartupRecorder(int capacity) {
+        this.startup = new BufferingApplicationStartup(capacity);
+    }
+
+    /**
+     * Record the startup of the application being built.
+     * @param builder the application to record
+     */
+    public void install(SpringApplicationBuilder builder) {
+        builder.applicationStartup(startup).listeners(this);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (total != null) {
+            return;
+        }
+        final StartupTimeline timeline = startup.drainBufferedTimeline();
+        startup.addFilter(step -> false);
+        startTime = timeline.getStartTime();
+        total = Duration.between(startTime, Instant.now());
+        jvmUptime = Duration.ofMillis(ManagementFactory.getRuntimeMXBean().getUptime());
+        steps = Step.tree(timeline);
+
+        LOG.info(summary());
+
+        final Environment env = event.getApplicationContext().getEnvironment();
+        final String file = env.getProperty(FILE);
+        try {
+            if (file != null) {
+                final Path path = Paths.get(file);
+                try (OutputStream out = Files.newOutputStream(path)) {
+                    writeJson(out);
+                }
+                LOG.info("Wrote startup timeline to {}", path.toAbsolutePath());
+            } else if (LOG.isDebugEnabled()) {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                writeJson(out);
+                LOG.debug("Startup timeline: {}", out);
+            }
+        } catch (IOException e) {
+            LOG.warn("Couldn't write startup timeline to {}", file, e);
+        }
+
+        final Duration budget = env.getProperty(BUDGET, Duration.class);
+        if (budget != null) {
+            checkBudget(budget);
+        }
+    }
+
+    /**
+     * @return time from the start of {@code run} until the application was ready, or null if it isn't yet
+     */
+    public Duration getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the top level steps, each with its children, in the order they started
+     */
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return every recorded step, depth first
+     */
+    public Stream<Step> allSteps() {
+        return steps.stream().flatMap(Step::flatten);
+    }
+
+    /**
+     * Fail if startup took longer than the budget.
+     * @param budget the longest startup that's acceptable
+     * @throws IllegalStateException if startup took longer, with the summary as the message
+     */
+    public void checkBudget(Duration budget) {
+        if (total == null) {
+            throw new IllegalStateException("Application hasn't finished starting");
+        }
+        if (total.compareTo(budget) > 0) {
+            throw new IllegalStateException(String.format("Startup took %d ms, over its %d ms budget. %s",
+                    total.toMillis(), budget.toMillis(), summary()));
+        }
+    }
+
+    /**
+     * @return a single line with the total, the slowest phases and the beans that took longest to create by themselves
+     */
+    public String summary() {
+        if (total == null) {
+            return "Application hasn't finished starting";
+        }
+        return String.format("Startup took %d ms (JVM up %d ms); slowest steps: %s; slowest beans: %s",
+                total.toMillis(), jvmUptime.toMillis(),
+                slowest(s -> !BEAN_STEP.equals(s.getName()), Step::getDuration),
+                slowest(s -> BEAN_STEP.equals(s.getName()), Step::getSelfTime));
+    }
+
+    private String slowest(Predicate<Step> filter, Function<Step, Duration> time) {
+        return allSteps()
+                .filter(filter)
+                .sorted(Comparator.comparing(time).reversed())
+                .limit(SUMMARY_ENTRIES)
+                .map(s -> s.getLabel() + " " + time.apply(s).toMillis() + " ms")
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Write the timeline as a JSON object with the totals and a tree of steps.
+     * @param out where to write, left open
+     * @throws IOException if writing fails
+     */
+    public void writeJson(OutputStream out) throws IOException {
+        try (JsonGenerator json = new JsonFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeStringField("startTime", String.valueOf(startTime));
+            json.writeNumberField("totalMs", total == null ? -1 : total.toMillis());
+            json.writeNumberField("jvmUptimeMs", jvmUptime == null ? -1 : jvmUptime.toMillis());
+            json.writeArrayFieldStart("steps");
+            for (final Step step : steps) {
+                step.write(json);
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    /**
+     * Record a step for the start of a Jetty component, if startup is being recorded.
+     */
+    static void recordStart(ApplicationStartup startup, LifeCycle lifeCycle, String name, String connector) {
+        if (startup == null || startup == ApplicationStartup.DEFAULT) {
+            return;
+        }
+        lifeCycle.addEventListener(new LifeCycle.Listener() {
+            private StartupStep step;
+
+            @Override
+            public void lifeCycleStarting(LifeCycle event) {
+                step = startup.start(name);
+                if (connector != null) {
+                    step.tag("connector", connector);
+                }
+            }
+
+            @Override
+            public void lifeCycleStarted(LifeCycle event) {
+                end();
+            }
+
+            @Override
+            public void lifeCycleFailure(LifeCycle event, Throwable cause) {
+                if (step != null) {
+                    step.tag("failure", String.valueOf(cause));
+                }
+                end();
+            }
+
+            private void end() {
+                if (step != null) {
+                    step.end();
+                    step = null;
+                }
+            }
+
+            @Override
+            public String toString() {
+                return "StartupRecorder step " + name;
+            }
+        });
+    }
+
+    /**
+     * One recorded startup step and the steps that happened inside it.
+     */
+    public static final class Step {
+        private final String name;
+        private final Map<String, String> tags;
+        private final Duration offset;
+        private final Duration duration;
+        private final List<Step> children = new ArrayList<>();
+
+        private Step(String name, Map<String, String> tags, Duration offset, Duration duration) {
+            this.name = name;
+            this.tags = tags;
+            this.offset = offset;
+            this.duration = duration;
+        }
+
+        static List<Step> tree(StartupTimeline timeline) {
+            final Map<Long, Step> byId = new HashMap<>();
+            final Map<Long, Long> parents = new HashMap<>();
+            final List<Step> roots = new ArrayList<>();
+            for (final StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+                final StartupStep step = event.getStartupStep();
+                final Map<String, String> tags = new LinkedHashMap<>();
+                step.getTags().forEach(t -> tags.put(t.getKey(), t.getValue()));
+                byId.put(step.getId(), new Step(step.getName(), tags,
+                        Duration.between(timeline.getStartTime(), event.getStartTime()), event.getDuration()));
+                if (step.getParentId() != null) {
+                    parents.put(step.getId(), step.getParentId());
+                }
+            }
+            byId.forEach((id, step) -> {
+                // Steps whose parent never ended, or was dropped, become top level
+                final Step parent = byId.get(parents.get(id));
+                (parent == null ? roots : parent.children).add(step);
+            });
+            final Comparator<Step> byStart = Comparator.comparing(Step::getOffset);
+            byId.values().forEach(s -> s.children.sort(byStart));
+            roots.sort(byStart);
+            return roots;
+        }
+
+        Stream<Step> flatten() {
+            return Stream.concat(Stream.of(this), children.stream().flatMap(Step::flatten));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Map<String, String> getTags() {
+            return Collections.unmodifiableMap(tags);
+        }
+
+        /**
+         * @return the bean name for bean instantiations, otherwise the step name with its tags
+         */
+        public String getLabel() {
+            final String beanName = tags.get("beanName");
+            if (BEAN_STEP.equals(name) && beanName != null) {
+                return beanName;
+            }
+            return tags.isEmpty() ? name : name + tags;
+        }
+
+        /**
+         * @return when the step started, relative to the start of recording
+         */
+        public Duration getOffset() {
+            return offset;
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+
+        /**
+         * @return the step's duration less that of its children
+         */
+        public Duration getSelfTime() {
+            Duration self = duration;
+            for (final Step child : children) {
+                self = self.minus(child.duration);
+            }
+            return self.isNegative() ? Duration.ZERO : self;
+        }
+
+        public List<Step> getChildren() {
+            return Collections.unmodifiableList(children);
+        }
+
+        void write(JsonGenerator json) throws IOException {
+            json.writeStartObject();
+            json.writeStringField("name", name);
+            if (!tags.isEmpty()) {
+                json.writeObjectFieldStart("tags");
+                for (final Map.Entry<String, String> tag : tags.entrySet()) {
+                    json.writeStringField(tag.getKey(), tag.getValue());
+                }
+                json.writeEndObject();
+            }
+            json.writeNumberField("startMs", millis(offset));
+            json.writeNumberField("durationMs", millis(duration));
+            json.writeNumberField("selfMs", millis(getSelfTime()));
+            if (!children.isEmpty()) {
+                json.writeArrayFieldStart("children");
+                for (final Step child : children) {
+                    child.write(json);
+                }
+                json.writeEndArray();
+            }
+            json.writeEndObject();
+        }
+
+        private static double millis(Duration duration) {
+            return duration.toNanos() / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return getLabel() + " " + duration.toMillis() + " ms";
+        }
+    }
+}
@@ -19,6 +19,7 @@ import com.google.common.annotations.VisibleForTesting;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ExitCodeGenerator;
 import org.springframework.boot.context.event.ApplicationFailedEvent;
 import org.springframework.context.annotation.Import;
@@ -33,9 +34,17 @@ import com.opentable.util.JvmFallbackShutdown;
 public class StartupShutdownFailedHandler {
     private static final Logger LOG = LoggerFactory.getLogger(StartupShutdownFailedHandler.class);
 
+    static final String FALLBACK_TIMEOUT_PROPERTY = "ot.server.fallback-shutdown-timeout";
+
     @VisibleForTesting
     static final Duration timeout = Duration.ofSeconds(30);
 
+    /**
+     * closeTimeout - how long a closing context may take before the JVM is terminated anyway
+     */
+    @Value("${" + FALLBACK_TIMEOUT_PROPERTY + ":PT30S}")
+    private Duration closeTimeout = timeout;
+
     @EventListener
     public void onFailure(ApplicationFailedEvent event) {
         LOG.debug("ApplicationFailedEvent {} fallback shutdown {}", event, timeout);
@@ -44,15 +53,18 @@ public class StartupShutdownFailedHandler {
 
     @EventListener
     public void onClose(ContextClosedEvent event) {
-        LOG.debug("ContextClosedEvent {} fallback shutdown {}", event, timeout);
-        JvmFallbackShutdown.fallbackTerminate(timeout);
+        LOG.debug("ContextClosedEvent {} fallback shutdown {}", event, closeTimeout);
+        JvmFallbackShutdown.fallbackTerminate(closeTimeout);
     }
 
     static class FallbackShutdownExitInterceptor implements ExitCodeGenerator {
+        @Value("${" + FALLBACK_TIMEOUT_PROPERTY + ":PT30S}")
+        private Duration closeTimeout = timeout;
+
         @Override
         public int getExitCode() {
-            LOG.info("SpringApplication exit hook fallback shutdown {}", timeout);
-            JvmFallbackShutdown.fallbackTerminate(timeout);
+            LOG.info("SpringApplication exit hook fallback shutdown {}", closeTimeout);
+            JvmFallbackShutdown.fallbackTerminate(closeTimeout);
             return 0;
         }
     }
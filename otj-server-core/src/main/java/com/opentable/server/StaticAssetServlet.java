@@ -0,0 +1,408 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.UnavailableException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.http.QuotedQualityCSV;
+import org.eclipse.jetty.server.HttpOutput;
+import org.eclipse.jetty.servlet.DefaultServlet;
+import org.eclipse.jetty.util.URIUtil;
+import org.eclipse.jetty.util.resource.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link DefaultServlet} that serves the static tree from memory.
+ * <p>
+ * At startup every file under the static path is read once into a direct buffer, given a strong content based ETag
+ * and, for compressible types, a gzip variant. Pre-built {@code .br} and {@code .gz} siblings are picked up as
+ * variants too. Files larger than {@code maxFileSize}, and their pre-built siblings, are memory mapped if they live on
+ * the file system. Hits are answered without resolving a {@link Resource} and the buffers are handed to Jetty as they
+ * are. Range requests and anything that wasn't cached fall through to the {@link DefaultServlet}, which is configured
+ * to negotiate the same pre-built siblings.
+ * <p>
+ * The index is built in {@link #init()}, so the servlet is registered to load on startup.
+ */
+class StaticAssetServlet extends DefaultServlet {
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOG = LoggerFactory.getLogger(StaticAssetServlet.class);
+
+    static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+    private static final String GZIP = "gzip";
+    private static final String BROTLI = "br";
+    private static final int MIN_COMPRESSIBLE_SIZE = 256;
+    // Don't keep a variant unless it saves at least this fraction
+    private static final double MIN_COMPRESSION_SAVING = 0.1;
+    private static final int ETAG_HASH_BYTES = 16;
+
+    private final String staticPath;
+    private final long maxSize;
+    private final long maxFileSize;
+    private final Pattern immutablePattern;
+
+    private transient Map<String, Asset> assets = ImmutableMap.of();
+    private transient long cachedBytes;
+    private transient long mappedBytes;
+
+    /**
+     * @param staticPath the static path, e.g. {@code /static/}, as seen both on the classpath and in requests
+     * @param maxSize maximum bytes held in memory across all files and variants
+     * @param maxFileSize files larger than this are memory mapped, or left to the default servlet if not on disk
+     * @param immutablePattern file names matching are fingerprinted and served as immutable
+     */
+    StaticAssetServlet(String staticPath, long maxSize, long maxFileSize, Pattern immutablePattern) {
+        this.staticPath = staticPath;
+        this.maxSize = maxSize;
+        this.maxFileSize = maxFileSize;
+        this.immutablePattern = immutablePattern;
+    }
+
+    @Override
+    public void init() throws UnavailableException {
+        super.init();
+        final Map<String, Asset> index = new HashMap<>();
+        try (Resource root = Resource.newClassPathResource(staticPath)) {
+            if (root != null) {
+                index(root, staticPath, index);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to index static resources under " + staticPath, e);
+        }
+        assets = ImmutableMap.copyOf(index);
+        LOG.info("Cached {} static files, {} bytes in memory and {} bytes mapped", assets.size(), cachedBytes, mappedBytes);
+    }
+
+    private void index(Resource directory, String path, Map<String, Asset> index) throws IOException {
+        final String[] children = directory.list();
+        if (children == null) {
+            return;
+        }
+        final Set<String> names = new HashSet<>(Arrays.asList(children));
+        for (final String name : children) {
+            final Resource child = directory.addPath(name);
+            if (child.isDirectory()) {
+                index(child, URIUtil.addPaths(path, name), index);
+                continue;
+            }
+            final String base = precompressedBase(name);
+            if (base != null && names.contains(base)) {
+                // Loaded as a variant of its base file
+                continue;
+            }
+            final String pathInContext = URIUtil.addPaths(path, name);
+            final Asset asset = load(child, name, directory, names);
+            if (asset == null) {
+                LOG.debug("Not caching {}, left to the default servlet", pathInContext);
+            } else {
+                index.put(pathInContext, asset);
+            }
+        }
+    }
+
+    private static String precompressedBase(String name) {
+        if (name.endsWith("." + BROTLI)) {
+            return name.substring(0, name.length() - BROTLI.length() - 1);
+        }
+        if (name.endsWith(".gz")) {
+            return name.substring(0, name.length() - 3);
+        }
+        return null;
+    }
+
+    private Asset load(Resource resource, String name, Resource directory, Set<String> names) throws IOException {
+        final long length = resource.length();
+        final ByteBuffer content;
+        if (length > maxFileSize) {
+            content = map(resource);
+            if (content == null) {
+                return null;
+            }
+        } else {
+            if (cachedBytes + length > maxSize) {
+                return null;
+            }
+            content = direct(read(resource));
+        }
+
+        final String etag = etag(content);
+        final String contentType = getServletContext().getMimeType(name);
+        final Variant identity = new Variant(content, '"' + etag + '"', null);
+
+        Variant br = null;
+        Variant gzip = null;
+        if (names.contains(name + "." + BROTLI)) {
+            br = precompressed(directory.addPath(name + "." + BROTLI), length, etag, BROTLI);
+        }
+        if (names.contains(name + ".gz")) {
+            gzip = precompressed(directory.addPath(name + ".gz"), length, etag, GZIP);
+        } else if (length <= maxFileSize && length >= MIN_COMPRESSIBLE_SIZE && compressible(contentType)) {
+            gzip = variant(gzip(content), length, etag, GZIP);
+        }
+
+        final String cacheControl = immutablePattern.matcher(name).matches() ? IMMUTABLE_CACHE_CONTROL : null;
+        return new Asset(contentType, resource.lastModified(), cacheControl, identity, br, gzip);
+    }
+
+    private Variant precompressed(Resource resource, long length, String etag, String encoding) throws IOException {
+        final long encodedLength = resource.length();
+        if (encodedLength <= maxFileSize) {
+            return variant(read(resource), length, etag, encoding);
+        }
+        // Large pre-built variants are mapped like their base file
+        if (encodedLength > length * (1 - MIN_COMPRESSION_SAVING)) {
+            return null;
+        }
+        final ByteBuffer encoded = map(resource);
+        return encoded == null ? null : new Variant(encoded, '"' + etag + "--" + encoding + '"', encoding);
+    }
+
+    private Variant variant(byte[] encoded, long length, String etag, String encoding) {
+        if (encoded.length > length * (1 - MIN_COMPRESSION_SAVING) || cachedBytes + encoded.length > maxSize) {
+            return null;
+        }
+        return new Variant(direct(encoded), '"' + etag + "--" + encoding + '"', encoding);
+    }
+
+    private ByteBuffer map(Resource resource) throws IOException {
+        final File file = resource.getFile();
+        if (file == null) {
+            return null;
+        }
+        final ByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        mappedBytes += mapped.remaining();
+        return mapped;
+    }
+
+    private ByteBuffer direct(byte[] bytes) {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        cachedBytes += bytes.length;
+        return buffer.asReadOnlyBuffer();
+    }
+
+    private static byte[] read(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] gzip(ByteBuffer content) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(content.remaining() / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            final ByteBuffer source = content.duplicate();
+            final byte[] chunk = new byte[8192];
+            while (source.hasRemaining()) {
+                final int n = Math.min(chunk.length, source.remaining());
+                source.get(chunk, 0, n);
+                gzip.write(chunk, 0, n);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static String etag(ByteBuffer content) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(content.duplicate());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest.digest(), ETAG_HASH_BYTES));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean compressible(String contentType) {
+        return contentType != null && (contentType.startsWith("text/")
+                || contentType.contains("javascript")
+                || contentType.contains("json")
+                || contentType.contains("xml")
+                || contentType.equals("application/wasm"));
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        final Asset asset = request.getHeader(HttpHeader.RANGE.asString()) == null
+                ? assets.get(URIUtil.addPaths(request.getServletPath(), request.getPathInfo()))
+                : null;
+        if (asset == null) {
+            super.doGet(request, response);
+            return;
+        }
+
+        final Variant variant = asset.select(request.getHeader(HttpHeader.ACCEPT_ENCODING.asString()));
+        response.setHeader(HttpHeader.ETAG.asString(), variant.etag);
+        if (asset.hasVariants()) {
+            response.setHeader(HttpHeader.VARY.asString(), HttpHeader.ACCEPT_ENCODING.asString());
+        }
+        if (asset.cacheControl != null) {
+            response.setHeader(HttpHeader.CACHE_CONTROL.asString(), asset.cacheControl);
+        }
+        if (asset.lastModified > 0) {
+            response.setDateHeader(HttpHeader.LAST_MODIFIED.asString(), asset.lastModified);
+        }
+        if (notModified(request, asset)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        if (asset.contentType != null) {
+            response.setContentType(asset.contentType);
+        }
+        if (variant.encoding != null) {
+            response.setHeader(HttpHeader.CONTENT_ENCODING.asString(), variant.encoding);
+        }
+        response.setContentLengthLong(variant.content.remaining());
+        if (HttpMethod.HEAD.is(request.getMethod())) {
+            return;
+        }
+
+        final ServletOutputStream out = response.getOutputStream();
+        if (out instanceof HttpOutput) {
+            ((HttpOutput) out).sendContent(variant.content.duplicate());
+        } else {
+            // Response wrapped by a filter, copy through it
+            final ByteBuffer source = variant.content.duplicate();
+            final byte[] chunk = new byte[Math.min(8192, source.remaining())];
+            while (source.hasRemaining()) {
+                final int n = Math.min(chunk.length, source.remaining());
+                source.get(chunk, 0, n);
+                out.write(chunk, 0, n);
+            }
+        }
+    }
+
+    private static boolean notModified(HttpServletRequest request, Asset asset) {
+        final String ifNoneMatch = request.getHeader(HttpHeader.IF_NONE_MATCH.asString());
+        if (ifNoneMatch != null) {
+            for (final String candidate : ifNoneMatch.split(",")) {
+                final String tag = candidate.trim();
+                if ("*".equals(tag) || asset.matches(tag.startsWith("W/") ? tag.substring(2) : tag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (asset.lastModified <= 0) {
+            return false;
+        }
+        try {
+            final long ifModifiedSince = request.getDateHeader(HttpHeader.IF_MODIFIED_SINCE.asString());
+            return ifModifiedSince >= 0 && asset.lastModified / 1000 <= ifModifiedSince / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    int getCachedFileCount() {
+        return assets.size();
+    }
+
+    long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    private static final class Asset {
+        private final String contentType;
+        private final long lastModified;
+        private final String cacheControl;
+        private final Variant identity;
+        private final Variant br;
+        private final Variant gzip;
+
+        Asset(String contentType, long lastModified, String cacheControl, Variant identity, Variant br, Variant gzip) {
+            this.contentType = contentType;
+            this.lastModified = lastModified;
+            this.cacheControl = cacheControl;
+            this.identity = identity;
+            this.br = br;
+            this.gzip = gzip;
+        }
+
+        boolean hasVariants() {
+            return br != null || gzip != null;
+        }
+
+        boolean matches(String etag) {
+            return identity.etag.equals(etag)
+                    || (br != null && br.etag.equals(etag))
+                    || (gzip != null && gzip.etag.equals(etag));
+        }
+
+        Variant select(String acceptEncoding) {
+            if (acceptEncoding == null || !hasVariants()) {
+                return identity;
+            }
+            final QuotedQualityCSV accepted = new QuotedQualityCSV();
+            accepted.addValue(acceptEncoding);
+            // Ordered by preference, anything with q=0 already removed
+            for (final String encoding : accepted) {
+                if (BROTLI.equalsIgnoreCase(encoding) && br != null) {
+                    return br;
+                }
+                if (GZIP.equalsIgnoreCase(encoding) && gzip != null) {
+                    return gzip;
+                }
+                if ("identity".equalsIgnoreCase(encoding)) {
+                    return identity;
+                }
+                if ("*".equals(encoding)) {
+                    return br != null ? br : gzip;
+                }
+            }
+            return identity;
+        }
+    }
+
+    private static final class Variant {
+        private final ByteBuffer content;
+        private final String etag;
+        private final String encoding;
+
+        Variant(ByteBuffer content, String etag, String encoding) {
+            this.content = content;
+            this.etag = etag;
+            this.encoding = encoding;
+        }
+    }
+}
@@ -13,6 +13,8 @@
  */
 package com.opentable.server;
 
+import java.util.regex.Pattern;
+
 import javax.inject.Inject;
 
 import org.apache.commons.lang3.StringUtils;
@@ -24,6 +26,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.ServletRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
@@ -38,6 +41,30 @@ public class StaticResourceConfiguration {
 
     private final String staticPathName;
 
+    /**
+     * cacheEnabled - serve the static tree from an in-memory, precompressed cache built at startup
+     */
+    @Value("${ot.httpserver.static-cache.enabled:false}")
+    private boolean cacheEnabled;
+
+    /**
+     * cacheMaxSize - memory held by the cache across all files and compressed variants
+     */
+    @Value("${ot.httpserver.static-cache.max-size:64MB}")
+    private DataSize cacheMaxSize;
+
+    /**
+     * cacheMaxFileSize - larger files are memory mapped if on disk, otherwise served uncached
+     */
+    @Value("${ot.httpserver.static-cache.max-file-size:2MB}")
+    private DataSize cacheMaxFileSize;
+
+    /**
+     * immutablePattern - file names considered fingerprinted, served with an immutable Cache-Control
+     */
+    @Value("${ot.httpserver.static-cache.immutable-pattern:.+[.-][0-9a-fA-F]{8,}(\\.[a-zA-Z0-9]+)+}")
+    private String immutablePattern;
+
     @Inject
     StaticResourceConfiguration(@Value(PATH_CONFIG_VALUE) final String staticPathName) {
         this.staticPathName = staticPathName;
@@ -65,11 +92,18 @@ public class StaticResourceConfiguration {
                 return servletRegistrationBean;
             }
 
-            DefaultServlet servlet = new DefaultServlet();
+            DefaultServlet servlet = cacheEnabled
+                    ? new StaticAssetServlet(staticPath(), cacheMaxSize.toBytes(), cacheMaxFileSize.toBytes(), Pattern.compile(immutablePattern))
+                    : new DefaultServlet();
             ServletRegistrationBean<DefaultServlet> bean = new ServletRegistrationBean<>(servlet, staticPath() + "*");
             bean.addInitParameter("gzip", "true");
             bean.addInitParameter("etags", "true");
             bean.addInitParameter("resourceBase", StringUtils.substringBeforeLast(rsrc.toString(), staticPathName));
+            if (cacheEnabled) {
+                // Index before the first request, and serve pre-built siblings of uncached files too
+                bean.setLoadOnStartup(1);
+                bean.addInitParameter("precompressed", "br=.br,gzip=.gz");
+            }
             LOG.debug("Configuring static resources: {}", bean.getInitParameters());
             return bean;
         }
@@ -14,6 +14,7 @@
 package com.opentable.server;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
 
 import javax.servlet.Filter;
@@ -26,6 +27,7 @@ import javax.servlet.http.HttpServletRequest;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Condition;
@@ -61,9 +63,58 @@ public class ThreadNameFilterConfiguration {
 
         private static final Logger LOG = LoggerFactory.getLogger(ThreadNameFilterConfiguration.ThreadNameFilter.class);
 
+        static final String FULL_MODE = "full";
+        static final String FAST_MODE = "fast";
+
+        private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+        /**
+         * mode - "full" formats the current instant into every name, "fast" reuses a per thread builder and a
+         * timestamp refreshed at most every timestampResolution
+         */
+        @Value("${ot.server.thread-name-filter.mode:" + FULL_MODE + "}")
+        private String mode;
+
+        /**
+         * timestampResolution - how stale the timestamp may be in fast mode
+         */
+        @Value("${ot.server.thread-name-filter.timestamp-resolution:PT0.01S}")
+        private Duration timestampResolution;
+
+        /**
+         * maxUriLength - in fast mode, longer request URIs are cut to this length (0 or less means never)
+         */
+        @Value("${ot.server.thread-name-filter.max-uri-length:256}")
+        private int maxUriLength;
+
+        private boolean fast;
+        private long resolutionMillis;
+        private volatile CachedTimestamp timestamp = new CachedTimestamp(0, "");
+
+        public ThreadNameFilter() {
+            this(FULL_MODE, Duration.ofMillis(10), 256);
+        }
+
+        ThreadNameFilter(String mode, Duration timestampResolution, int maxUriLength) {
+            this.mode = mode;
+            this.timestampResolution = timestampResolution;
+            this.maxUriLength = maxUriLength;
+        }
+
         @Override
         public void init(FilterConfig filterConfig) {
-            LOG.info("Thread name tracking enabled.");
+            switch (mode) {
+                case FULL_MODE:
+                    fast = false;
+                    break;
+                case FAST_MODE:
+                    fast = true;
+                    resolutionMillis = Math.max(1, timestampResolution.toMillis());
+                    break;
+                default:
+                    throw new UnsupportedOperationException("Unknown thread name filter mode '" + mode + "'");
+            }
+            LOG.info("Thread name tracking enabled, mode {}.", mode);
         }
 
         @Override
@@ -73,8 +124,7 @@ public class ThreadNameFilterConfiguration {
             final String name = Thread.currentThread().getName();
             try {
                 try {
-                    Thread.currentThread()
-                        .setName(String.format("%s:%s", Instant.now().toString(), req.getRequestURI()));
+                    Thread.currentThread().setName(threadName(req.getRequestURI()));
                 } finally {
                     chain.doFilter(request, response);
                 }
@@ -83,10 +133,46 @@ public class ThreadNameFilterConfiguration {
             }
         }
 
+        String threadName(String requestUri) {
+            if (!fast) {
+                return String.format("%s:%s", Instant.now().toString(), requestUri);
+            }
+            final StringBuilder builder = BUILDER.get();
+            builder.setLength(0);
+            builder.append(timestamp()).append(':');
+            if (maxUriLength > 0 && requestUri != null && requestUri.length() > maxUriLength) {
+                builder.append(requestUri, 0, maxUriLength).append("...");
+            } else {
+                builder.append(requestUri);
+            }
+            return builder.toString();
+        }
+
+        private String timestamp() {
+            final long now = System.currentTimeMillis();
+            CachedTimestamp cached = timestamp;
+            if (now - cached.millis >= resolutionMillis) {
+                // Racing threads may both format, either result is fine
+                cached = new CachedTimestamp(now, Instant.ofEpochMilli(now).toString());
+                timestamp = cached;
+            }
+            return cached.formatted;
+        }
+
         @Override
         public void destroy() {
 
         }
+
+        private static final class CachedTimestamp {
+            private final long millis;
+            private final String formatted;
+
+            CachedTimestamp(long millis, String formatted) {
+                this.millis = millis;
+                this.formatted = formatted;
+            }
+        }
     }
 
 }
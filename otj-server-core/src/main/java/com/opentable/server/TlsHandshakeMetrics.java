@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.net.ssl.SSLSession;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+
+import org.eclipse.jetty.io.ssl.SslHandshakeListener;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+
+/**
+ * Counts full, resumed and failed TLS handshakes for one connector, shared by all of its listeners.
+ * <p>
+ * A handshake counts as resumed when its session was created before the connection was opened, which is the case
+ * for sessions found in the server session cache as well as for ones restored from a session ticket.
+ * <p>
+ * Metrics are named {@code http-server.tls.<connector>.full-handshakes},
+ * {@code http-server.tls.<connector>.resumed-handshakes} and {@code http-server.tls.<connector>.failed-handshakes}.
+ */
+@ManagedObject("TLS handshakes of one connector")
+public class TlsHandshakeMetrics {
+    static final String PREFIX = "http-server.tls";
+
+    private final String connector;
+    private final LongAdder full = new LongAdder();
+    private final LongAdder resumed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Optional<Meter> fullMeter;
+    private final Optional<Meter> resumedMeter;
+    private final Optional<Meter> failedMeter;
+
+    TlsHandshakeMetrics(String connector, Optional<MetricRegistry> registry) {
+        this.connector = connector;
+        final String prefix = MetricRegistry.name(PREFIX, RouteMetricsHandler.sanitize(connector));
+        this.fullMeter = registry.map(r -> r.meter(MetricRegistry.name(prefix, "full-handshakes")));
+        this.resumedMeter = registry.map(r -> r.meter(MetricRegistry.name(prefix, "resumed-handshakes")));
+        this.failedMeter = registry.map(r -> r.meter(MetricRegistry.name(prefix, "failed-handshakes")));
+    }
+
+    /**
+     * @param connectionCreated when the connection was opened, in {@link System#currentTimeMillis()} terms
+     * @return a listener for the handshake of one connection
+     */
+    SslHandshakeListener listener(long connectionCreated) {
+        return new SslHandshakeListener() {
+            @Override
+            public void handshakeSucceeded(Event event) {
+                final SSLSession session = event.getSSLEngine().getSession();
+                if (session != null && session.getCreationTime() < connectionCreated) {
+                    resumed.increment();
+                    resumedMeter.ifPresent(Meter::mark);
+                } else {
+                    full.increment();
+                    fullMeter.ifPresent(Meter::mark);
+                }
+            }
+
+            @Override
+            public void handshakeFailed(Event event, Throwable failure) {
+                failed.increment();
+                failedMeter.ifPresent(Meter::mark);
+            }
+        };
+    }
+
+    @ManagedAttribute("connector these handshakes were made on")
+    public String getConnector() {
+        return connector;
+    }
+
+    @ManagedAttribute("handshakes that created a new session")
+    public long getFullHandshakes() {
+        return full.sum();
+    }
+
+    @ManagedAttribute("handshakes that resumed an earlier session")
+    public long getResumedHandshakes() {
+        return resumed.sum();
+    }
+
+    @ManagedAttribute("handshakes that failed")
+    public long getFailedHandshakes() {
+        return failed.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "TlsHandshakeMetrics{" +
+                "connector='" + connector + '\'' +
+                ", full=" + full.sum() +
+                ", resumed=" + resumed.sum() +
+                ", failed=" + failed.sum() +
+                '}';
+    }
+}
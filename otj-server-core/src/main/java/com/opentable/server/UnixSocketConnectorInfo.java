@@ -0,0 +1,48 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.nio.file.Path;
+
+import com.opentable.server.HttpServerInfo.ConnectorInfo;
+
+class UnixSocketConnectorInfo implements ConnectorInfo {
+    private final String name;
+    private final Path path;
+
+    UnixSocketConnectorInfo(String name, Path path) {
+        this.name = name;
+        this.path = path;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getPort() {
+        return -1;
+    }
+
+    @Override
+    public String getUnixSocketPath() {
+        return path.toString();
+    }
+
+    @Override
+    public String getProtocol() {
+        return EmbeddedJettyBase.UNIX_PROTOCOL;
+    }
+}
@@ -24,10 +24,47 @@ import org.springframework.core.type.AnnotatedTypeMetadata;
 public class WireBackendInfo implements Condition {
 
     public static final String OT_SERVER_BACKEND_INFO_ENABLED = "ot.server.backend.info.enabled";
+    public static final String OT_SERVER_BACKEND_INFO_MODE = "ot.server.backend.info.mode";
+    /**
+     * Headers are pre-encoded once and added by every connector, before the request reaches any handler.
+     */
+    public static final String CONNECTOR_MODE = "connector";
+    /**
+     * Headers are added per request by a servlet filter or WebFlux filter.
+     */
+    public static final String FILTER_MODE = "filter";
     private static final String DEFAULT_VALUE = "true";
 
     @Override
     public boolean matches(ConditionContext conditionContext, AnnotatedTypeMetadata annotatedTypeMetadata) {
         return Boolean.parseBoolean(conditionContext.getEnvironment().getProperty(OT_SERVER_BACKEND_INFO_ENABLED, DEFAULT_VALUE));
     }
+
+    static String mode(ConditionContext conditionContext) {
+        final String mode = conditionContext.getEnvironment().getProperty(OT_SERVER_BACKEND_INFO_MODE, CONNECTOR_MODE);
+        if (!CONNECTOR_MODE.equals(mode) && !FILTER_MODE.equals(mode)) {
+            throw new UnsupportedOperationException("Unknown backend info mode '" + mode + "'");
+        }
+        return mode;
+    }
+
+    /**
+     * Backend info is enabled and added at the connector level.
+     */
+    public static class ConnectorMode extends WireBackendInfo {
+        @Override
+        public boolean matches(ConditionContext conditionContext, AnnotatedTypeMetadata annotatedTypeMetadata) {
+            return super.matches(conditionContext, annotatedTypeMetadata) && CONNECTOR_MODE.equals(mode(conditionContext));
+        }
+    }
+
+    /**
+     * Backend info is enabled and added by filters.
+     */
+    public static class FilterMode extends WireBackendInfo {
+        @Override
+        public boolean matches(ConditionContext conditionContext, AnnotatedTypeMetadata annotatedTypeMetadata) {
+            return super.matches(conditionContext, annotatedTypeMetadata) && FILTER_MODE.equals(mode(conditionContext));
+        }
+    }
 }
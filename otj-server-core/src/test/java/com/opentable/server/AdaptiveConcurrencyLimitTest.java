@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AdaptiveConcurrencyLimitTest {
+    private static final long BASE_RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    public void growsWhileLatencyIsStable() {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 1000, 1.0);
+        limit.onSample(BASE_RTT, 20, false);
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(BASE_RTT, limit.getLimit(), false);
+        }
+        Assert.assertTrue("limit " + limit.getLimit(), limit.getLimit() > 20);
+    }
+
+    @Test
+    public void shrinksWhenLatencyClimbs() {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(100, 1, 1000, 1.0);
+        limit.onSample(BASE_RTT, 100, false);
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(BASE_RTT * 4, limit.getLimit(), false);
+        }
+        Assert.assertTrue("limit " + limit.getLimit(), limit.getLimit() < 100);
+    }
+
+    @Test
+    public void shrinksOnDrops() {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 1, 1000, 1.0);
+        limit.onSample(BASE_RTT, 50, false);
+        limit.onSample(BASE_RTT, 50, true);
+        Assert.assertTrue("limit " + limit.getLimit(), limit.getLimit() < 50);
+    }
+
+    @Test
+    public void ignoresApplicationLimitedSamples() {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 1, 1000, 1.0);
+        limit.onSample(BASE_RTT, 1, false);
+        limit.onSample(BASE_RTT * 10, 1, false);
+        Assert.assertEquals(50, limit.getLimit());
+    }
+
+    @Test
+    public void staysWithinBounds() {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 8, 12, 1.0);
+        limit.onSample(BASE_RTT, 10, false);
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(BASE_RTT, limit.getLimit(), false);
+        }
+        Assert.assertEquals(12, limit.getLimit());
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(BASE_RTT, limit.getLimit(), true);
+        }
+        Assert.assertEquals(8, limit.getLimit());
+    }
+}
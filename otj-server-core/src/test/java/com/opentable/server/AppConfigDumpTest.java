@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class
+})
+@TestPropertySource(properties = {
+        "test.config-dump.b=2",
+        "test.config-dump.a=1",
+        "test.config-dump.c=x,y",
+        "ot.server.config-log.prefixes=test.config-dump.",
+        "ot.server.config-log.max-size=100",
+})
+public class AppConfigDumpTest {
+    @Inject
+    private AppConfigDump dump;
+
+    @Test
+    public void testLoggedInBackground() throws Exception {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!dump.isLogged() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(dump.isLogged());
+    }
+
+    @Test
+    public void testConfiguredPrefixes() {
+        Assert.assertEquals("test.config-dump.a=1\n    test.config-dump.b=2\n    test.config-dump.c=x,y",
+                dump.dumpConfig(""));
+    }
+
+    @Test
+    public void testRequestedPrefixes() {
+        Assert.assertEquals("ot.server.config-log.max-size=100\n    ot.server.config-log.prefixes=test.config-dump.",
+                dump.dumpConfig("ot.server.config-log., nothing.here"));
+    }
+
+    @Test
+    public void testMaxSize() {
+        Assert.assertEquals("test.config-dump.a=1\n    ... 2 more properties",
+                dump.dump(List.of("test.config-dump."), 30));
+    }
+}
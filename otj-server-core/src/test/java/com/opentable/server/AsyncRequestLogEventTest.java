@@ -0,0 +1,143 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.server.handler.RequestLogHandler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.opentable.httpheaders.OTHeaders;
+import com.opentable.logging.jetty.JsonRequestLogConfig;
+import com.opentable.logging.jetty.RequestLogEvent;
+import com.opentable.logging.otl.HttpV1;
+
+// The events built by the writer thread must match what the synchronous log builds for the same request
+public class AsyncRequestLogEventTest {
+
+    // Differ between any two events, or depend on when they were built
+    private static final String[] UNSTABLE_FIELDS = { "uuid", "timestamp", "duration" };
+
+    private final RecordingRequestLog requestLog = new RecordingRequestLog();
+    private Server server;
+    private LocalConnector connector;
+
+    @Before
+    public void start() throws Exception {
+        server = new Server();
+        connector = new LocalConnector(server);
+        server.addConnector(connector);
+        final RequestLogHandler logHandler = new RequestLogHandler();
+        logHandler.setRequestLog(requestLog);
+        logHandler.setHandler(new AbstractHandler() {
+            @Override
+            public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException {
+                baseRequest.setHandled(true);
+                response.setStatus(HttpServletResponse.SC_CREATED);
+                response.setHeader(OTHeaders.REQUEST_ID, UUID.randomUUID().toString());
+                response.getOutputStream().write("created".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.setHandler(logHandler);
+        server.start();
+    }
+
+    @After
+    public void stop() throws Exception {
+        server.stop();
+    }
+
+    @Test(timeout = 10_000)
+    public void matchesSynchronousEvent() throws Exception {
+        connector.getResponse("POST /drift/check?a=1&b=two HTTP/1.1\r\n" +
+                "Host: drift.example\r\n" +
+                "Accept: application/json\r\n" +
+                "Accept-Language: en-GB\r\n" +
+                "User-Agent: drift-test\r\n" +
+                "Referer: http://referer.example/\r\n" +
+                "X-Forwarded-For: 10.0.0.1\r\n" +
+                "X-Forwarded-Port: 443\r\n" +
+                "X-Forwarded-Proto: https\r\n" +
+                OTHeaders.CORRELATION_ID + ": correlation\r\n" +
+                OTHeaders.ANONYMOUS_ID + ": anonymous\r\n" +
+                OTHeaders.SESSION_ID + ": session\r\n" +
+                OTHeaders.USER_ID + ": user\r\n" +
+                OTHeaders.REFERRING_HOST + ": referring-host\r\n" +
+                OTHeaders.REFERRING_SERVICE + ": referring-service\r\n" +
+                OTHeaders.REFERRING_ENV + ": referring-env\r\n" +
+                OTHeaders.ORIGINAL_URI + ": /original\r\n" +
+                OTHeaders.ACTUAL_HOST + ": actual-host\r\n" +
+                OTHeaders.DOMAIN + ": domain.example\r\n" +
+                "Content-Length: 4\r\n" +
+                "Connection: close\r\n" +
+                "\r\n" +
+                "body");
+        while (requestLog.getWritten() < 1) {
+            Thread.sleep(10);
+        }
+
+        Assert.assertEquals(1, requestLog.synchronous.size());
+        Assert.assertEquals(1, requestLog.sent.size());
+        final HttpV1 expected = requestLog.synchronous.get(0).getPayload();
+        final HttpV1 actual = requestLog.sent.get(0).getPayload();
+        Assert.assertTrue("expected " + describe(expected) + " but was " + describe(actual),
+                EqualsBuilder.reflectionEquals(expected, actual, false, null, UNSTABLE_FIELDS));
+    }
+
+    private static String describe(HttpV1 payload) {
+        return ToStringBuilder.reflectionToString(payload, ToStringStyle.SHORT_PREFIX_STYLE);
+    }
+
+    private static final class RecordingRequestLog extends AsyncJsonRequestLog {
+        private final List<RequestLogEvent> synchronous = new CopyOnWriteArrayList<>();
+        private final List<RequestLogEvent> sent = new CopyOnWriteArrayList<>();
+
+        RecordingRequestLog() {
+            super(Clock.systemUTC(), mock(JsonRequestLogConfig.class), 16, 16, OverflowPolicy.BLOCK);
+        }
+
+        @Override
+        public void log(Request request, Response response) {
+            // What the synchronous log would have built, from the same request and response
+            synchronous.add(createEvent(request, response));
+            super.log(request, response);
+        }
+
+        @Override
+        protected void sendEvent(RequestLogEvent event) {
+            sent.add(event);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import javax.inject.Inject;
+
+import org.eclipse.jetty.server.Server;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class
+})
+@TestPropertySource(properties = {
+        "ot.httpserver.request-log.async.enabled=true",
+        "ot.httpserver.request-log.async.buffer-size=100",
+})
+// Verify the asynchronous request log is installed and its writer drains what requests capture
+public class AsyncRequestLogTest {
+
+    @Inject
+    private Server server;
+
+    @Inject
+    private AsyncJsonRequestLog requestLog;
+
+    @Inject
+    private LoopbackRequest request;
+
+    private final TestRestTemplate client = new TestRestTemplate();
+
+    @Test(timeout = 10_000)
+    public void test() throws InterruptedException {
+        Assert.assertTrue(server.getContainedBeans(AsyncJsonRequestLog.class).contains(requestLog));
+        Assert.assertEquals(128, requestLog.getCapacity());
+        Assert.assertTrue(requestLog.isRunning());
+
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(TestServerConfiguration.HELLO_WORLD, client.getForObject(request.of("/hello"), String.class));
+        }
+        while (requestLog.getWritten() < 5) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, requestLog.getDropped());
+        Assert.assertEquals(0, requestLog.getFailed());
+        Assert.assertEquals(0, requestLog.getPending());
+    }
+}
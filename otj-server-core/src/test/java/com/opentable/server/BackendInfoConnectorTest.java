@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import javax.inject.Inject;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class
+})
+@TestPropertySource(properties = {
+        "OT_BUILD_TAG=some-service-3.14",
+        "INSTANCE_NO=3",
+        "TASK_HOST=mesos-slave9001-dev-sf.qasql.opentable.com",
+})
+// Backend info headers are added once by the connector, even to responses no servlet handled
+public class BackendInfoConnectorTest {
+
+    @Inject
+    private LoopbackRequest request;
+
+    private final TestRestTemplate client = new TestRestTemplate();
+
+    @Test
+    public void test() {
+        final ResponseEntity<String> response = client.getForEntity(request.of("/hello"), String.class);
+        Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertBackendInfo(response.getHeaders());
+    }
+
+    @Test
+    public void notFound() {
+        final ResponseEntity<String> response = client.getForEntity(request.of("/does-not-exist"), String.class);
+        Assert.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertBackendInfo(response.getHeaders());
+    }
+
+    private static void assertBackendInfo(HttpHeaders headers) {
+        Assert.assertEquals(1, headers.get(BackendInfoFilterBaseConfiguration.HEADER_PREFIX + "Build-Tag").size());
+        Assert.assertEquals("some-service-3.14", headers.getFirst(BackendInfoFilterBaseConfiguration.HEADER_PREFIX + "Build-Tag"));
+        Assert.assertEquals("3", headers.getFirst(BackendInfoFilterBaseConfiguration.HEADER_PREFIX + "Instance-No"));
+        Assert.assertEquals("mesos-slave9001-dev-sf.qasql.opentable.com", headers.getFirst(BackendInfoFilterBaseConfiguration.HEADER_PREFIX + "Task-Host"));
+    }
+}
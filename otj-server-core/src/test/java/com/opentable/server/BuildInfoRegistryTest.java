@@ -0,0 +1,55 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.util.FileSystemUtils;
+
+public class BuildInfoRegistryTest {
+    @Test
+    public void testScan() throws Exception {
+        final Path app = manifest("Implementation-Title: test-app\nImplementation-Version: 1.2.3\n" + BuildInfoRegistry.COMMIT + ": abc123\n");
+        final Path noInfo = manifest("Created-By: test\n");
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { app.toUri().toURL(), noInfo.toUri().toURL() }, null)) {
+            final BuildInfoRegistry registry = new BuildInfoRegistry(loader);
+            final List<BuildInfoRegistry.BuildInfo> all = registry.getAll();
+            Assert.assertEquals(1, all.size());
+            final BuildInfoRegistry.BuildInfo info = registry.find("test-app").orElseThrow(AssertionError::new);
+            Assert.assertEquals("1.2.3", info.getVersion());
+            Assert.assertEquals("abc123", info.getCommit());
+            Assert.assertTrue(info.getSource(), info.getSource().startsWith(app.toUri().toURL().toString()));
+            Assert.assertFalse(registry.find("other").isPresent());
+            // Scanned once
+            Assert.assertSame(all, registry.getAll());
+        } finally {
+            FileSystemUtils.deleteRecursively(app);
+            FileSystemUtils.deleteRecursively(noInfo);
+        }
+    }
+
+    private static Path manifest(String attributes) throws Exception {
+        final Path dir = Files.createTempDirectory("build-info-test");
+        Files.createDirectories(dir.resolve("META-INF"));
+        Files.write(dir.resolve("META-INF/MANIFEST.MF"), ("Manifest-Version: 1.0\n" + attributes).getBytes(StandardCharsets.UTF_8));
+        return dir;
+    }
+}
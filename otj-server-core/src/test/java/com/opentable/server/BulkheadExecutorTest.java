@@ -0,0 +1,216 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.codahale.metrics.MetricRegistry;
+
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class,
+        BulkheadExecutorTest.SlowConfiguration.class
+})
+@TestPropertySource(properties = {
+        "ot.httpserver.active-connectors=default-http,public-http",
+        "ot.httpserver.connector.public-http.port=0",
+        "ot.httpserver.connector.public-http.executorThreads=6",
+        "ot.httpserver.connector.public-http.acceptors=1",
+        "ot.httpserver.connector.public-http.selectors=1",
+})
+// A connector with its own pool can be saturated without starving the others
+public class BulkheadExecutorTest {
+    private static final CountDownLatch RELEASE = new CountDownLatch(1);
+
+    @Inject
+    private Server server;
+
+    @Inject
+    private HttpServerInfo info;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    private final ExecutorService clients = Executors.newFixedThreadPool(10);
+
+    @After
+    public void after() {
+        RELEASE.countDown();
+        clients.shutdownNow();
+    }
+
+    @Test
+    public void testBulkhead() throws Exception {
+        final Connector publicHttp = Arrays.stream(server.getConnectors())
+                .filter(c -> "public-http".equals(c.getName()))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+        Assert.assertTrue(publicHttp.getExecutor() instanceof ConnectorThreadPool);
+        final ConnectorThreadPool pool = (ConnectorThreadPool) publicHttp.getExecutor();
+        Assert.assertTrue(pool.isStarted());
+        Assert.assertEquals(6, pool.getMaxThreads());
+        Assert.assertNotSame(server.getThreadPool(), pool);
+        Assert.assertSame(server.getThreadPool(), server.getConnectors()[0].getExecutor());
+        Assert.assertTrue(metricRegistry.getGauges().containsKey("http-server.executors.public-http.busy-threads"));
+
+        // Tie up every worker of the public connector, and then some
+        final int publicPort = info.getConnectors().get("public-http").getPort();
+        final List<CompletableFuture<Integer>> slow = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            slow.add(CompletableFuture.supplyAsync(() -> status(publicPort, "/slow"), clients));
+        }
+        for (int i = 0; i < 500 && pool.getQueueSize() == 0; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue("public connector should be saturated", pool.getQueueSize() > 0);
+
+        // The default connector is unaffected
+        Assert.assertEquals(200, status(info.getPort(), "/hello"));
+
+        RELEASE.countDown();
+        for (final CompletableFuture<Integer> request : slow) {
+            Assert.assertEquals(200, (int) request.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testSaturatedQueueKeepsAccepting() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final Server local = new Server();
+        final ConnectorThreadPool pool = new ConnectorThreadPool("saturated", 6, 1);
+        local.addBean(pool, true);
+        final ServerConnector connector = new ServerConnector(local, pool, null, null, 2, 2, new HttpConnectionFactory());
+        connector.unmanage(pool);
+        local.addConnector(connector);
+        local.setHandler(new AbstractHandler() {
+            @Override
+            public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException {
+                baseRequest.setHandled(true);
+                if ("/slow".equals(target)) {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                response.getWriter().print("done");
+            }
+        });
+        local.start();
+        try {
+            // The 2 acceptors and 2 selectors were all submitted at once, to a queue of 1
+            Assert.assertEquals(0, pool.getRejectedJobs());
+
+            final List<CompletableFuture<Integer>> slow = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                slow.add(CompletableFuture.supplyAsync(() -> statusOrFailure(connector.getLocalPort(), "/slow"), clients));
+            }
+            for (int i = 0; i < 500 && pool.getRejectedJobs() == 0; i++) {
+                Thread.sleep(10);
+            }
+            Assert.assertTrue("queue should have overflowed", pool.getRejectedJobs() > 0);
+
+            release.countDown();
+            for (final CompletableFuture<Integer> request : slow) {
+                final int status = request.get(10, TimeUnit.SECONDS);
+                Assert.assertTrue(String.valueOf(status), status == 200 || status == -1);
+            }
+            // Shedding work didn't cost the connector its acceptors or selectors
+            Assert.assertEquals(200, status(connector.getLocalPort(), "/"));
+        } finally {
+            release.countDown();
+            local.stop();
+        }
+    }
+
+    /**
+     * @return the status, or -1 if the connection was closed
+     */
+    private static int statusOrFailure(int port, String path) {
+        try {
+            return status(port, path);
+        } catch (AssertionError e) {
+            return -1;
+        }
+    }
+
+    private static int status(int port, String path) {
+        try {
+            final HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+            connection.setConnectTimeout(5000);
+            connection.setReadTimeout(10000);
+            try {
+                return connection.getResponseCode();
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Configuration
+    public static class SlowConfiguration {
+        @Bean
+        public ServletRegistrationBean<HttpServlet> slowServlet() {
+            return new ServletRegistrationBean<>(new HttpServlet() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                    try {
+                        RELEASE.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    resp.getWriter().print("done");
+                }
+            }, "/slow");
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import com.codahale.metrics.MetricRegistry;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class,
+        RecordingRequestLogConfiguration.class
+})
+@TestPropertySource(properties = {
+        "ot.httpserver.active-connectors=default-http,proxy-http",
+        "ot.httpserver.connector.proxy-http.protocol=proxy+http",
+        "ot.httpserver.connector.proxy-http.port=0",
+        "ot.server.client-limit.enabled=true",
+        "ot.server.client-limit.max-connections=2",
+        "ot.server.client-limit.requests-per-second=0.1",
+        "ot.server.client-limit.burst=3",
+})
+// Clients are told apart by the address in their PROXY protocol header
+public class ClientLimitTest {
+    @Inject
+    private HttpServerInfo info;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @Inject
+    private RecordingRequestLogConfiguration.RecordingRequestLog requestLog;
+
+    @Test
+    public void testRequestRate() throws Exception {
+        // One connection, so the connection limit doesn't depend on how soon the server notices closed ones
+        try (Socket socket = connect("10.0.0.1")) {
+            for (int i = 0; i < 3; i++) {
+                Assert.assertEquals("HTTP/1.1 200 OK", send(socket, "keep-alive"));
+            }
+            Assert.assertEquals("HTTP/1.1 429 Too Many Requests", send(socket, "keep-alive"));
+        }
+        // Another client still has its burst
+        Assert.assertEquals("HTTP/1.1 200 OK", request("10.0.0.2", "close"));
+        Assert.assertTrue(metricRegistry.meter("http-server.client-limit.rejected-requests").getCount() >= 1);
+        Assert.assertTrue(requestLog.awaitStatus(429));
+    }
+
+    @Test
+    public void testConnections() throws Exception {
+        final List<Socket> open = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                final Socket socket = connect("10.0.0.3");
+                open.add(socket);
+                Assert.assertEquals("HTTP/1.1 200 OK", send(socket, "keep-alive"));
+            }
+            try (Socket third = connect("10.0.0.3")) {
+                Assert.assertNull(send(third, "keep-alive"));
+            }
+            Assert.assertEquals(1, metricRegistry.meter("http-server.client-limit.rejected-connections").getCount());
+            Assert.assertEquals("HTTP/1.1 200 OK", request("10.0.0.4", "close"));
+        } finally {
+            for (final Socket socket : open) {
+                socket.close();
+            }
+        }
+    }
+
+    private String request(String client, String connection) throws IOException {
+        try (Socket socket = connect(client)) {
+            return send(socket, connection);
+        }
+    }
+
+    private Socket connect(String client) throws IOException {
+        final Socket socket = new Socket("localhost", info.getConnectors().get("proxy-http").getPort());
+        socket.setSoTimeout(5000);
+        socket.getOutputStream().write(String.format("PROXY TCP4 %s 127.0.0.1 40000 80\r\n", client).getBytes(StandardCharsets.US_ASCII));
+        return socket;
+    }
+
+    /**
+     * @return the status line, or null if the server closed the connection
+     */
+    private static String send(Socket socket, String connection) throws IOException {
+        socket.getOutputStream().write(("GET /hello HTTP/1.1\r\nHost: localhost\r\nConnection: " + connection + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        socket.getOutputStream().flush();
+        // Unbuffered, so the next response on a kept alive connection is left in place
+        final InputStream in = socket.getInputStream();
+        try {
+            final String status = readLine(in);
+            int length = 0;
+            for (String header = readLine(in); header != null && !header.isEmpty(); header = readLine(in)) {
+                if (header.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                    length = Integer.parseInt(header.substring(15).trim());
+                }
+            }
+            in.readNBytes(length);
+            return status;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        final StringBuilder line = new StringBuilder();
+        for (int c = in.read(); c >= 0; c = in.read()) {
+            if (c == '\n') {
+                return line.toString().trim();
+            }
+            line.append((char) c);
+        }
+        return line.length() == 0 ? null : line.toString();
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.server.handler.RequestLogHandler;
+import org.eclipse.jetty.server.handler.StatisticsHandler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class,
+        RecordingRequestLogConfiguration.class,
+        ConcurrencyLimitTest.SlowConfiguration.class
+})
+@TestPropertySource(properties = {
+        "ot.server.concurrency-limit.enabled=true",
+        "ot.server.concurrency-limit.initial-limit=1",
+        "ot.server.concurrency-limit.min-limit=1",
+        "ot.server.concurrency-limit.max-limit=1",
+        "ot.server.concurrency-limit.retry-after=PT2S",
+})
+// Verify the concurrency limit handler sits right inside the request log, lets requests through and sheds the rest
+public class ConcurrencyLimitTest {
+    private static volatile CountDownLatch entered;
+    private static volatile CountDownLatch release;
+
+    @Inject
+    private Server server;
+
+    @Inject
+    private LoopbackRequest request;
+
+    @Inject
+    private RecordingRequestLogConfiguration.RecordingRequestLog requestLog;
+
+    private final TestRestTemplate client = new TestRestTemplate();
+
+    @Before
+    public void before() {
+        entered = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+    }
+
+    @After
+    public void after() {
+        release.countDown();
+    }
+
+    @Test
+    public void test() {
+        final ConcurrencyLimitHandler limiter = limiter();
+        Assert.assertEquals(1, limiter.getLimit());
+        final long accepted = limiter.getAccepted();
+
+        final ResponseEntity<String> r = client.getForEntity(request.of("/hello"), String.class);
+        Assert.assertEquals(TestServerConfiguration.HELLO_WORLD, r.getBody());
+        Assert.assertEquals(accepted + 1, limiter.getAccepted());
+        Assert.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testSaturated() throws Exception {
+        final ConcurrencyLimitHandler limiter = limiter();
+        final long rejected = limiter.getRejected();
+
+        final CompletableFuture<Integer> slow = CompletableFuture.supplyAsync(() -> status("/slow").getKey());
+        Assert.assertTrue(entered.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(1, limiter.getInFlight());
+
+        final Map.Entry<Integer, String> shed = status("/hello");
+        Assert.assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, (int) shed.getKey());
+        Assert.assertEquals("2", shed.getValue());
+        Assert.assertEquals(rejected + 1, limiter.getRejected());
+        Assert.assertTrue(requestLog.awaitStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE));
+
+        release.countDown();
+        Assert.assertEquals(200, (int) slow.get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(200, (int) status("/hello").getKey());
+        Assert.assertEquals(rejected + 1, limiter.getRejected());
+    }
+
+    @Test
+    public void testApplicationErrorsAreNotSampled() throws Exception {
+        final List<Boolean> samples = new CopyOnWriteArrayList<>();
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, 1.0) {
+            @Override
+            synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+                samples.add(dropped);
+            }
+        };
+        final ConcurrencyLimitHandler handler = new ConcurrencyLimitHandler(limit, 1, List.of());
+        handler.setHandler(new AbstractHandler() {
+            @Override
+            public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws ServletException {
+                baseRequest.setHandled(true);
+                if (target.startsWith("/fail")) {
+                    throw new ServletException("application error");
+                }
+            }
+        });
+        final Server local = new Server();
+        final LocalConnector connector = new LocalConnector(local);
+        local.addConnector(connector);
+        local.setHandler(handler);
+        local.start();
+        try {
+            Assert.assertTrue(connector.getResponse("GET /fail HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n").startsWith("HTTP/1.1 500"));
+            Assert.assertTrue(connector.getResponse("GET /ok HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n").startsWith("HTTP/1.1 200"));
+        } finally {
+            local.stop();
+        }
+        // Only the successful request fed the limit, and nothing counted as a drop
+        Assert.assertEquals(List.of(false), samples);
+        Assert.assertEquals(0, handler.getInFlight());
+        Assert.assertEquals(2, handler.getAccepted());
+    }
+
+    private ConcurrencyLimitHandler limiter() {
+        final StatisticsHandler stats = (StatisticsHandler) server.getHandler();
+        Assert.assertTrue(stats.getHandler() instanceof RequestLogHandler);
+        final Handler limiter = ((RequestLogHandler) stats.getHandler()).getHandler();
+        Assert.assertTrue(limiter instanceof ConcurrencyLimitHandler);
+        return (ConcurrencyLimitHandler) limiter;
+    }
+
+    /**
+     * @return the status and Retry-After header
+     */
+    private Map.Entry<Integer, String> status(String path) {
+        try {
+            final HttpURLConnection connection = (HttpURLConnection) request.of(path).toURL().openConnection();
+            connection.setReadTimeout(10000);
+            try {
+                return Map.entry(connection.getResponseCode(), String.valueOf(connection.getHeaderField("Retry-After")));
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Configuration
+    public static class SlowConfiguration {
+        @Bean
+        public ServletRegistrationBean<HttpServlet> slowServlet() {
+            final ServletRegistrationBean<HttpServlet> registration = new ServletRegistrationBean<>(new HttpServlet() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                    entered.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    resp.getWriter().print("done");
+                }
+            }, "/slow");
+            registration.setName("slow");
+            return registration;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import javax.inject.Inject;
+
+import com.codahale.metrics.MetricRegistry;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.thread.ExecutionStrategy;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.strategy.AdaptiveExecutionStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class
+})
+@TestPropertySource(properties = {
+        "ot.httpserver.active-connectors=default-http,public-http",
+        "ot.httpserver.connector.public-http.port=0",
+        "ot.httpserver.connector.public-http.executorThreads=8",
+        "ot.server.event-loop-monitor.enabled=true",
+        "ot.server.event-loop-monitor.period=PT0.01S",
+})
+public class EventLoopMonitorTest {
+    @Inject
+    private Server server;
+
+    @Inject
+    private HttpServerInfo info;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @Test
+    public void testProbes() throws Exception {
+        final EventLoopMonitor monitor = server.getBean(EventLoopMonitor.class);
+        Assert.assertNotNull(monitor);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(200, status(info.getPort()));
+            Assert.assertEquals(200, status(info.getConnectors().get("public-http").getPort()));
+        }
+
+        await(() -> count("http-server.selectors.default-http.loop-latency") > 0
+                && count("http-server.selectors.public-http.loop-latency") > 0
+                && count("http-server.executors.server.queue-dwell") > 0
+                && count("http-server.executors.public-http.queue-dwell") > 0);
+        Assert.assertTrue(metricRegistry.getHistograms().containsKey("http-server.selectors.default-http.selected-keys"));
+        Assert.assertTrue(monitor.getSelectors() > 0);
+        Assert.assertEquals(2, monitor.getExecutors());
+    }
+
+    @Test
+    public void testBlockingTasksWithoutReservedThreadsAreMisses() throws Exception {
+        final long[] tasks = runBlockingTasks(0, 20);
+        Assert.assertEquals(0, tasks[0]);
+        Assert.assertEquals(20, tasks[1]);
+    }
+
+    @Test
+    public void testBlockingTasksOnReservedThreadsAreHits() throws Exception {
+        final long[] tasks = runBlockingTasks(4, 100);
+        Assert.assertTrue("no task was taken over by a reserved thread", tasks[0] > 0);
+        Assert.assertEquals(100, tasks[0] + tasks[1]);
+    }
+
+    /**
+     * Produce blocking tasks one at a time through an {@link AdaptiveExecutionStrategy}, like a selector does
+     */
+    private static long[] runBlockingTasks(int reservedThreads, int count) throws Exception {
+        final QueuedThreadPool pool = new QueuedThreadPool(8, 8);
+        pool.setReservedThreads(reservedThreads);
+        pool.start();
+        final AtomicBoolean offer = new AtomicBoolean();
+        final AtomicInteger ran = new AtomicInteger();
+        // Plain Runnables are blocking tasks
+        final ExecutionStrategy.Producer producer = () -> offer.getAndSet(false) ? ran::incrementAndGet : null;
+        final AdaptiveExecutionStrategy strategy = new AdaptiveExecutionStrategy(producer, pool);
+        strategy.start();
+        try {
+            for (int i = 1; i <= count; i++) {
+                offer.set(true);
+                strategy.produce();
+                final int expected = i;
+                await(() -> ran.get() == expected);
+                // Let the reserved thread that took over production park again
+                Thread.sleep(5);
+            }
+            return EventLoopMonitor.reservedAndPooledTasks(strategy);
+        } finally {
+            strategy.stop();
+            pool.stop();
+        }
+    }
+
+    private long count(String timer) {
+        return metricRegistry.getTimers().containsKey(timer) ? metricRegistry.getTimers().get(timer).getCount() : 0;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 200 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(25);
+        }
+        Assert.assertTrue(condition.getAsBoolean());
+    }
+
+    private static int status(int port) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/hello").openConnection();
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+public class ExceptionLogDeduplicatorTest {
+    private final Logger log = mock(Logger.class);
+    private final ExceptionLogDeduplicator deduplicator = new ExceptionLogDeduplicator(log, 2);
+
+    @Test
+    public void testRepeatsAreSummarized() {
+        for (int i = 0; i < 5; i++) {
+            // Same kind, different messages
+            deduplicator.log("/a", failure("request " + i));
+        }
+        verify(log, times(1)).warn(anyString(), eq("/a"), anyString(), any(Throwable.class));
+
+        deduplicator.summarize();
+        verify(log).warn(anyString(), anyString(), eq(4L), eq(5L), eq("/a"));
+        // Nothing new, nothing to summarize
+        deduplicator.summarize();
+        verifyNoMoreInteractions(log);
+        Assert.assertEquals(Map.of(ExceptionLogDeduplicator.fingerprint(failure("x")), 5L), deduplicator.getCounts());
+    }
+
+    @Test
+    public void testFingerprint() {
+        final String fingerprint = ExceptionLogDeduplicator.fingerprint(failure("one"));
+        Assert.assertEquals(fingerprint, ExceptionLogDeduplicator.fingerprint(failure("two")));
+        Assert.assertTrue(fingerprint, fingerprint.startsWith("java.lang.IllegalStateException <- java.util.concurrent.TimeoutException at "));
+        Assert.assertTrue(fingerprint, fingerprint.contains("rootCause"));
+        Assert.assertNotEquals(fingerprint, ExceptionLogDeduplicator.fingerprint(new IllegalStateException("one")));
+    }
+
+    @Test
+    public void testFingerprintsAreBounded() {
+        deduplicator.log("/a", new IllegalStateException());
+        deduplicator.log("/b", new IllegalArgumentException());
+        deduplicator.log("/c", new UnsupportedOperationException());
+        deduplicator.log("/d", new ArithmeticException());
+        final Map<String, Long> counts = deduplicator.getCounts();
+        Assert.assertEquals(3, counts.size());
+        Assert.assertEquals(2L, (long) counts.get(ExceptionLogDeduplicator.OTHER));
+    }
+
+    private static RuntimeException failure(String message) {
+        return new IllegalStateException(message, rootCause(message));
+    }
+
+    private static TimeoutException rootCause(String message) {
+        return new TimeoutException(message);
+    }
+}
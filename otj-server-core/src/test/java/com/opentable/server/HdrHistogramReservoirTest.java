@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.codahale.metrics.Snapshot;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HdrHistogramReservoirTest {
+
+    @Test
+    public void percentilesAcrossStripes() throws InterruptedException {
+        final HdrHistogramReservoir reservoir = new HdrHistogramReservoir(2, Duration.ofMinutes(1), 4);
+        final Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 1; i <= 1000; i++) {
+                    reservoir.update(TimeUnit.MILLISECONDS.toNanos(i));
+                }
+            });
+            threads[t].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        final Snapshot snapshot = reservoir.getSnapshot();
+        Assert.assertEquals(4000, snapshot.size());
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(500), snapshot.getMedian(), TimeUnit.MILLISECONDS.toNanos(5));
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(990), snapshot.get99thPercentile(), TimeUnit.MILLISECONDS.toNanos(10));
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), snapshot.getMax(), TimeUnit.MILLISECONDS.toNanos(10));
+        Assert.assertEquals(HdrHistogramReservoir.MAX_SNAPSHOT_VALUES, snapshot.getValues().length);
+    }
+
+    @Test
+    public void forgetsAfterTwoWindows() {
+        final AtomicLong now = new AtomicLong();
+        final HdrHistogramReservoir reservoir = new HdrHistogramReservoir(2, Duration.ofSeconds(10), 1, now::get);
+        reservoir.update(100);
+        Assert.assertEquals(1, reservoir.getSnapshot().size());
+
+        // First rotation keeps the old window around
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        reservoir.update(200);
+        Assert.assertEquals(2, reservoir.getSnapshot().size());
+        Assert.assertEquals(2, reservoir.size());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        Assert.assertEquals(0, reservoir.getSnapshot().size());
+        Assert.assertEquals(0, reservoir.size());
+    }
+
+    @Test
+    public void dropsValuesOlderThanTwoWindows() {
+        final AtomicLong now = new AtomicLong();
+        final HdrHistogramReservoir reservoir = new HdrHistogramReservoir(2, Duration.ofSeconds(10), 1, now::get);
+        reservoir.update(100);
+
+        // Nobody read while several windows went by, the old value must not show up as recent
+        now.addAndGet(TimeUnit.SECONDS.toNanos(45));
+        Assert.assertEquals(0, reservoir.getSnapshot().size());
+
+        reservoir.update(200);
+        final Snapshot snapshot = reservoir.getSnapshot();
+        Assert.assertEquals(1, snapshot.size());
+        Assert.assertEquals(200, snapshot.getMax(), 2);
+
+        // Windows restart at the stale read
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        Assert.assertEquals(1, reservoir.size());
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        Assert.assertEquals(0, reservoir.size());
+    }
+
+    @Test
+    public void valuesAreExactWhenSmall() {
+        final HdrHistogramReservoir reservoir = new HdrHistogramReservoir(2, Duration.ofMinutes(1));
+        reservoir.update(10);
+        reservoir.update(10);
+        reservoir.update(1000);
+        Assert.assertArrayEquals(new long[] {10, 10, 1000}, reservoir.getSnapshot().getValues());
+    }
+
+    @Test
+    public void valuesAreSampledWhenLarge() {
+        final HdrHistogramReservoir reservoir = new HdrHistogramReservoir(2, Duration.ofMinutes(1));
+        for (int i = 0; i < 1_000_000; i++) {
+            reservoir.update(i < 900_000 ? 100 : 10_000);
+        }
+        final long[] values = reservoir.getSnapshot().getValues();
+        Assert.assertEquals(HdrHistogramReservoir.MAX_SNAPSHOT_VALUES, values.length);
+        final long slow = Arrays.stream(values).filter(v -> v > 1000).count();
+        Assert.assertEquals(0.1, (double) slow / values.length, 0.01);
+        for (int i = 1; i < values.length; i++) {
+            Assert.assertTrue(values[i - 1] <= values[i]);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.DataInputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import javax.inject.Inject;
+
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Server;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class
+})
+@TestPropertySource(properties = {
+        "ot.httpserver.active-connectors=default-http,my-h2c",
+        "ot.httpserver.connector.my-h2c.protocol=h2c",
+        "ot.httpserver.connector.my-h2c.port=0",
+        "ot.httpserver.connector.my-h2c.http2MaxConcurrentStreams=7",
+        "ot.httpserver.connector.my-h2c.http2HpackTableSize=8192",
+})
+// Verify a h2c connector is configured and answers a prior knowledge HTTP/2 connection preface
+public class Http2ConnectorTest {
+    private static final byte[] PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+    // Empty SETTINGS frame: length 0, type 0x4, no flags, stream 0
+    private static final byte[] EMPTY_SETTINGS = {0, 0, 0, 0x4, 0, 0, 0, 0, 0};
+    private static final int FRAME_HEADER_LENGTH = 9;
+
+    @Inject
+    private Server server;
+
+    @Inject
+    private HttpServerInfo info;
+
+    @Test
+    public void testConfiguration() {
+        final Connector connector = Arrays.stream(server.getConnectors())
+                .filter(c -> "my-h2c".equals(c.getName()))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+        Assert.assertTrue(connector.getProtocols().contains("h2c"));
+        Assert.assertTrue(connector.getProtocols().contains("http/1.1"));
+        final HTTP2CServerConnectionFactory h2c = connector.getConnectionFactory(HTTP2CServerConnectionFactory.class);
+        Assert.assertEquals(7, h2c.getMaxConcurrentStreams());
+        Assert.assertEquals(8192, h2c.getMaxDynamicTableSize());
+        Assert.assertEquals("h2c", info.getConnectors().get("my-h2c").getProtocol());
+    }
+
+    @Test
+    public void testPriorKnowledge() throws Exception {
+        try (Socket socket = new Socket("localhost", info.getConnectors().get("my-h2c").getPort())) {
+            socket.setSoTimeout(5000);
+            final OutputStream out = socket.getOutputStream();
+            out.write(PREFACE);
+            out.write(EMPTY_SETTINGS);
+            out.flush();
+
+            // The server's connection preface is a SETTINGS frame
+            final byte[] header = new byte[FRAME_HEADER_LENGTH];
+            new DataInputStream(socket.getInputStream()).readFully(header);
+            Assert.assertEquals(0x4, header[3]);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+
+import javax.inject.Inject;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class
+})
+public class JettyDumperTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Inject
+    private JettyDumper dumper;
+
+    @Inject
+    private HttpServerInfo info;
+
+    @Test
+    public void testSummary() throws Exception {
+        final JsonNode summary = MAPPER.readTree(dumper.dumpJettySummary()).get("summary");
+        Assert.assertEquals(1, summary.get("connectors").asInt());
+        Assert.assertTrue(summary.get("threads").asInt() > 0);
+        Assert.assertTrue(summary.has("requestsActive"));
+    }
+
+    @Test
+    public void testFilteredDumpToFile() throws Exception {
+        Path file = null;
+        // An idle keep-alive connection shows up as an endpoint
+        try (Socket socket = new Socket("localhost", info.getPort())) {
+            final OutputStream out = socket.getOutputStream();
+            out.write("GET /hello HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            socket.getInputStream().read();
+
+            file = Paths.get(dumper.dumpJettyToFile("connectors, endpoints"));
+            // Only ever written to the dump directory
+            Assert.assertEquals(Paths.get(System.getProperty("java.io.tmpdir")), file.getParent());
+            final JsonNode dump = MAPPER.readTree(file.toFile());
+            final Iterator<String> fields = dump.fieldNames();
+            Assert.assertEquals("state", fields.next());
+            Assert.assertEquals("summary", fields.next());
+            Assert.assertTrue(dump.has("connectors"));
+            Assert.assertFalse(dump.has("threadPools"));
+            Assert.assertFalse(dump.has("selectors"));
+            Assert.assertTrue(dump.get("summary").get("connections").asInt() >= 1);
+            Assert.assertTrue(dump.get("endpoints").size() >= 1);
+            Assert.assertTrue(dump.get("endpoints").get(0).get("bytesIn").asLong() > 0);
+        } finally {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Test
+    public void testDumpsToNewFiles() throws Exception {
+        final Path first = Paths.get(dumper.dumpJettyToFile("connectors"));
+        final Path second = Paths.get(dumper.dumpJettyToFile("connectors"));
+        try {
+            Assert.assertNotEquals(first, second);
+            Assert.assertTrue(MAPPER.readTree(first.toFile()).has("connectors"));
+        } finally {
+            Files.deleteIfExists(first);
+            Files.deleteIfExists(second);
+        }
+    }
+
+    @Test
+    public void testAllComponents() throws Exception {
+        final JsonNode dump = MAPPER.readTree(dumper.dumpJettyJson(""));
+        Assert.assertTrue(dump.get("threadPools").size() >= 1);
+        Assert.assertTrue(dump.get("selectors").size() >= 1);
+        Assert.assertThrows(IllegalArgumentException.class, () -> dumper.dumpJettyJson("bogus"));
+    }
+}
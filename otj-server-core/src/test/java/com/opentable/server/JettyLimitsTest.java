@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import javax.inject.Inject;
+
+import org.eclipse.jetty.server.ConnectionLimit;
+import org.eclipse.jetty.server.LowResourceMonitor;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class
+})
+@TestPropertySource(properties = {
+        "ot.httpserver.max-threads=32",
+        "ot.server.connection-limit.enabled=true",
+        "ot.server.connection-limit=500",
+        "ot.server.low-resource-monitor.enabled=true",
+        "ot.server.low-resource-monitor.accepting-in-low-resources=false",
+})
+public class JettyLimitsTest {
+    @Inject
+    private Server server;
+
+    @Inject
+    private JettyLimits limits;
+
+    @Test
+    public void testRetune() {
+        final QueuedThreadPool qtp = (QueuedThreadPool) server.getThreadPool();
+        Assert.assertEquals(32, limits.getMaxThreads());
+
+        limits.setMaxThreads(48);
+        Assert.assertEquals(48, qtp.getMaxThreads());
+        Assert.assertEquals(48, qtp.getMinThreads());
+        limits.setMaxThreads(24);
+        Assert.assertEquals(24, qtp.getMaxThreads());
+        Assert.assertEquals(24, qtp.getMinThreads());
+
+        limits.setMaxConnections(100);
+        Assert.assertEquals(100, server.getBean(ConnectionLimit.class).getMaxConnections());
+
+        limits.setAcceptingInLowResources(true);
+        limits.setLowResourcesPeriod(250);
+        final LowResourceMonitor monitor = server.getBean(LowResourceMonitor.class);
+        Assert.assertTrue(monitor.isAcceptingInLowResources());
+        Assert.assertEquals(250, monitor.getPeriod());
+
+        final String[] audit = limits.getAuditLog();
+        Assert.assertEquals(5, audit.length);
+        Assert.assertTrue(audit[0], audit[0].contains("maxThreads changed from 32 to 48"));
+        Assert.assertTrue(audit[2], audit[2].contains("maxConnections changed from 500 to 100"));
+    }
+
+    @Test
+    public void testInvalidValuesAreRejected() {
+        final int threads = limits.getMaxThreads();
+        Assert.assertThrows(IllegalArgumentException.class, () -> limits.setMaxThreads(1));
+        Assert.assertThrows(IllegalArgumentException.class, () -> limits.setMaxConnections(0));
+        Assert.assertThrows(IllegalArgumentException.class, () -> limits.setLowResourcesPeriod(-1));
+        Assert.assertEquals(threads, limits.getMaxThreads());
+    }
+}
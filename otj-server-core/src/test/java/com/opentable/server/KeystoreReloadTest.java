@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+import javax.inject.Inject;
+
+import com.google.common.io.Resources;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.SslConnectionFactory;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class
+})
+@TestPropertySource(properties = {
+        "ot.httpserver.active-connectors=default-http,secure-http",
+        "ot.httpserver.connector.secure-http.protocol=https",
+        "ot.httpserver.connector.secure-http.port=0",
+        "ot.httpserver.connector.secure-http.keystorePassword=" + KeystoreReloadTest.PASSWORD,
+        "ot.httpserver.connector.secure-http.keystoreScanInterval=1",
+})
+public class KeystoreReloadTest {
+    static final String PASSWORD = "verysecure";
+    private static final Path KEYSTORE = copyKeystore();
+
+    @Inject
+    private Server server;
+
+    @DynamicPropertySource
+    static void keystore(DynamicPropertyRegistry registry) {
+        registry.add("ot.httpserver.connector.secure-http.keystore", KEYSTORE::toString);
+    }
+
+    @Test
+    public void testRotation() throws Exception {
+        final ServerConnector secure = (ServerConnector) Arrays.stream(server.getConnectors())
+                .filter(c -> "secure-http".equals(c.getName()))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+        final SslContextFactory ssl = secure.getConnectionFactory(SslConnectionFactory.class).getSslContextFactory();
+        final KeystoreReloader reloader = secure.getBean(KeystoreReloader.class);
+        Assert.assertNotNull(reloader);
+        Assert.assertEquals(2, ssl.getAliases().size());
+        Assert.assertNotNull(reloader.getCertificateExpiry());
+
+        // Rotate to a keystore holding only one of the certificates
+        final KeyStore rotated = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(KEYSTORE)) {
+            rotated.load(in, PASSWORD.toCharArray());
+        }
+        rotated.deleteEntry("test.com");
+        try (OutputStream out = Files.newOutputStream(KEYSTORE)) {
+            rotated.store(out, PASSWORD.toCharArray());
+        }
+        await(() -> reloader.getReloads() == 1);
+        Assert.assertEquals(1, ssl.getAliases().size());
+        Assert.assertNotNull(reloader.getLastReload());
+
+        // A broken file is not applied, the connector keeps its certificates
+        Files.write(KEYSTORE, "not a keystore".getBytes(StandardCharsets.UTF_8));
+        await(() -> reloader.getFailedReloads() == 1);
+        Assert.assertEquals(1, reloader.getReloads());
+        Assert.assertEquals(1, ssl.getAliases().size());
+        Assert.assertTrue(secure.isRunning());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 200 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(50);
+        }
+        Assert.assertTrue(condition.getAsBoolean());
+    }
+
+    private static Path copyKeystore() {
+        try {
+            final Path keystore = Files.createTempDirectory("keystore-reload").resolve("keystore.jks");
+            try (InputStream in = Resources.getResource("test-ssl/keystore.jks").openStream()) {
+                Files.copy(in, keystore, StandardCopyOption.REPLACE_EXISTING);
+            }
+            // Deleted in reverse order, the file before its directory
+            keystore.getParent().toFile().deleteOnExit();
+            keystore.toFile().deleteOnExit();
+            return keystore;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+// Unix domain socket connectors must not use up one of the ordinal ports
+public class PortSelectionWithUnixSocketTest {
+
+    @Test
+    public void testUnixConnectorSkipped() {
+        final MockEnvironment environment = new MockEnvironment()
+                .withProperty("PORT0", "5574")
+                .withProperty("PORT1", "5575")
+                .withProperty("IS_KUBERNETES", "false")
+                .withProperty("ot.httpserver.active-connectors", "default-http,sidecar,my-https")
+                .withProperty("ot.httpserver.connector.sidecar.protocol", "unix")
+                .withProperty("ot.httpserver.connector.sidecar.unixSocketPath", "/tmp/app.sock")
+                .withProperty("ot.httpserver.connector.my-https.protocol", "https");
+
+        final Map<String, PortSelector.PortSelection> selections = new PortSelector(environment).getPortSelectionMap();
+
+        Assert.assertFalse(selections.containsKey("ot.httpserver.connector.sidecar.port"));
+        Assert.assertEquals(Integer.valueOf(5574), selections.get(PortSelector.HTTPSERVER_CONNECTOR_DEFAULT_HTTP_PORT).getAsInteger());
+        Assert.assertEquals(Integer.valueOf(5575), selections.get("ot.httpserver.connector.my-https.port").getAsInteger());
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.opentable.logging.jetty.JsonRequestLog;
+import com.opentable.logging.jetty.JsonRequestLogConfig;
+
+/**
+ * Installs a request log that remembers the status of every request it logged.
+ */
+@Configuration
+public class RecordingRequestLogConfiguration {
+
+    @Bean
+    public RecordingRequestLog recordingRequestLog(JsonRequestLogConfig requestLogConfig) {
+        return new RecordingRequestLog(requestLogConfig);
+    }
+
+    public static class RecordingRequestLog extends JsonRequestLog {
+        private final List<Integer> statuses = new CopyOnWriteArrayList<>();
+
+        RecordingRequestLog(JsonRequestLogConfig config) {
+            super(Clock.systemUTC(), config);
+        }
+
+        @Override
+        public void log(Request request, Response response) {
+            statuses.add(response.getStatus());
+            super.log(request, response);
+        }
+
+        /**
+         * Requests are logged once complete, which may be after the client saw the response.
+         * @return whether a request with this status was logged within a few seconds
+         */
+        public boolean awaitStatus(int status) throws InterruptedException {
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!statuses.contains(status)) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                Thread.sleep(10);
+            }
+            return true;
+        }
+    }
+}
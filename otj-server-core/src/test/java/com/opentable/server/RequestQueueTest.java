@@ -0,0 +1,228 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.servlet.Filter;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class,
+        RequestQueueTest.QueueConfiguration.class
+})
+@TestPropertySource(properties = {
+        "ot.server.request-queue.enabled=true",
+        "ot.server.request-queue.max-concurrent=1",
+        "ot.server.request-queue.max-queued=2",
+        "ot.server.request-queue.target=PT0.1S",
+        "ot.server.request-queue.interval=PT2S",
+        "ot.server.request-queue.priority-header=X-Priority",
+        // Sub-second values round up, to 1
+        "ot.server.request-queue.retry-after=PT0.5S",
+})
+// Requests over the limit wait by priority, are resumed as ordinary requests, and are dropped once the queue stands
+public class RequestQueueTest {
+    private static final String FILTERED = "filtered";
+    private static final List<String> HANDLED = new CopyOnWriteArrayList<>();
+    private static volatile CountDownLatch entered;
+    private static volatile CountDownLatch release;
+
+    private final ExecutorService clients = Executors.newFixedThreadPool(4);
+
+    @Inject
+    private HttpServerInfo info;
+
+    @Inject
+    private RequestQueueHandler queue;
+
+    @Before
+    public void before() {
+        HANDLED.clear();
+        entered = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+    }
+
+    @After
+    public void after() {
+        release.countDown();
+        clients.shutdownNow();
+    }
+
+    @Test
+    public void testPriorityAndBound() throws Exception {
+        final CompletableFuture<Response> slow = send("/slow", null);
+        Assert.assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+        final CompletableFuture<Response> normal = send("/record/normal", null);
+        awaitQueued(1);
+        final CompletableFuture<Response> high = send("/record/high", "high");
+        awaitQueued(2);
+
+        // Full, rejected straight away
+        final Response full = send("/record/full", null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(503, full.status);
+        Assert.assertEquals("1", full.retryAfter);
+
+        release.countDown();
+        Assert.assertEquals(200, slow.get(10, TimeUnit.SECONDS).status);
+        final Response highResponse = high.get(10, TimeUnit.SECONDS);
+        final Response normalResponse = normal.get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(200, highResponse.status);
+        Assert.assertEquals(200, normalResponse.status);
+        Assert.assertEquals(List.of("/record/high", "/record/normal"), HANDLED);
+        // Filters see a queued request just like any other
+        Assert.assertEquals("REQUEST " + FILTERED, normalResponse.body);
+        Assert.assertEquals(1, queue.getRejected());
+        Assert.assertEquals(0, queue.getActive());
+    }
+
+    @Test
+    public void testStandingQueueDrops() throws Exception {
+        final long droppedBefore = queue.getDropped();
+        final CompletableFuture<Response> slow = send("/slow", null);
+        Assert.assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+        final long start = System.nanoTime();
+        final Response dropped = send("/record/dropped", null).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(503, dropped.status);
+        // Waited about an interval, while the slow request was still running
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(1900));
+        Assert.assertEquals(droppedBefore + 1, queue.getDropped());
+        Assert.assertTrue(HANDLED.isEmpty());
+
+        release.countDown();
+        Assert.assertEquals(200, slow.get(10, TimeUnit.SECONDS).status);
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        for (int i = 0; i < 500 && queue.getQueued() < expected; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(expected, queue.getQueued());
+    }
+
+    private CompletableFuture<Response> send(String path, String priority) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                final HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + info.getPort() + path).openConnection();
+                connection.setReadTimeout(10000);
+                if (priority != null) {
+                    connection.setRequestProperty("X-Priority", priority);
+                }
+                try {
+                    final int status = connection.getResponseCode();
+                    final String body;
+                    try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                        body = in == null ? "" : new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                    }
+                    return new Response(status, connection.getHeaderField("Retry-After"), body);
+                } finally {
+                    connection.disconnect();
+                }
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }, clients);
+    }
+
+    private static final class Response {
+        private final int status;
+        private final String retryAfter;
+        private final String body;
+
+        Response(int status, String retryAfter, String body) {
+            this.status = status;
+            this.retryAfter = retryAfter;
+            this.body = body;
+        }
+    }
+
+    @Configuration
+    public static class QueueConfiguration {
+        @Bean
+        public ServletRegistrationBean<HttpServlet> slowServlet() {
+            final ServletRegistrationBean<HttpServlet> registration = new ServletRegistrationBean<>(new HttpServlet() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                    entered.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    resp.getWriter().print("done");
+                }
+            }, "/slow");
+            registration.setName("slow");
+            return registration;
+        }
+
+        @Bean
+        public ServletRegistrationBean<HttpServlet> recordServlet() {
+            final ServletRegistrationBean<HttpServlet> registration = new ServletRegistrationBean<>(new HttpServlet() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                    HANDLED.add(req.getRequestURI());
+                    resp.getWriter().print(req.getDispatcherType() + " " + req.getAttribute(FILTERED));
+                }
+            }, "/record/*");
+            registration.setName("record");
+            return registration;
+        }
+
+        @Bean
+        public FilterRegistrationBean<Filter> requestOnlyFilter() {
+            // Only mapped to the REQUEST dispatcher type, the default
+            return new FilterRegistrationBean<>((request, response, chain) -> {
+                request.setAttribute(FILTERED, FILTERED);
+                chain.doFilter(request, response);
+            });
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class
+})
+@TestPropertySource(properties = {
+        "ot.httpserver.active-connectors=default-http,sharded-http",
+        "ot.httpserver.connector.sharded-http.port=0",
+        "ot.httpserver.connector.sharded-http.listeners=3",
+        "ot.httpserver.connector.sharded-http.acceptors=2",
+        "ot.httpserver.connector.sharded-http.selectors=1",
+        "ot.httpserver.connector.sharded-http.acceptQueueSize=256",
+})
+// Verify a connector with several listeners opens them all on the same (ephemeral) port
+public class ReusePortListenersTest {
+    private final TestRestTemplate client = new TestRestTemplate();
+
+    @Inject
+    private Server server;
+
+    @Inject
+    private HttpServerInfo info;
+
+    @Test
+    public void testListeners() {
+        final List<ServerConnector> listeners = listeners();
+        Assert.assertEquals(3, listeners.size());
+        final int port = info.getConnectors().get("sharded-http").getPort();
+        for (final ServerConnector listener : listeners) {
+            Assert.assertEquals(port, listener.getLocalPort());
+            Assert.assertTrue(listener.isReusePort());
+            Assert.assertEquals(2, listener.getAcceptors());
+            Assert.assertEquals(1, listener.getSelectorManager().getSelectorCount());
+            Assert.assertEquals(256, listener.getAcceptQueueSize());
+        }
+    }
+
+    @Test
+    public void testRequests() {
+        final int port = info.getConnectors().get("sharded-http").getPort();
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(TestServerConfiguration.HELLO_WORLD,
+                    client.getForObject("http://localhost:" + port + "/hello", String.class));
+        }
+    }
+
+    @Test
+    public void testDefaultConnectorUnchanged() {
+        final ServerConnector connector = (ServerConnector) server.getConnectors()[0];
+        Assert.assertEquals(EmbeddedJettyBase.DEFAULT_CONNECTOR_NAME, connector.getName());
+        Assert.assertFalse(connector.isReusePort());
+    }
+
+    private List<ServerConnector> listeners() {
+        return Arrays.stream(server.getConnectors())
+                .filter(c -> "sharded-http".equals(c.getName()))
+                .map(ServerConnector.class::cast)
+                .collect(Collectors.toList());
+    }
+}
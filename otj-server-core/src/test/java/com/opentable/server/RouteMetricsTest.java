@@ -0,0 +1,159 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.codahale.metrics.UniformReservoir;
+
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.server.handler.StatisticsHandler;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class
+})
+@TestPropertySource(properties = {
+        "ot.httpserver.route-metrics.enabled=true",
+})
+// Verify the route metrics handler is installed and records latency and status per route
+public class RouteMetricsTest {
+
+    @Inject
+    private Server server;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @Inject
+    private LoopbackRequest request;
+
+    @Inject
+    private HttpServerInfo info;
+
+    private final TestRestTemplate client = new TestRestTemplate();
+
+    @Test
+    public void test() {
+        final StatisticsHandler stats = (StatisticsHandler) server.getHandler();
+        Assert.assertTrue(stats.getHandler() instanceof RouteMetricsHandler);
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(TestServerConfiguration.HELLO_WORLD, client.getForObject(request.of("/hello"), String.class));
+        }
+        Assert.assertEquals(HttpStatus.NOT_FOUND, client.getForEntity(request.of("/nope"), String.class).getStatusCode());
+
+        // Plain servlets don't provide a route template
+        final String hello = "http-server.routes.default-http.GET.UNKNOWN";
+        final Timer latency = metricRegistry.getTimers().get(hello + ".latency");
+        Assert.assertEquals(3, latency.getCount());
+        Assert.assertEquals(3, latency.getSnapshot().size());
+        Assert.assertTrue(latency.getSnapshot().getMax() > 0);
+        Assert.assertEquals(3, metricRegistry.getMeters().get(hello + ".2xx-responses").getCount());
+
+        final String notFound = "http-server.routes.default-http.GET.NOT_FOUND";
+        Assert.assertEquals(1, metricRegistry.getTimers().get(notFound + ".latency").getCount());
+        Assert.assertEquals(1, metricRegistry.getMeters().get(notFound + ".4xx-responses").getCount());
+    }
+
+    @Test
+    public void testArbitraryMethods() throws Exception {
+        final RouteMetricsHandler handler = (RouteMetricsHandler) ((StatisticsHandler) server.getHandler()).getHandler();
+        final int routes = handler.getRouteCount();
+        final long metrics = routeMetricCount();
+
+        for (int i = 0; i < 50; i++) {
+            send("FOO" + i);
+        }
+
+        // All of them share one bucket
+        Assert.assertTrue(handler.getRouteCount() <= routes + 1);
+        Assert.assertTrue(routeMetricCount() <= metrics + 2);
+        Assert.assertEquals(50, metricRegistry.getTimers().get("http-server.routes.default-http.OTHER.UNKNOWN.latency").getCount());
+    }
+
+    @Test
+    public void sanitizeRoutes() {
+        Assert.assertEquals("api_users_id", RouteMetricsHandler.sanitize("/api/users/{id}"));
+        Assert.assertEquals("hello", RouteMetricsHandler.sanitize("/hello/**"));
+        Assert.assertEquals("root", RouteMetricsHandler.sanitize("/"));
+        Assert.assertEquals("NOT_FOUND", RouteMetricsHandler.sanitize(RouteMetricsHandler.NOT_FOUND));
+    }
+
+    @Test
+    public void collidingRoutesShareOther() throws Exception {
+        final MetricRegistry registry = new MetricRegistry();
+        final RouteMetricsHandler handler = new RouteMetricsHandler(registry, UniformReservoir::new, 100);
+        handler.setHandler(new AbstractHandler() {
+            @Override
+            public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) {
+                baseRequest.setHandled(true);
+                baseRequest.setAttribute(RouteMetricsHandler.ROUTE_ATTRIBUTE, request.getHeader("X-Route"));
+            }
+        });
+        final Server local = new Server();
+        final LocalConnector connector = new LocalConnector(local);
+        local.addConnector(connector);
+        local.setHandler(handler);
+        local.start();
+        try {
+            // Both sanitize to a_id, the first one keeps the name
+            for (final String route : List.of("/a/{id}", "/a.{id}", "/a.{id}", "/a/{id}")) {
+                Assert.assertTrue(connector.getResponse("GET / HTTP/1.1\r\nHost: localhost\r\nX-Route: " + route + "\r\nConnection: close\r\n\r\n").startsWith("HTTP/1.1 200"));
+            }
+        } finally {
+            local.stop();
+        }
+        final String prefix = MetricRegistry.name(RouteMetricsHandler.PREFIX, EmbeddedJettyBase.DEFAULT_CONNECTOR_NAME);
+        Assert.assertEquals(2, registry.timer(MetricRegistry.name(prefix, "GET", "a_id", "latency")).getCount());
+        Assert.assertEquals(2, registry.timer(MetricRegistry.name(prefix, "OTHER", "OTHER", "latency")).getCount());
+    }
+
+    private long routeMetricCount() {
+        return metricRegistry.getNames().stream().filter(n -> n.startsWith(RouteMetricsHandler.PREFIX)).count();
+    }
+
+    private void send(String method) throws IOException {
+        try (Socket socket = new Socket("localhost", info.getPort())) {
+            socket.setSoTimeout(5000);
+            final OutputStream out = socket.getOutputStream();
+            out.write((method + " /hello HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            socket.getInputStream().readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import com.opentable.metrics.ready.ReadyCheck;
+
+// Closing the context waits for requests in flight, tells clients to go away, and no longer than needed
+public class ShutdownDrainTest {
+    private static final CountDownLatch ENTERED = new CountDownLatch(1);
+    private static final CountDownLatch RELEASE = new CountDownLatch(1);
+
+    private ConfigurableApplicationContext context;
+
+    @After
+    public void after() {
+        RELEASE.countDown();
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    public void drainsBeforeStopping() throws Exception {
+        final SpringApplication app = new SpringApplication(DrainConfiguration.class);
+        app.setDefaultProperties(ImmutableMap.of(
+                "ot.httpserver.shutdown.drain.enabled", "true",
+                "ot.httpserver.shutdown.drain.timeout", "PT20S",
+                "ot.httpserver.shutdown.drain.quiet-period", "PT0.2S"));
+        context = app.run();
+        final int port = context.getBean(HttpServerInfo.class).getPort();
+        final ShutdownDrainCoordinator coordinator = context.getBean(ShutdownDrainCoordinator.class);
+        final ReadyCheck readyCheck = context.getBean("shutdownDrainReadyCheck", ReadyCheck.class);
+        Assert.assertTrue(readyCheck.execute().isReady());
+
+        final CompletableFuture<Integer> slow = CompletableFuture.supplyAsync(() -> status(port, "/slow"));
+        Assert.assertTrue(ENTERED.await(10, TimeUnit.SECONDS));
+
+        final ConfigurableApplicationContext closing = context;
+        context = null;
+        final CompletableFuture<Void> closed = CompletableFuture.runAsync(closing::close);
+        for (int i = 0; i < 500 && !coordinator.isDraining(); i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse(readyCheck.execute().isReady());
+
+        // Still accepting, but asking the client to go elsewhere
+        final HttpURLConnection hello = (HttpURLConnection) new URL("http://localhost:" + port + "/hello").openConnection();
+        Assert.assertEquals(200, hello.getResponseCode());
+        Assert.assertEquals("close", hello.getHeaderField("Connection"));
+        Assert.assertFalse(closed.isDone());
+
+        final long released = System.nanoTime();
+        RELEASE.countDown();
+        Assert.assertEquals(200, (int) slow.get(10, TimeUnit.SECONDS));
+        closed.get(10, TimeUnit.SECONDS);
+        // Well short of the drain timeout
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - released) < 10);
+    }
+
+    private static int status(int port, String path) {
+        try {
+            return ((HttpURLConnection) new URL("http://localhost:" + port + path).openConnection()).getResponseCode();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Configuration
+    @Import(TestServerConfiguration.class)
+    static class DrainConfiguration {
+        @Bean
+        public ServletRegistrationBean<HttpServlet> slowServlet() {
+            return new ServletRegistrationBean<>(new HttpServlet() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                    ENTERED.countDown();
+                    try {
+                        RELEASE.await(20, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    resp.getWriter().print("done");
+                }
+            }, "/slow");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+public class StartupRecorderTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void testTimeline() throws Exception {
+        final Path file = Files.createTempFile("startup-timeline-test", ".json");
+        final StartupRecorder recorder = new StartupRecorder();
+        try (ConfigurableApplicationContext ctx = OTApplication.run(TestServerConfiguration.class, new String[0],
+                ImmutableMap.of(
+                        "server.port", "0",
+                        "spring.profiles.active", SpringPortSelectionPostProcessor.PROCESSOR_TEST,
+                        // Otherwise it's logged after startup
+                        "ot.server.config-log.mode", "sync",
+                        StartupRecorder.FILE, file.toString(),
+                        StartupRecorder.BUDGET, "PT5M"),
+                recorder::install)) {
+            Assert.assertTrue(recorder.getTotal().compareTo(Duration.ZERO) > 0);
+            final Set<String> names = recorder.allSteps().map(StartupRecorder.Step::getName).collect(Collectors.toSet());
+            Assert.assertTrue(names.toString(), names.containsAll(Set.of(
+                    "otj.port-selection",
+                    "otj.config.log-app-config",
+                    "otj.jetty.start",
+                    "otj.jetty.connector.start",
+                    StartupRecorder.BEAN_STEP)));
+
+            // Jetty starts as part of the refresh, and the configuration is logged while its bean is created
+            final StartupRecorder.Step refresh = recorder.allSteps()
+                    .filter(s -> "spring.context.refresh".equals(s.getName()))
+                    .findFirst().orElseThrow(AssertionError::new);
+            Assert.assertTrue(refresh.flatten().anyMatch(s -> "otj.jetty.start".equals(s.getName())));
+            final StartupRecorder.Step configDump = recorder.allSteps()
+                    .filter(s -> s.getName().equals(StartupRecorder.BEAN_STEP) && s.getTags().getOrDefault("beanName", "").endsWith("AppConfigDump"))
+                    .findFirst().orElseThrow(AssertionError::new);
+            Assert.assertTrue(configDump.flatten().anyMatch(s -> "otj.config.log-app-config".equals(s.getName())));
+
+            final Map<String, String> connector = recorder.allSteps()
+                    .filter(s -> "otj.jetty.connector.start".equals(s.getName()))
+                    .findFirst().orElseThrow(AssertionError::new)
+                    .getTags();
+            Assert.assertEquals(EmbeddedJettyBase.DEFAULT_CONNECTOR_NAME, connector.get("connector"));
+
+            Assert.assertTrue(recorder.summary(), recorder.summary().startsWith("Startup took "));
+            Assert.assertTrue(recorder.summary(), recorder.summary().contains("slowest beans: "));
+
+            final JsonNode json = MAPPER.readTree(file.toFile());
+            Assert.assertEquals(recorder.getTotal().toMillis(), json.get("totalMs").asLong());
+            Assert.assertEquals(recorder.getSteps().size(), json.get("steps").size());
+            Assert.assertTrue(json.get("steps").get(0).has("durationMs"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testOverBudget() {
+        try {
+            OTApplication.run(TestServerConfiguration.class, new String[0],
+                    ImmutableMap.of(
+                            "server.port", "0",
+                            StartupRecorder.BUDGET, "PT0.001S"),
+                    new StartupRecorder()::install).close();
+            Assert.fail("Expected startup to fail its budget");
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("ms budget"));
+        }
+    }
+}
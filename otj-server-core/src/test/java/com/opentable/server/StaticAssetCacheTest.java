@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.zip.GZIPInputStream;
+
+import javax.inject.Inject;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class
+})
+@TestPropertySource(properties = {
+        "ot.httpserver.static-path=static-cache-test",
+        "ot.httpserver.static-cache.enabled=true",
+        "ot.httpserver.static-cache.max-file-size=4KB",
+})
+// Static files are served from the precompressed cache, with strong ETags and conditional requests
+public class StaticAssetCacheTest {
+
+    private static final String APP_JS = "/static-cache-test/js/app.0123abcd.js";
+    private static final String VENDOR_JS = "/static-cache-test/js/vendor.js";
+
+    @Inject
+    private LoopbackRequest request;
+
+    @Test
+    public void gzipVariant() throws IOException {
+        final byte[] plain = body(get(APP_JS, null, null));
+
+        final HttpURLConnection gzip = get(APP_JS, "gzip, deflate", null);
+        Assert.assertEquals(200, gzip.getResponseCode());
+        Assert.assertEquals("gzip", gzip.getHeaderField("Content-Encoding"));
+        Assert.assertEquals("Accept-Encoding", gzip.getHeaderField("Vary"));
+        Assert.assertEquals(StaticAssetServlet.IMMUTABLE_CACHE_CONTROL, gzip.getHeaderField("Cache-Control"));
+        Assert.assertTrue(gzip.getHeaderField("ETag").endsWith("--gzip\""));
+        Assert.assertTrue(gzip.getContentLength() < plain.length);
+        try (InputStream in = new GZIPInputStream(gzip.getInputStream())) {
+            Assert.assertArrayEquals(plain, in.readAllBytes());
+        }
+    }
+
+    @Test
+    public void mappedPrecompressedVariant() throws IOException {
+        final byte[] plain = body(get(VENDOR_JS, null, null));
+        Assert.assertTrue(plain.length > 4096);
+
+        final HttpURLConnection gzip = get(VENDOR_JS, "gzip", null);
+        Assert.assertEquals(200, gzip.getResponseCode());
+        Assert.assertEquals("gzip", gzip.getHeaderField("Content-Encoding"));
+        Assert.assertTrue(gzip.getHeaderField("ETag").endsWith("--gzip\""));
+        // The pre-built sibling, too large to copy, is mapped and served as is
+        Assert.assertTrue(gzip.getContentLength() > 4096);
+        try (InputStream in = new GZIPInputStream(gzip.getInputStream())) {
+            Assert.assertArrayEquals(plain, in.readAllBytes());
+        }
+    }
+
+    @Test
+    public void identity() throws IOException {
+        final HttpURLConnection connection = get("/static-cache-test/index.html", "gzip;q=0, identity", null);
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertNull(connection.getHeaderField("Content-Encoding"));
+        Assert.assertNull(connection.getHeaderField("Cache-Control"));
+        Assert.assertTrue(connection.getContentType().startsWith("text/html"));
+        final String etag = connection.getHeaderField("ETag");
+        Assert.assertTrue(etag, etag.startsWith("\"") && etag.endsWith("\""));
+        Assert.assertTrue(new String(body(connection)).contains("quick brown fox"));
+    }
+
+    @Test
+    public void notModified() throws IOException {
+        final String etag = get(APP_JS, "gzip", null).getHeaderField("ETag");
+        final HttpURLConnection connection = get(APP_JS, "gzip", etag);
+        Assert.assertEquals(304, connection.getResponseCode());
+        Assert.assertEquals(etag, connection.getHeaderField("ETag"));
+
+        // The identity tag validates the gzip variant too, the content is the same
+        final String identityTag = get(APP_JS, null, null).getHeaderField("ETag");
+        Assert.assertEquals(304, get(APP_JS, "gzip", identityTag).getResponseCode());
+        Assert.assertEquals(200, get(APP_JS, "gzip", "\"stale\"").getResponseCode());
+    }
+
+    @Test
+    public void missesFallThrough() throws IOException {
+        Assert.assertEquals(404, get("/static-cache-test/missing.js", null, null).getResponseCode());
+    }
+
+    private HttpURLConnection get(String path, String acceptEncoding, String ifNoneMatch) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) request.of(path).toURL().openConnection();
+        if (acceptEncoding != null) {
+            connection.setRequestProperty("Accept-Encoding", acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            connection.setRequestProperty("If-None-Match", ifNoneMatch);
+        }
+        return connection;
+    }
+
+    private static byte[] body(HttpURLConnection connection) throws IOException {
+        try (InputStream in = connection.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+}
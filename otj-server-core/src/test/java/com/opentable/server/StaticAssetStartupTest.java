@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.eclipse.jetty.servlet.DefaultServlet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class
+})
+@TestPropertySource(properties = {
+        "ot.httpserver.static-path=static-cache-test",
+        "ot.httpserver.static-cache.enabled=true",
+})
+// The cache is built when the server starts, not on the first request
+public class StaticAssetStartupTest {
+
+    @Inject
+    @Named("staticResourceServlet")
+    private ServletRegistrationBean<DefaultServlet> staticResourceServlet;
+
+    @Test
+    public void indexedBeforeFirstRequest() {
+        final StaticAssetServlet servlet = (StaticAssetServlet) staticResourceServlet.getServlet();
+        Assert.assertEquals(3, servlet.getCachedFileCount());
+        Assert.assertTrue(servlet.getCachedBytes() > 0);
+    }
+}
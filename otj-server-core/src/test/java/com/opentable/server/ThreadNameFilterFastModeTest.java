@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import javax.inject.Inject;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.opentable.server.ThreadNameFilterConfiguration.ThreadNameFilter;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class
+})
+@TestPropertySource(properties = {
+        "ot.server.thread-name-filter.mode=fast",
+})
+// Same thread names as the default mode, built from a cached timestamp
+public class ThreadNameFilterFastModeTest {
+
+    @Inject
+    private LoopbackRequest request;
+
+    private final TestRestTemplate client = new TestRestTemplate();
+
+    @Test
+    public void test() {
+        final String name = client.getForObject(request.of("/threadname"), String.class);
+        Assert.assertTrue(name, name.endsWith(":/threadname"));
+        Instant.parse(name.substring(0, name.length() - ":/threadname".length()));
+    }
+
+    @Test
+    public void truncatesLongUris() {
+        final ThreadNameFilter filter = new ThreadNameFilter(ThreadNameFilter.FAST_MODE, Duration.ofSeconds(1), 8);
+        filter.init(null);
+        Assert.assertTrue(filter.threadName("/a/very/long/uri").endsWith(":/a/very/..."));
+        Assert.assertTrue(filter.threadName("/short").endsWith(":/short"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void rejectsUnknownMode() {
+        new ThreadNameFilter("slow", Duration.ofSeconds(1), 8).init(null);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.IOException;
+import java.net.URL;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+
+import javax.inject.Inject;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.io.Resources;
+
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.SslConnectionFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class
+})
+@TestPropertySource(properties = {
+        "ot.httpserver.active-connectors=default-http,secure-http",
+        "ot.httpserver.connector.secure-http.protocol=https",
+        "ot.httpserver.connector.secure-http.port=0",
+        "ot.httpserver.connector.secure-http.keystorePassword=verysecure",
+        "ot.httpserver.connector.secure-http.sslSessionCacheSize=1000",
+        "ot.httpserver.connector.secure-http.sslSessionTimeout=600",
+})
+public class TlsSessionResumptionTest {
+    @Inject
+    private Server server;
+
+    @Inject
+    private HttpServerInfo info;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @DynamicPropertySource
+    static void keystore(DynamicPropertyRegistry registry) {
+        registry.add("ot.httpserver.connector.secure-http.keystore", () -> Resources.getResource("test-ssl/keystore.jks").toString());
+    }
+
+    @Test
+    public void testResumedHandshakesAreCounted() throws Exception {
+        final Connector secure = Arrays.stream(server.getConnectors())
+                .filter(c -> "secure-http".equals(c.getName()))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+        final SslConnectionFactory ssl = ((ServerConnector) secure).getConnectionFactory(SslConnectionFactory.class);
+        Assert.assertEquals(1000, ssl.getSslContextFactory().getSslSessionCacheSize());
+        Assert.assertEquals(600, ssl.getSslContextFactory().getSslSessionTimeout());
+        final TlsHandshakeMetrics handshakes = ssl.getBean(TlsHandshakeMetrics.class);
+        Assert.assertNotNull(handshakes);
+
+        // Each request gets a new connection, the client's session cache lets the later ones resume
+        final SSLContext client = trustingContext();
+        final int port = info.getConnectors().get("secure-http").getPort();
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(200, status(client, port));
+        }
+
+        for (int i = 0; i < 500 && handshakes.getFullHandshakes() + handshakes.getResumedHandshakes() < 3; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1, handshakes.getFullHandshakes());
+        Assert.assertEquals(2, handshakes.getResumedHandshakes());
+        Assert.assertEquals(0, handshakes.getFailedHandshakes());
+        Assert.assertEquals(2, metricRegistry.meter("http-server.tls.secure-http.resumed-handshakes").getCount());
+    }
+
+    private static int status(SSLContext client, int port) throws IOException {
+        final HttpsURLConnection connection = (HttpsURLConnection) new URL("https://localhost:" + port + "/hello").openConnection();
+        connection.setSSLSocketFactory(client.getSocketFactory());
+        connection.setHostnameVerifier((host, session) -> true);
+        connection.setRequestProperty("Connection", "close");
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static SSLContext trustingContext() throws Exception {
+        final SSLContext context = SSLContext.getInstance("TLS");
+        context.init(null, new TrustManager[] { new X509TrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        } }, new SecureRandom());
+        return context;
+    }
+}
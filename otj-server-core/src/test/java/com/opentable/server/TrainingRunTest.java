@@ -0,0 +1,32 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// The exit itself is left to the JVM; this checks the application is shut down cleanly first
+public class TrainingRunTest {
+    @Test
+    public void testFinishTrainingRun() {
+        final ConfigurableApplicationContext ctx = OTApplication.run(TestServerConfiguration.class, new String[0],
+                ImmutableMap.of("server.port", "0"));
+        Assert.assertTrue(ctx.isActive());
+        Assert.assertEquals(0, OTApplication.finishTrainingRun(ctx));
+        Assert.assertFalse(ctx.isActive());
+    }
+}
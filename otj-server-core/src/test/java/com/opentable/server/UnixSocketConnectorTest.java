@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.inject.Inject;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class
+})
+@TestPropertySource(properties = {
+        "ot.httpserver.active-connectors=default-http,sidecar",
+        "ot.httpserver.connector.sidecar.protocol=unix",
+        "ot.httpserver.connector.sidecar.unixSocketPath=${java.io.tmpdir}/otj-server-unix-socket-test.sock",
+})
+// Verify a unix connector serves HTTP over its socket file
+public class UnixSocketConnectorTest {
+
+    @Inject
+    private HttpServerInfo info;
+
+    @BeforeClass
+    public static void requireUnixSockets() {
+        Assume.assumeTrue("unix domain sockets need Java 16+", Runtime.version().feature() >= 16);
+    }
+
+    @Test
+    public void test() throws Exception {
+        final ConnectorInfo sidecar = info.getConnectors().get("sidecar");
+        Assert.assertEquals(-1, sidecar.getPort());
+        final Path path = Paths.get(sidecar.getUnixSocketPath());
+
+        try (SocketChannel channel = openUnixChannel(path)) {
+            channel.write(ByteBuffer.wrap("GET /hello HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII)));
+            final String response = readAll(channel);
+            Assert.assertTrue(response, response.startsWith("HTTP/1.1 200 OK"));
+            Assert.assertTrue(response, response.endsWith(TestServerConfiguration.HELLO_WORLD));
+        }
+    }
+
+    /**
+     * The unix socket channel API appeared in Java 16, after the release this module is compiled for.
+     */
+    private static SocketChannel openUnixChannel(Path path) throws ReflectiveOperationException {
+        final SocketAddress address = (SocketAddress) Class.forName("java.net.UnixDomainSocketAddress")
+                .getMethod("of", Path.class)
+                .invoke(null, path);
+        final SocketChannel channel = (SocketChannel) SocketChannel.class.getMethod("open", ProtocolFamily.class)
+                .invoke(null, StandardProtocolFamily.valueOf("UNIX"));
+        try {
+            channel.connect(address);
+        } catch (IOException | RuntimeException e) {
+            try {
+                channel.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new IllegalStateException("couldn't connect to " + path, e);
+        }
+        return channel;
+    }
+
+    private static String readAll(SocketChannel channel) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while (channel.read(buffer) >= 0) {
+            buffer.flip();
+            out.write(buffer.array(), 0, buffer.limit());
+            buffer.clear();
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
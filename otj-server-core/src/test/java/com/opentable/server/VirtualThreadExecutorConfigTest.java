@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import org.eclipse.jetty.util.VirtualThreads;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.Assert;
+import org.junit.Test;
+
+// Executor settings are checked on every JVM, VirtualThreadExecutorTest only runs where virtual threads exist
+public class VirtualThreadExecutorConfigTest {
+
+    @Test
+    public void testVirtual() {
+        final QueuedThreadPool qtp = new QueuedThreadPool();
+        if (VirtualThreads.areSupported()) {
+            EmbeddedJettyBase.configureExecutor(qtp, EmbeddedJettyBase.VIRTUAL_EXECUTOR, "ot.httpserver.executor");
+            Assert.assertTrue(qtp.isUseVirtualThreads());
+        } else {
+            // Rejected rather than silently falling back to platform threads
+            final IllegalStateException e = Assert.assertThrows(IllegalStateException.class,
+                    () -> EmbeddedJettyBase.configureExecutor(qtp, EmbeddedJettyBase.VIRTUAL_EXECUTOR, "ot.httpserver.executor"));
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("'ot.httpserver.executor=virtual'"));
+            Assert.assertFalse(qtp.isUseVirtualThreads());
+        }
+    }
+
+    @Test
+    public void testPlatform() {
+        final QueuedThreadPool qtp = new QueuedThreadPool();
+        EmbeddedJettyBase.configureExecutor(qtp, EmbeddedJettyBase.PLATFORM_EXECUTOR, "ot.httpserver.executor");
+        Assert.assertFalse(qtp.isUseVirtualThreads());
+    }
+
+    @Test
+    public void testUnknown() {
+        final QueuedThreadPool qtp = new QueuedThreadPool();
+        final UnsupportedOperationException e = Assert.assertThrows(UnsupportedOperationException.class,
+                () -> EmbeddedJettyBase.configureExecutor(qtp, "green", "ot.httpserver.connector.public-http.executor"));
+        Assert.assertTrue(e.getMessage(), e.getMessage().contains("ot.httpserver.connector.public-http.executor"));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import javax.inject.Inject;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.VirtualThreads;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestServerConfiguration.class
+})
+@TestPropertySource(properties = {
+        "ot.httpserver.executor=virtual",
+        "ot.httpserver.max-threads=13",
+})
+// Verify requests are served when handing blocking work to virtual threads
+public class VirtualThreadExecutorTest {
+
+    @Inject
+    private Server server;
+
+    @Inject
+    private HttpServerInfo info;
+
+    @Inject
+    private LoopbackRequest request;
+
+    private final TestRestTemplate client = new TestRestTemplate();
+
+    @BeforeClass
+    public static void requireVirtualThreads() {
+        Assume.assumeTrue("virtual threads not supported by this JVM", VirtualThreads.areSupported());
+    }
+
+    @Test
+    public void test() {
+        final QueuedThreadPool qtp = (QueuedThreadPool) server.getThreadPool();
+        Assert.assertTrue(qtp.isUseVirtualThreads());
+        Assert.assertEquals(13, qtp.getMaxThreads());
+        Assert.assertTrue(info.isVirtualThreads());
+        Assert.assertEquals(HttpServerInfo.UNBOUNDED_POOL_SIZE, info.getPoolSize());
+
+        final ResponseEntity<String> r = client.getForEntity(request.of("/hello"), String.class);
+        Assert.assertEquals(TestServerConfiguration.HELLO_WORLD, r.getBody());
+    }
+}
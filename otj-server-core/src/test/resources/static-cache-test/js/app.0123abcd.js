@@ -0,0 +1,41 @@
+// Test bundle
+export function handler0(event) { return event.target.value + 0; }
+export function handler1(event) { return event.target.value + 1; }
+export function handler2(event) { return event.target.value + 2; }
+export function handler3(event) { return event.target.value + 3; }
+export function handler4(event) { return event.target.value + 4; }
+export function handler5(event) { return event.target.value + 5; }
+export function handler6(event) { return event.target.value + 6; }
+export function handler7(event) { return event.target.value + 7; }
+export function handler8(event) { return event.target.value + 8; }
+export function handler9(event) { return event.target.value + 9; }
+export function handler10(event) { return event.target.value + 10; }
+export function handler11(event) { return event.target.value + 11; }
+export function handler12(event) { return event.target.value + 12; }
+export function handler13(event) { return event.target.value + 13; }
+export function handler14(event) { return event.target.value + 14; }
+export function handler15(event) { return event.target.value + 15; }
+export function handler16(event) { return event.target.value + 16; }
+export function handler17(event) { return event.target.value + 17; }
+export function handler18(event) { return event.target.value + 18; }
+export function handler19(event) { return event.target.value + 19; }
+export function handler20(event) { return event.target.value + 20; }
+export function handler21(event) { return event.target.value + 21; }
+export function handler22(event) { return event.target.value + 22; }
+export function handler23(event) { return event.target.value + 23; }
+export function handler24(event) { return event.target.value + 24; }
+export function handler25(event) { return event.target.value + 25; }
+export function handler26(event) { return event.target.value + 26; }
+export function handler27(event) { return event.target.value + 27; }
+export function handler28(event) { return event.target.value + 28; }
+export function handler29(event) { return event.target.value + 29; }
+export function handler30(event) { return event.target.value + 30; }
+export function handler31(event) { return event.target.value + 31; }
+export function handler32(event) { return event.target.value + 32; }
+export function handler33(event) { return event.target.value + 33; }
+export function handler34(event) { return event.target.value + 34; }
+export function handler35(event) { return event.target.value + 35; }
+export function handler36(event) { return event.target.value + 36; }
+export function handler37(event) { return event.target.value + 37; }
+export function handler38(event) { return event.target.value + 38; }
+export function handler39(event) { return event.target.value + 39; }
@@ -0,0 +1,257 @@
+/* Vendor bundle, it and its pre-built gzip sibling are larger than the test max-file-size */
+var v000 = "oxwGvUY+OSO8Gq295IsWl2wIBxc3O4GaBo8yt6azi2s4cpZHz94Bws4osmxXRyc3";
+var v001 = "9cNWGhdhGFvYWJpDzgu6dYkf+exgFI1L1KCe4txckzG0EQupOsVK/BTaO90ZYUd0";
+var v002 = "otVdKV5aNatEs++upRKboiuIuj4pdmFF/eyjsI44r1PXxMYOOtIIzlBmRBA26fGR";
+var v003 = "4LdQNqd/ZeLqpHUkQyM/vo+JQ7+VbeWVZlw4//8jgn4XwQzcHCegKMqubJgQYmGY";
+var v004 = "/3eHQPiN3PECrrgdruKJwETEpFccS28odAD0uOC4Q/iAwy2B6RveoEzXo4GbMidf";
+var v005 = "wymK9Mfsh+sAmVJ9BBztXOD81M5OPQ494JHyFBW7fNAR+sKIxCAgqHnyjCpDh9+b";
+var v006 = "bPY27YrBurAztk9m/qumX3DmhHMePzkQVgWWjTqWOAEStaEPOhHnCNxUEoM8R6t8";
+var v007 = "Noohue/hkpN5Psh5zmgwGBioblpsaXfdug2sp/ulGQ9nulbM3Bs/MTCJciNsLkd2";
+var v008 = "P9/sE3HO3NuMGQym/4rWA/gX7cDZPCpofHs23WbnDyphAPxjQ+3IyHRJbLL1u/7I";
+var v009 = "jqm3fCcwSzf3DpS8ig+/UA4MlXqA69qHKA71ghTZLxGYEazcPGce8eORP5SYCp4U";
+var v010 = "a6iVkIVQ70I0q7dQPUNlIaulTHVQ7cDvEgJ1n/+Q/xkSiTaBQyHuWeER4T5eSChw";
+var v011 = "1Yu0TZz7/M6nhwKq0Y1M7qka8OAiQx3jG76NJ0VImjW3VzSvotpDgX1A5+jYDRei";
+var v012 = "bNRGCwBVxSGj+kMpvXGNtG2PAhwT8eKw5yaLCdVelY0lbiAKTl3m7sv43ArmWzWu";
+var v013 = "P6oaWseP4t9o+Z6/J+zuPN0p+czPLeFpBi287FXI7mnNq928zz9EKMmzG2HfCdt4";
+var v014 = "ODPR63VZTtLL3zo5BqgxZlRH3RH3xUdZpIJmrfvXiVTwBx3g+EItlPb7QwkbmG9Y";
+var v015 = "uslQb5v7gh1i5pMwQQu1bwCF7M6Jr7jwvbyrMl1uEfKq61SfUKnZH7jmTIFPqmhT";
+var v016 = "Z7JLjSAxa6rwYa2/5yydkU1njNUATUk1bsmUm6dSd3FxrDaCecvm9cu8K6gVSIOp";
+var v017 = "op5VF9HzwDysTznOMiUGCz77eZzZxBJ0auKhkzG3smJ+Zj4lp7AB5MDcxeIbx2w4";
+var v018 = "Lc31soR2DI4/6tkfdCLNdqqH/I+YUfPB5HGc0LjkgW3U6Ixy5Si+3HlzQsA/16NG";
+var v019 = "xMeFfKA9RnATtkk8RVVR5IoUIyY7YrEntDYQamhUindqDzTVa2PnxZXysgXb4cOT";
+var v020 = "YXoB8VpMwGPa5PTVa4m/vIvMmuU4fDhFb3wHY1arrcxnuSrXd+sg+5+IBuhkl5Cp";
+var v021 = "BhWkbSLddi4MQmFTNnRTVsLhYUfA89RrQNUUeAS/ig3/81k5phHH9aYKwQfzPzPW";
+var v022 = "BZ8nPSB5qx2Q8jd3s0HEXiqbm/a/tx3H0Sn2TxuUBu1Pk63o9WBl8bcyE5ew1KA+";
+var v023 = "GrLFTdmvmc4ey/uQyApYiG2pXhGBpVcD2WvSfRtu9Vyi5NR1tSdvLbuF96ZFnc7r";
+var v024 = "icZ7d2/Tu5dEUto+1O8WR+FzPsB2kZyrYVYHftlTLnw2WsxCV0fhmLPhRo4ChPIw";
+var v025 = "FT24aH2Owj2weaW2fXLKBBdLOGexPk6plF55jYdYbP++jFRas3RFTkA7HrgxUB6+";
+var v026 = "ifPDsC8xN717RrmW+sKGmEj7GdUxSzpcLU0DtYggRgv5DY1KsvEgo97AfRrfA5JI";
+var v027 = "eHpwVy/3DUDw3Hod0hBmfRKToa8NJibPkPJNFf4/Ho7DapuYyp45xoVhc+hxTNyW";
+var v028 = "/W1OkZ4PnPW9GfLDNaA2Q6kUKD0sjRMoAGhzsJh4Sgg7SbRIs9x0Eq877EPJyqCW";
+var v029 = "qc3vMmwdizmlJuhE0yQSDyrKTpi/05HrSXAfd7BNs2fxRYCKfnAUmQrjbrxSmkAG";
+var v030 = "Fzr2rNbck5bzBf/DrNJEkwrDwSx4hKZx6kcu/5VvotB9+Bd4WWhVUqsa2ylUabF+";
+var v031 = "SanxZtDCjAl0FlBAUh34xWfdg9P8AKjeinZpDTCEXJ/Bf6Bxwg00RIwh7Ulw4bJ8";
+var v032 = "Hwf5oZvMPbUoT40DjWgXOf7X6R128h6l1Sd/7rdKgrRFatV7+ng+dI0lYjDrmYK/";
+var v033 = "4SLdEUbFytpqV+/JgUTSAEi5TNaWlP+ofd0mcol7WFWNw4tgdO5S3jD7sj2SYjvb";
+var v034 = "xmkLUb55tOnPYWL9qcrSpvsmfvYJIID3l1TeGd/YcBmG6XQDuCRo3qf4JxN4yPhD";
+var v035 = "Vp+xZaYU2lTarNuIYfRRoLfjwnzfigmeETyhr+tJ/zq/F2/6GcKitN8ZcSqxTOcH";
+var v036 = "C1PLDktbX24lPodpkK7KLissFJzeYZ6uPX/plSQ7dqNBdUGqAubNd+ZJrYsoEnHx";
+var v037 = "WPyWTKP2bLBAdNhNMv9i2nsbPGGSW5NL/rNLBfrUqGVGApDdr8e++Qzpm75/1efn";
+var v038 = "ScbMOpvNWjiiMJ5ArcG4xKiu1iOgGOegpQpPyXAIlF27IRfoS1O/aiwzIcmK4Phd";
+var v039 = "h4DpRdQqQenT8Xv3zku/3lbNHXf2EyTB9zncrbms+mX32M2OXRfKZQNDiR90Xqy/";
+var v040 = "rEOVYdKj8F8brDt4Bp7i8Y9T6pw4pRCi0nbos02maB0jC/IJTf5+HRg844kiY3Re";
+var v041 = "q/O+svKKa5a+uifiaqcZ1X2daPDzRwiwXjdxcfM82lwZ+69ei+b6pVsPZUYw9x/y";
+var v042 = "2dJ0F6k2pKOY+AUMyVU+/SDJkDQR1MONNZY30N47VMYlyeaYAEbb+yX8IYpAzCwc";
+var v043 = "qd0GIQNbysk8llIELEMNIL1rhh2+EHlyx1yDlxtzgDjynQu6yOjdqIVNdaT2Bw//";
+var v044 = "ethmba8bfbbocRLmFFKbJRAgRp+ilYy2U2H+mIdLdIGabhnLsx3ap6bgxI243Tdu";
+var v045 = "c+M6aVbTdGZquhhQbVCqQV/0J6/seREX1BUXbhi+vV/PIY4PlvSPj1SrH2la36rw";
+var v046 = "wGze6rgN90mZT1oak4E2J6h7OdgbWdiOXh3DR5I5zm3Yj/nE0Z+drKSOBpvtqNSx";
+var v047 = "RAcuRbPDT+tWWQEu3iSQqGYRJL2i+AcXv4c3YGt0VyheT7hTxvGRmBXiDScowZ4M";
+var v048 = "rBRFcalsfJtxakU3wYMdWG4cSK2tl3yGqk4LOGX8mQ4BNE3yNsQjw0FKUx4Bf79u";
+var v049 = "LCFhiLQ6gI/Vq85aEmXcvQpvBHXrE9xQk22SZ7WjakodZwX3UyvN8p511LDrXBZv";
+var v050 = "2Bs+b5ZmhhRl3k++VjhVxysTgqIdh4Ix58ZZWbr10aXQJTwaJUEyLJonwsKnEy3z";
+var v051 = "xaB+dsGQwpRyruzhkKSi/J9S3figUCZwEXhxoU3LRpcOWoEST3ZzCQ5e1EkTpd36";
+var v052 = "2hedmIFidpSN9Mq95Qpz6M+SpjBSmnmAJvUPcxrP5tZX+7YVgaUsCj+1cP1whoWc";
+var v053 = "KF1f6khjaMZWrZkNyqGlVRBUGI6tYkhAudqo9uia3yZVFJWpJOpZT/ensqlkIZi1";
+var v054 = "8BVPj2CkylTQIKuz1PK9/6/phhelq2yCXARcTy7zNlfyxHwxOf8jJxNL2MkZgcWK";
+var v055 = "1b3ihgmpVuDEniGYYCcpLtSxxZ/P5yq4cAtpXa24PPhxnEjAv8hyO4g9T/fPyHjn";
+var v056 = "1TFerfKS/HB2xEjHYYCHa/cp0TPNmiPfQA2ke99fje8attiE2R9IFcMpRXPngyXU";
+var v057 = "bxfy6TjRc+JZ7gZqDWWAXzxi/hRfOQdR7hnWtqZVyiUjCUnq1Hiy1CPCtHhynQHn";
+var v058 = "FARBN9UmjPC6m4dsHMZJPE0fDD1ro8ufdRAc1ud/mIkEoYOTPbckSm0AnVo9kmov";
+var v059 = "qqsVhvlcEfSGi4HJ/YGNBWPfeAuiY/tfQL8EW8kRWD27qKAaxZS8wVUiC1qLVtCk";
+var v060 = "LNTHr3b7snqhLs8iELfG8XUJSzMLyjPiClDuT4Nl/dCLeUAJwKUwSVvcxwzdp1RF";
+var v061 = "H8xeb+NmvnDl9GJW+S9/sX9e7MyERM0VumwUbpr+0i6LS1IaFFOpS05ymrdtKrBx";
+var v062 = "WXIKut7pWp3/b0aj+sryDhOro2ddg82/rSjzByTZm63IcAggETzHpV1cYvORCJon";
+var v063 = "rXPyXl9xwxOSI4ddZVCmRz/1HQa8L3+EY+mPHkPGQrRyNv+cSbHq/30zHyLaEnMs";
+var v064 = "5rZx/xbPrvfY/FGqWLUQjIpK5EzZKLa17bOjLMtcgjkf/DPKIzzKfgZcjZJed837";
+var v065 = "jSGc4hYQT2X/t7h6hmnEaNKTEiD4UaQSc3euhFgg4NTHjaOWLsT3IW6A6d4O1B+E";
+var v066 = "J00qKVLvtTlY8vCE5UjYFEAyovSNRiCgTZ2IF4CkK5fxlCcrqJ+45ppW1+yQCtPd";
+var v067 = "BxQL8qTFk0OmNcSSap6jB3/joItKpPRNez7Ozq9nTHQSsA8ocGp7djRXmyRQ3LdR";
+var v068 = "u/zcWPlmIcJeg48bUT13H0RzPyQYDEryYt2daz/23eYo0FPvk7hQMMMof/6Dd3/h";
+var v069 = "Tn8FF/FkgXX3PTeVWgwMSH6Y4denrHhJiQLYG24i4UO6XcNnXQtmDZGPMVyNSRJi";
+var v070 = "gXPDjEfT/Z+unB4g+RhkX8v8Vo7wXcEkMpqCZoAKCwkjtlXNeYR0JpvkgyNT7pxR";
+var v071 = "KWT9nb3XTJdWgdSCiH21kEx50AReVKwc+mqVTsvmud+woQaYeUP3p8j4xpSTOrgN";
+var v072 = "lXorhqG4nsbXYSXSrj4IkvKzHDAEcFBrJmmwNGmAxpzreN/ZvLoPtCOENY9T/6l6";
+var v073 = "hmBQ9Cx16YhXi1qtxd64rqTNsUOcezH1P0eOTDnx+ftMxUm0NbC0fVF6WY/v78u4";
+var v074 = "Rkkfkq2LYeX6ZdFY9MXNJUoKSfS2FFjscadBv3o2M9OJRe6PskUjG529lj0+DKvn";
+var v075 = "hzmjOw0ZaVS3eBmuxSMB9oz67Shop+/h4Hl6pjPB9klSSaUP6MQWppI7iL252e8J";
+var v076 = "6essauHWLe/rCf/WZcl+L++/9t/tSuAJAkyRmhvt+1VIdP2ki4Z+4/Ai2YF3RTHP";
+var v077 = "HFQpu3WlQbcvA7xWykuRrMExLJzbo+Vn022DUxZmqxgv+yN6Uu8/AUJiPHLARPRU";
+var v078 = "TZW5kgJCp1yxPA+qHndOKGevgOzl47TFT7Aeo+rwS16dODj1InondL/9m19qs4zp";
+var v079 = "eMGJzarTN8M/rsGY38kUhnKHtFwT6pAcD9SM54EzkokmKlPahXEdrjS3lX0X5oJy";
+var v080 = "zw50IYNqdJAOj3aszk65BWVB0QC+N5QSC2xYsxCK/g/v5BH873gISWguxCLEpPq6";
+var v081 = "pfZrX/7kYXLe6uhgYBSu9qnfiiKn3FkeLf6JZIcguvo51QDBBfpMdqy4i2yIYdI6";
+var v082 = "P3VYJ0Yw7+C5wxwIz6lrncTv4uMEPTQRGZgIcpmstN8MPr0LZnA7ijfB3cYOI4D+";
+var v083 = "SjvQ6ruTUZOZxazRUjxN4CT8qYU4aUxGD47yl+G86SygrW2Ofgz4WPGkq2HJhlGy";
+var v084 = "amgmTGAvwYl5Pdk5TNu1JM526g6PafdqjociYz5BNFSlFOxz2F4XibnUMA1EYKya";
+var v085 = "mgrfEjDNwpa5q483ejXe6FVN9OgDNu8w9r0ev//Beuo+spq0NGXqPY1Sxkhhd4im";
+var v086 = "W05CXIPhf3cZzfu4eMLWUeo0XlBpC5DdOL0lBEKN75WUuGpLJzJUOmGR1T5/jKfx";
+var v087 = "r1ZBw9J997mkvX11K7vLWisjuIt9L+rjiv2k9Q+GCNbYE/HRqwzDAWkj16E7EbUm";
+var v088 = "AjeBdF8PnqOq753pe6h8BAGIjWkDBIe4Ron6SQSA0LKsbs7w6C0b6xiGJj0xnoZA";
+var v089 = "0FpEy2UUX/VndZA+/bI5TK/T2RSn/dumwggXZ2FgjXkOowKzKxV/2G+lyFSQ+tv5";
+var v090 = "GOWH6wo6NubeseOReUUL7BOv7Efmi5CoCC3t2VAE9jWWJMDSttJl7RNMKZA9kdXZ";
+var v091 = "Y63lilRiwb0jyv2wuRSAvvlYDRlvO9YTV5rEnfSYZfjGUweiRcj+c306W43wYG4v";
+var v092 = "rpWpYRXFnkvMP7YSFUQnYbbIoie9Y1FcGxcB8U5xXMJFGiEWL25yjo6DaBoGFlqN";
+var v093 = "F5iZyFPdYgNKaWPHFbnmj+f++j6ShSuvYSsjRE1EfiUQKm9Ga0x7yBNcQPE/uKB+";
+var v094 = "mJ0ydRsiTQHyZVXXnmHN3FRwVW7Q0tym+ZgiTFKa8rEzelAt9mX3UUq8saJ995PI";
+var v095 = "PlNgR9HJZF0d7pAzl/+LLq7EjAbzunbxtTVwzErUsRHR2cvLaKx/I6JNPUCoJ7ds";
+var v096 = "ymAScv2ZepVmiIHs696xa4sJyvdcs+XPiZij6hUbxD+oqloqpZwLkPulraVm98BU";
+var v097 = "98tuGwIZQjiCv4SOlLCTOHJfZHbFrZawgCZY/wZ7Gktq6/YVHdTwuiRZT1d0yDSF";
+var v098 = "e1l5GHC4snNREUwLz7UdBdlXpRutzCru+70+hCyNKFSPbfV2O8xnoS8vo6huZQe8";
+var v099 = "neIyc5dtYwG0NjRHwLTPyxCTGszfiS9dUzJ1HUOr3H2H96NQmGOcZJYdWVrYdZ4s";
+var v100 = "0Ky0zEzrnZcVrCJQHj1OHS5fsSSCY2uYI5NibC98oomx66Xu/yyOKn1JIy9Q13Oe";
+var v101 = "Dd1b8wJ8IjHQYvaPgad+aK99arXXcX0qFZAHy8I4SghGOYlJK8d1kL7FxH6MghyS";
+var v102 = "HUTGi9L9XYrSwQrCuHCLN/1sGrzUp8A/TN//CHNDWdzRFnDd/h7Gzzw1z7yWsFnc";
+var v103 = "tZyhbSqdI8g00DTOD5FZiEeYiStS+rRKSpJE89uD/Oat0Bgi9sDJaesP/kbdpyCz";
+var v104 = "3SE/JbZS1D/C161kfSSToUSgamBzE6LL4cQXZ4O/R7Hv4F5083xTlADexti7F7v4";
+var v105 = "daKqslvZEMuIZTf3bdM2fkRS1EhWjJMhkNp8yVfkrsMMCxmgyNZ1BB/t2yhwdAD9";
+var v106 = "9W0z/rDoIeGmTSjf7uBGF6dcQBVfquemKg1loE65s8E7bacXtBgANnoTIZc5hK5x";
+var v107 = "AgKyV9Ee/NxssSF6EjpiFrvOGhpQXuFMI2HG0MDfIqT+rSQRh5ACnKYqcFm4NqC/";
+var v108 = "Jutpna9x3DcW5RkjwB+WumJZ9m1QyiM/RqUVP42ZmbibSMfwsAbZ2KjgTTSEm4Iw";
+var v109 = "v2RLpQ3I5cv0PX5iHD1/o5gSh+P6A/xc71EhY9zWkWtdi64sw3j0/MUSBJYRA0M3";
+var v110 = "CuwP8splgUmgtoDEamyzZhWjiYmdJ0cVTxSC6zT5zieJU2SWosPVpq6kEE+yb7r0";
+var v111 = "2D0OPhbsbx10nJsOT6q9qL0sHgO1I7MCKX/zWIWEyNK4QipfIL/H30S74h7F5gdV";
+var v112 = "zm1FhhBDtvmToBN/dIJcDn/bkSpeKEHFGuSSrLkdOr2CAAvb3AM+C3hdYusmLe71";
+var v113 = "2wmNzem2vadrOVI/auq4UUXTE5JfHoCs5g0tOc2E+wv0ZhHgd91IxthPUxaNdAJe";
+var v114 = "M0qQyE29nz52Xpf4fv/FxjK75ovCyz4mAe5oBjuKWKLWseAC81UAwqhg2by6Tho0";
+var v115 = "h/s8a332D/j/JLZHFwvrO+XYhWmz5V91+b8VlBiBIqPRZBOXkQ9vqfYhPEpC2VDt";
+var v116 = "zWSz1LxTUXNFOxPxMyLHxZUbJxsqc3dQaB6JW/bFNXNOdkPaHhcozq9N07Symgo3";
+var v117 = "1dtTJRe2P/dbZYMMrUxC0f0sB/Nn2nOOv4w/GHYazcsjHwMP1Mf7OCEy0mZfr6Hw";
+var v118 = "pRWVlkLq0BMF/xAy56VxzyAX59jUz1QfCvF2DCvskm7SuWV/B2GubSxaNugvRkdy";
+var v119 = "4iYInZ6dPqVLf2nhjHoPFkdiI2szpOLMhj+h/s2LywT9Yci2W3qLyHxY6ZCAUmNF";
+var v120 = "LgZRmDgH5c/HRw7P/XiHW8SV/zv5KBk/qD1EiNDK6rwOw//yOJPY+8xjWu/W/dgs";
+var v121 = "LTyXUc68slvplwe0s1rykZAkkPIw1vzP4fh+ik8sfQkXDjuaOAWGegBU6p0zziFX";
+var v122 = "ty3rzdjeUg8FJZa06iTGHNiG3F31El+08alllhlWTVIi+Si78m/Ko/V8plEstfeP";
+var v123 = "sePtnclbOaqW0CxgTruwSyAtugDys/KSZNn+xfeRCC6aUevP95w4o5Aa738kVL4T";
+var v124 = "PFj7USqi4vYW0rWro7riVXICQzU/sRFZQckbuAAMYnC7a/gq4ml+4WBZi2AZ1HrJ";
+var v125 = "3ZOmwq85KXMSzNgISwVRQvMaElcr42ApuxOM8eX6F1aY/J3ke7QHbvGnKpvjbygN";
+var v126 = "GVQ0+TBoso247LqKQ6lITDwYDGSSjNd9Jw1cAG0WS9KpoJl6MxgGNCujSvoUedgd";
+var v127 = "TshleH3lqUMXpItjL17iYV4vcgtDcHdDOdZEkA8mwLKqGBWrWM6KafjBljqND9dj";
+var v128 = "0YVr94mv3e95kuE8eUwUZefatgiAkuaEzJKt+54lHvPBcizy+yr4Ns4xIApsFPyu";
+var v129 = "bzP/0qAl1ZhCUem66s4RFmOOZY1T20aFderfA8mzn5aFyGscaiYlkZaVwvbwGewb";
+var v130 = "kMcZyUneieFY4GlDYqd8kpt5CSxGZySem66xZgll4+FUsDwMvnnrROVfBVbRy01P";
+var v131 = "R9d927KvGfjeOiJM+b5xxtNSRLpqmqUWMHE26dJovXzChN5f0g6DyigQT7WBZyLH";
+var v132 = "2YbhkQcsMeDVM9YOPwh0DOtctDJGXtJ2gWWi7B+uBz1ffZhyLfXeeZaNWVgp1uRC";
+var v133 = "v9SwF0gHYgwp2pLH9zbbOKU5rTREpmiDBd3H98SuAnnpIaUsmc0COUCbzvFOtve1";
+var v134 = "pEZs5WDaWXVAN3dNrYXTn2WVGgGC/6n319Zfj6WYm0hMrxt7EFb9RqNT3EZCp7bz";
+var v135 = "5KZMMCaEwz3mDs7bzc+ZZ6lRriO4Bqd//0tC6GtnY7wJlbX+ktAwV7m2OK+Io8h5";
+var v136 = "6PCrW4FM2CvXqOCOLksYeCC9QrnOj8PpLvKu5lWnFjhaOb7fTmvJ41RfQpVLdtke";
+var v137 = "eA3dopWU8Z4SeOMxgB7ermGHTGkN3tomI/4zV2j8keTo/HUkUNy3LscUfFWh/C1Q";
+var v138 = "og4Bc0Y1wsYrk8MofcnDxxYhnW+ibWdt93piAQmIM7tf8wPkUsHVhzAErQGguz85";
+var v139 = "seBYTyEaYoCWTioQ0gtM8kp0uoWYhlZv46/+Ilf/5n1bwDAq8ujrz2cEOjm6/CE2";
+var v140 = "uwWWgSsfXbamyglg4KNBxYifDJj+DKkbp9YFDLAdanFhH4xAebMnNLGvoQJNa6kZ";
+var v141 = "qYVFn5uzI2vU5hqCuJ4eSB3IG38ymzPHQ9SF+TNbtGhLKQqMf+k1sO57VDwAA6sW";
+var v142 = "6BzVkqt+JvMXx4ITubkZ50GkO3T9+ktDdgwZ0CzfCtpKXM2tUG29HRjZwuMLAtoj";
+var v143 = "qaUrVFvkcPSfROC7F1/QVy4dZmb2dEXVYrDZesxrpuLMKhwhsrkP+/HYKBpq6Zd7";
+var v144 = "zZGtcC6cYcdbnAfcr+HWuvnkIXvrfBzjaXALEEKnUAO03q2GxL6TuZA5+vSr31aE";
+var v145 = "hbCznhhuqbo/e1ipraRiJtbTjuT8nA0CpO8ogdl42n7eKhPAfVI9VPhHDIE5jKRg";
+var v146 = "Z9E8FHVxzZJyFtt/clAe+3++pwQaZ2kJjowA0xfKmvaeo03jgo80p6t081dd0w3R";
+var v147 = "Odh0VI/Enpl5t6hdt3MdGMKoOABXWtSi9sxKjIVfsxsL5Sp+I9K3vrhoG0GcMjAe";
+var v148 = "7tpkN3XTyDC3VhvBagvtotaslh/F5HN1qJb0gSL2fwGHvAyN727WlXvsgsfr6S2x";
+var v149 = "lCy70CAaY6iZm+FSgeFia/qb6rHDP0Zl9lf4S3POIiNpmrPiv4NM17OM3FC2vO+N";
+var v150 = "oTczNZ+2Sq9Y66wh+7Wm+fUtgIqxo1K1HcJaj3qVkvGqtWqsv+TXiEng2GzOA4Ub";
+var v151 = "BmElDasOM0TAySn7Sa5AJdYPsMhLNMCKCFvQcxqd3qy9j905vqWPYzyCyMvMskmx";
+var v152 = "qgztYWNq9Mn5r1D3jQ0DvkAznt7H3N5x1DnporS1pV7Blou9mjLGufYxS3It+64T";
+var v153 = "L/YsvIMeYAptR45DISmV2EEBVHe17ycKJ+1SmA3G7qCd16lNfcqSjFsSyLVRhjj0";
+var v154 = "L4URyYEoaouJZxdZOOI2qVRUXEs388Ceh3n/j9LA+6YCHatYcj3npJ3rnz71Cq7i";
+var v155 = "UmHqy/EdYkGKuUgG6YTSxV+DzYJyfAtL5aYxUoMV8hgq+PTFiYgBoBA1q6HGNt2v";
+var v156 = "bNUaNInUs+D5vcZvpdHwEr+vJwZ1t1QJFhINLctAjhKT0jrpQmhjc6FnblAEY6we";
+var v157 = "iAGkuJ4Qwb6VC7PZElvtgBtKya9NmxZIw+1wYWXSqQd5KIg4Ir9ky8zZi0v1oiRM";
+var v158 = "rePq98vduqVf9fMCjd+OJB8KAZKYZImM8hVONb+957lYNmnnpdmDJCkvOJ3VQDEd";
+var v159 = "LqvMkdoN2cDu/f6MdqWMEkqrEUAZMrmUfPNUWyCrpzwZSJ4R5jFRfHNUnahOsZUn";
+var v160 = "kJFdzlD1bSsBUD/JOLa9pG9G11wirbtU4Hp2clvGTnyNGyylmxTXR9vTI+SJMkO7";
+var v161 = "4qATuhPkBNmBoQfQlJRnxJc26AmNQovk/4p4p8YmXWQ55MWWu9tKInaAghdlXYAC";
+var v162 = "qT3Z9s77na8qwYMjcigtkPKQqN/3Jby7e/BbCjjCfDsQQ147Cqs0hOjKXGN46nTh";
+var v163 = "Cwr7plIatPeFotRG1b1DlIuRLGCnYF2Wp+XVE4RAYPnoOYRnWtHeWHzKe+OaAYDh";
+var v164 = "I3AqOhODpEc2Ji8oXJq30R6pOmrPVLgde6x6ejWXKaXVaQU+CyCSlykioYMK5JIl";
+var v165 = "DipC7C6E9WeZ+JCjBOC4uqnSSPIVN3Kb/njeeys41GmZJMuV0sQun6iCQyq5r1fs";
+var v166 = "dJiXETpgYiEbBDOF3OiBr2vTJpsYLXnmnZkJ4MiIgMAeF3uoIeaaitMA5fDGraZu";
+var v167 = "hWte3wuyh2068M17ysRhWZbNvejC1rKTGWwiQXrEO+jbFUiZ4ItoQTABtb7KAZOF";
+var v168 = "HoUBYKc0sM1QaFwbJ22mlUBC2olskF2cRv2uZcE0aY3IjnstXo+Oe0D9TpNYxrRl";
+var v169 = "vCPa3agevzpyyLPzKRk2gmbJVs2MnbKvtA0pY/aiAc0X0iV47ZlvFhBDOF4Umwm5";
+var v170 = "Yu78Zp2nhUm29pgO8sbRLKN+cAIz2ajuzYRJMQjImYKEsjudK6wJXD2nAPkoFv9G";
+var v171 = "x2Zaq2VnljOEA7y0EesXjEi51I/qlVlY9tBGOZv2MXTuZ5MBQixogRuPEoBLV/Id";
+var v172 = "zYP0QeCJ0MuTQLFx92CQe8U+wVb2xnWudeWW3Ad7HUIRYaLJ/jitszrMUGn0WoSJ";
+var v173 = "ArPVQz9JF2asv9JXE43uLXlQWjfkkkQu8r+u7ugwf7wzPLw930M0OjPVP9aeWyfH";
+var v174 = "Gx7rFK30qX6dAcPbivUK2XtfnlB+5fzh5ZPeRn0u/MPqgkdlOMCTIA2GzGx68IoI";
+var v175 = "gFhk3K/GLHX5HrKEdVCwAgOsNWGUGVNcnNxCL4xDPER49ZxXXS9/bDVrs8BfXdpm";
+var v176 = "R3MukiH6k6860Bm4Rc08jm7bYTIlzPW9JnnOAi1rfyL+5NmhhIi4UMl8TECP25EM";
+var v177 = "ZRmwKQ830EF51qEYc75VQlxcj47uz0FYBWkfWd6t9psyk5Ompoks+sdIWlOsgnzG";
+var v178 = "vHLjFGGdSXah9CXeKqPO7VZroZySZ9noEhQpVzpQUadKtUSapWVF43HH3PBcv5aF";
+var v179 = "93NpKi/aBSC6PKlA8L6zvxQ1KmUaGBDv4HmMDQbFZYbD/hUaQ54nFafu4mNPOj+8";
+var v180 = "SHGgICGG1isHCKlb3OpT3Xl3+d6K70WMcSL48rKKLZeYdKG/ouCQb4ajo4hP6Fh7";
+var v181 = "ijrOFnFOXWlCJ00CAIXQwtkiWEl4iAKw7H3ywXpMAsRuzEqYO8sBjF8waeGPb2U/";
+var v182 = "Kbe8pWPUYDhDFGygPYTDzOiczrGvRUimvojPRGkw2hEuIkoco3Sec0Wzn30wUgQm";
+var v183 = "DPiIBS/4GkhEILdwugI7FyYDfjdXa0/JzH//X3ayyghUFNfA8yUORMZkEot4LjHl";
+var v184 = "10DRYdQDH/nEtj9ixflxP7z+CDJ1vMUYhar7NXljrvZP71IooboKvu+MhR9Ae6NM";
+var v185 = "MlzjDd2qN/kcPKJvUwMqy0aVHmXKPgL4CpTIsHmwmCdfxRY/KH8Xr55W7vj/wqAP";
+var v186 = "D1ulJ7OJyhsgfDtR+47JpcFYzuRwuzEFsGBbuSJA5gp8tHCPS4qyfTCRL4tZUrt3";
+var v187 = "Rt7UmercjSkRhydzS9FDil10AMajgWG7L+IEnttdxp49UrgQqPeJ0WMwhq5/xI0n";
+var v188 = "nEhSaKRSHBiFqBEL1fAhLd8IMxt8MRkIkqTWY6h9hp+zl0EMXTibtxID7us1p33t";
+var v189 = "49UUd82jD1yOvvDjatJey7UO0p1Ehwq7EtVNE/E39YQYGbk7iGIwMYaoP5Gg8i2O";
+var v190 = "v45qvxvEo5NbrHWzqm3iGirKLoxmgVaoKIj/mXHuWudQjP3/U9hfacOibtO5Ups9";
+var v191 = "kIs2YMSM7b5BXPZzcvVlALkI+0iYBIQi/uNNAUz8ODbbUAXF0vGw0kbrjYKOku2S";
+var v192 = "JxgJdVsnI0Nd45U/O0HPTBeSZpHqN7sTuVPKeyx80+aws5PR6BiYpEwJu86TYRTH";
+var v193 = "DuvFVVnh0W9q7t4e3sU6v6fZmu0CosehYQ1OhgpRipAmU4CyOCcMrLv/ZPhywJiT";
+var v194 = "gRc4bkrJZCUhVhV5kr4MjGZDFWaAb8ayIcMie48yfGWmkjKPnf+8hj8+EkTGblKv";
+var v195 = "7JMWHKtpbF1ZMFJYmKcGxU4r/Fmd0v3NcZ8lcAvs0Tszr18nwbraFRy9DT7ynu0l";
+var v196 = "3tXRSQNXsc0cTnN4BVQ1vYk2NIuFwEKMe5+6/iSxsqsEYJXnqYYLQSsPSDPKsp5F";
+var v197 = "DXen8QIRY6lFqdrpqFzdGwRK3uKmYjv6YYL6tRnnUHzdmIgWLzKA93WP7bYFCj/s";
+var v198 = "h05VfWS+KARYr1paoE08/vr6gEbPD6BB4GPj/9D9B/GO8kc5JlflZKgjFrphhfWt";
+var v199 = "nN+grzpqPZInbfhP6JpUcoohNKcjlIqvzDPcI0+wtOaG6CJu/uj5xSWn7pDqKFER";
+var v200 = "jojyuB4vUdbhJboHw1Hh+Wn2aU1xvu/S5KPuvUYmxzAbIS8Gw/ycnUSbkZw7mDs7";
+var v201 = "rwZbFLDHeiKA2Jp4tqZfL9pjfXkjKTE5CGjD+APsRfNpOL6r/DPBNBAt7fT8cN2d";
+var v202 = "fbBT3XXjP21nxgqbvNNhuFBknPC+kpiJhqTgtMkJhRtzdNPgCuD+PoSJZfu8Co5j";
+var v203 = "hMOh9gwwSnBl4k3G00l2KmxLnOsNsITnJHbUpXMXuIAcLseV8OSyiyJkaVJzBi10";
+var v204 = "l+W25TPhdBdAUrGm6LbLKbe7HxcdtHOiXBWGtWK6yvmCnPMoYIxhC8Qr6VWQ36jc";
+var v205 = "JineJS3Etg1rTk+6xPZySaAuHuYh9TMAn8NAA3V/2n+LzgGb4X48N5aoeXRocRSZ";
+var v206 = "mQE+4YxHnqCO0dM1DC8lDqdZCSXaCKqT1ppMVOsWDBtq/i0prEicqbGzmJLJjy33";
+var v207 = "dL+UXO4JF8RMUl7lYdERwm3XjBBKeCIfsdxGVIZphjWyNZwOG5K6+qGH/BZ7ubCa";
+var v208 = "78n8tEltm9lRQoaT/p9a7SGdkH+FuqF/fs4u4pw7tUr6MQAeBnegyx682TXMnf9q";
+var v209 = "aQtVWY/OozYCozOwSEHKEU5MgYxSxAEdr1VXZbmRnfUH1SwxVNVW7Kx66nnMCaUi";
+var v210 = "eyegdeTdieVVdsjQae2+DtWFTJC5rVCOiQQ1k69UzOrjy1oQ+CZH1wdW+2CgiNcq";
+var v211 = "kptjL5gd3cjATrTbULUIRWkWf+A8X3PU8003hk0sHF/ICccz6RdxgQbMe+eAJzBX";
+var v212 = "7Hu734ZPxlMkxN8Z0vvwhK3+ITS5CXVjtt2FHQFP7guv2ZjfFlV34wsahcSovk8F";
+var v213 = "k8JPo+Q1UjMxSUaIUcVwqx5FJihGHQP1n4+DGjSKWYxRRSTxtM1Ikj4rEk+c5FaK";
+var v214 = "cQwhB3jnrAwbYg0WbWQttJjkl6HWsLNynVtPVdEytsKrz4gU+ezBw3eRIRfQzeuy";
+var v215 = "dxh0T6+ktcR3eDvyOSTc5Z1C6V1kLrPqqlTJ3OFTdHwHEHkcWXp22CtIxFmakyCC";
+var v216 = "GmfRtssbU46mEspNiHZml2k9nj6MKPl7YhBXNdCxl27I+m+RyVeLsTwsqasTve62";
+var v217 = "ktZ8HZeYdlOOGNJxLU70ZxGZG6/QmMXRYVN+pakPFzfRI+OU58GizwDBJakmc4hK";
+var v218 = "Y52TcjI0ruBRTJHL6a1N6/Hvb7f76lj9FpUCnPyCZ9gg2ksPXuaM9w0AtI/S+lsc";
+var v219 = "3EjdBzxus5dkoFG2YWdhb4s2qSx5IzCOYtfsXNdqJ0n/36sgIgISpQQkuOJ8qG/5";
+var v220 = "/SIVI6TOatx05Mmymu5sny50gmyN0XNiWjkvbJoBk3/Yuzy2gERp7YuTXQj6CZF7";
+var v221 = "tF4clHv2sBQkuruG+9v7wMdHd4QUheOcFj54ob2p9asTr6KKzJRPnA3nV4jHAnh0";
+var v222 = "g+d4krtUa1r1+sxLSioJseyYv026yJBCD6F5lCuSDaj9Ss+8nwZJfBUggRPZyEdA";
+var v223 = "IZ1HRttBA70cmizol70mqHJezixCyLM8fC7Mh9wIV/sV9yWY79In1n7A/mnFYjyp";
+var v224 = "cLmjKjWTu9dYDaRDwdEdDSp2ZnlNeb/ywOyIO2GutGN5QyWH3m8DSe3McmGtUPaH";
+var v225 = "rvQKGOqIo1r02G6c66bbRVVFRM0ZQaeVZHbFrL89u6yWxTGFVq2w/i5QjAKsAtQR";
+var v226 = "A2kZhhqvclk4uUhAMQgGnhcO8Jio5NU385mjH7X1HhbbmiFgqMPmpZDN9y/lHLIv";
+var v227 = "QEt3qe8To3Ts/kbEbbHnqsXFUkEpxxJGxg9hY1X+D0L00EMtcBF9+u0znGQtpX0b";
+var v228 = "JIrEbjedpBvpcbdCGggSEpK6QMZyBOV/JqejAO4JqmNEJrNU52STAIO18MV9em9n";
+var v229 = "2LrHz8kRijkAYvSw0cd7H5GJ7/1bVa5NZg6h//WlF12I2vVXFNd1wsRKpTMtjQr3";
+var v230 = "YqkwTLJj5RuhsFt8FeKhcLwwIwkxBrj/lz19YxDKiqROf4j31c9z9/4ECVYOVsm4";
+var v231 = "CmceNs6nqoV18K3e34kmvZQ77BIJvCR9pwR46OueCz6zpiEDLKEM507Syxh0nCvV";
+var v232 = "lxDR0Rsdf5jMnTgQzTNtVs/V+7ytZlMe+a+TiyNS1vbLNsMLlyxVEB5GJMFqK7Je";
+var v233 = "jSpwPuyUCiIZytihnGDHKAThfBQBAS3tFrSml+NIarHOysV5sSA0JKNFhXNpPfAs";
+var v234 = "nLEJmC63f5zzFqDTyE1ZawGOPDEe/If6GJ5c3ML8ioE4dsWgqDVGDTEcyyav2Pfp";
+var v235 = "eX8tKKvsCw2lXUg1b0BVnc7jwnQLGr0N7IktKMkHfIMdEuU8uHGXlFNrMr+t5VM6";
+var v236 = "xxxTOhk8vGneM2DkOBJ4lXwN428lN+2cdC1jXyJ1uDGhW/lFM1UgCLGRD0ciHNp3";
+var v237 = "dWsrwlc44kuaKMrLo/Oc5yuT+I3aOhZp24V93P43l3nWdkcDum283z8/U2+UOOTt";
+var v238 = "l/Im6ZLlAWr6Cwr9eLvEgQhsh2R6z8yy0hlzfj0VjsADsbto8zchW0s9pf8XBHqr";
+var v239 = "Tim0dduSv5UG+XR2xSPftGcvyt9eoHa0ogDcoBJi5LBVhwhLbcBFsvKcipPLNcmv";
+var v240 = "FJ7hVbzuDoPy6Kxd4w0cYl13ngpdXSylj7QRj7XGNCP7VT2KHaZ6vPDAlN/1szXA";
+var v241 = "vsI5UlrlRICubEYNEF9Yc3yAhtQfeLWIrdOI5kpznl7MrPKxz/rw4hAw5OJ1FhRk";
+var v242 = "5S1J9fQTGypGHLIlfybfNIXzoAVLaviuiu4heVhrcbylBUowEAXfzTvV8oWlVWmU";
+var v243 = "V6elyVN8l6qyh9eMcXVNkSHlyk4rykI6e1/4ScXYDCVaSHT0Kp7sKbaJSS75LNa1";
+var v244 = "seeqyycpPB0K/lGTIHBCXi80j7UIqlH6WCVfcor5KYhNH+sGZ+5/xCXyde1RJwH4";
+var v245 = "vYv5gVSltEt55Ur48cH7/pKqJcyQuujscVawHLt65gojrY0dTgZmntc4clsXUw6b";
+var v246 = "pDGVhjjI78RHMgUVidlyrav1FvmDZDF9UZqagvEO6KpcZSW32m1eYl8DSFhZTvpy";
+var v247 = "348WN7rjcb3+as1xSSnOuvjlbLrlaiPVlpkWJDVNef3ehvxVEO71l8FgFgFoo+pF";
+var v248 = "aiyOdrWRweojMy/VYUqNfQrS003VlU1+j712OQbKACdDTPSj1aJ4H6eq5ElqLX3o";
+var v249 = "sKU+Bx7DRn7++BGZvlyUe5Bv3kKgr3n5sdEeX4O7kwTYQimUDiVRduCxIlspDUVc";
+var v250 = "a6Lp9FsMSkqHo+8TgzHEoC7DGJnAKotS31DT2K/MTUWvsrBcGIiUWtIkAyOESF/H";
+var v251 = "fGlX6+kpGjcngDjUMMvlj52w1POG2Ii2jbPBzR1qdeoTHdEh7AR6WU+wXCPRceP8";
+var v252 = "mIXD+FcstU0HvtAeOCDbsSSwOk4gNSH7FGyww8gcEwTGe8FuCjIbCMuog5cPeB7o";
+var v253 = "QAsQTaoCwRjIH+uaNJbmMy+rWQcXJdi/8UfylFlaKdqAx7qcPYGRERnRlMMDhze3";
+var v254 = "MfZIK+bBiQH5uRnsNuuB2bV5XbKWL3Cs9Rsu1Vr7YWw2gzpoHML8UB93HIUifsNc";
+var v255 = "tEmOuAoVU34dYkh0mbxPr/nXcTmNaEr82m0w2xHl18158K1eLQP/rH2sGmVwhait";
@@ -52,11 +52,14 @@ import org.springframework.context.annotation.Condition;
 import org.springframework.context.annotation.ConditionContext;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.core.type.AnnotatedTypeMetadata;
 
 import io.smallrye.config.PropertiesConfigSource;
 import io.smallrye.config.SmallRyeConfigBuilder;
 
+import com.opentable.server.RouteMetricsConfiguration;
+
 @EnableConfigurationProperties
 @Configuration
 @Conditional(ResteasyAutoConfiguration.InstallJAXRS.class)
@@ -106,6 +109,12 @@ public class ResteasyAutoConfiguration {
         return new OTCorsFilter();
     }
 
+    @Bean
+    @Conditional(RouteMetricsConfiguration.InstallRouteMetrics.class)
+    public RouteMetricsContainerFilter routeMetricsContainerFilter() {
+        return new RouteMetricsContainerFilter();
+    }
+
     public static class RestEasySpringInitializer
             implements
                 ServletContextInitializer,
@@ -133,6 +142,15 @@ public class ResteasyAutoConfiguration {
 
         @Override
         public void onStartup(ServletContext servletContext) throws ServletException {
+            final StartupStep step = applicationContext.getApplicationStartup().start("otj.resteasy.deployment");
+            try {
+                deploy(servletContext);
+            } finally {
+                step.end();
+            }
+        }
+
+        private void deploy(ServletContext servletContext) throws ServletException {
             servletInitParams.ifPresent(params -> params.getInitParams().forEach(servletContext::setInitParameter));
             // As of 4.0.0.CR1+ this seems to be necessary to make sure the servlet context is really config sourced.
             final Properties props = new Properties();
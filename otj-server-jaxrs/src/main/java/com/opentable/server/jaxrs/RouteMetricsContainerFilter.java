@@ -0,0 +1,72 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server.jaxrs;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.ws.rs.Path;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import com.opentable.server.RouteMetricsHandler;
+
+/**
+ * Hands the route template of the matched resource method, e.g. {@code /users/{id}}, down to the
+ * {@link RouteMetricsHandler}, which only sees the underlying Jetty request.
+ * <p>
+ * The template joins the class and method {@link Path} annotations, so it is relative to the JAX-RS prefix and a
+ * sub-resource is reported without the path of its locator. In a servlet container request context properties are
+ * the servlet request attributes, so setting the property is enough.
+ */
+@Provider
+class RouteMetricsContainerFilter implements ContainerRequestFilter {
+    // By class, since a resource method inherited by several classes has a template for each
+    private final Map<Class<?>, Map<Method, String>> templates = new ConcurrentHashMap<>();
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        final Class<?> resourceClass = resourceInfo.getResourceClass();
+        final Method resourceMethod = resourceInfo.getResourceMethod();
+        if (resourceClass != null && resourceMethod != null) {
+            requestContext.setProperty(RouteMetricsHandler.ROUTE_ATTRIBUTE,
+                    templates.computeIfAbsent(resourceClass, c -> new ConcurrentHashMap<>())
+                            .computeIfAbsent(resourceMethod, m -> template(resourceClass, m)));
+        }
+    }
+
+    static String template(Class<?> resourceClass, Method resourceMethod) {
+        final StringBuilder template = new StringBuilder();
+        append(template, AnnotatedElementUtils.findMergedAnnotation(resourceClass, Path.class));
+        append(template, AnnotatedElementUtils.findMergedAnnotation(resourceMethod, Path.class));
+        return template.length() == 0 ? "/" : template.toString();
+    }
+
+    private static void append(StringBuilder template, Path path) {
+        final String segment = path == null ? null : StringUtils.strip(path.value(), "/");
+        if (StringUtils.isNotEmpty(segment)) {
+            template.append('/').append(segment);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(classes = {
+        TestJaxRsServerConfiguration.class,
+        RouteMetricsFilterTest.UserResource.class
+})
+@TestPropertySource(properties = {
+        "ot.httpserver.route-metrics.enabled=true",
+})
+// Requests handled by RESTEasy are recorded under the template of the resource method they matched
+public class RouteMetricsFilterTest {
+
+    @Inject
+    private JAXRSLoopbackRequest request;
+
+    @Inject
+    private MetricRegistry metricRegistry;
+
+    @Test(timeout = 10_000)
+    public void test() throws InterruptedException {
+        for (final String id : new String[] { "1", "2", "3" }) {
+            Assert.assertEquals("user " + id, request.of("/users/" + id).request().get().readEntity(String.class));
+        }
+
+        // Recorded once the response is complete, which may be after the client has it
+        final String name = "http-server.routes.default-http.GET.users_id.latency";
+        Timer latency;
+        while ((latency = metricRegistry.getTimers().get(name)) == null || latency.getCount() < 3) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(3, latency.getCount());
+    }
+
+    @Named
+    @Singleton
+    @Path("/users")
+    public static class UserResource {
+        @GET
+        @Path("{id}")
+        public String get(@PathParam("id") String id) {
+            return "user " + id;
+        }
+    }
+}
@@ -27,12 +27,21 @@ import com.opentable.metrics.reactive.HealthHttpReactiveConfiguration;
 import com.opentable.metrics.reactive.MetricsHttpReactiveConfiguration;
 import com.opentable.metrics.reactive.ReadyHttpReactiveConfiguration;
 import com.opentable.security.mitigation.ApplySecurityMitigations;
+import com.opentable.server.AsyncRequestLogConfiguration;
+import com.opentable.server.BackendInfoConnectorConfiguration;
+import com.opentable.server.EmbeddedJettyClientLimit;
+import com.opentable.server.EmbeddedJettyConcurrencyLimit;
 import com.opentable.server.EmbeddedJettyConfiguration;
 import com.opentable.server.EmbeddedJettyConnectionLimit;
+import com.opentable.server.EmbeddedJettyEventLoopMonitor;
 import com.opentable.server.EmbeddedJettyLowResourceMonitor;
+import com.opentable.server.EmbeddedJettyRequestQueue;
+import com.opentable.server.EmbeddedJettyShutdownDrain;
 import com.opentable.server.EmbeddedReactiveJetty;
 import com.opentable.server.NonWebSetup;
+import com.opentable.server.RouteMetricsConfiguration;
 import com.opentable.server.reactive.webfilter.BackendInfoWebFilterConfiguration;
+import com.opentable.server.reactive.webfilter.RouteMetricsWebFilterConfiguration;
 
 /**
  * Common configuration for Spring WebFlux reactive servers.
@@ -55,10 +64,28 @@ import com.opentable.server.reactive.webfilter.BackendInfoWebFilterConfiguration
         MetricsHttpReactiveConfiguration.class,
         // Filter for transfer of core backend info
         BackendInfoWebFilterConfiguration.class,
+        // Core backend info at the connector level, the default
+        BackendInfoConnectorConfiguration.class,
+        // Route pattern for per route metrics
+        RouteMetricsWebFilterConfiguration.class,
         // Low resource monitor
         EmbeddedJettyLowResourceMonitor.class,
         // Connection Limiter
         EmbeddedJettyConnectionLimit.class,
+        // Per client address connection and request rate limits
+        EmbeddedJettyClientLimit.class,
+        // Adaptive concurrency limiter
+        EmbeddedJettyConcurrencyLimit.class,
+        // Bounded priority request queue
+        EmbeddedJettyRequestQueue.class,
+        // Selector and thread pool latency probes
+        EmbeddedJettyEventLoopMonitor.class,
+        // Asynchronous request log
+        AsyncRequestLogConfiguration.class,
+        // Per route latency and status metrics
+        RouteMetricsConfiguration.class,
+        // Drain traffic before shutdown
+        EmbeddedJettyShutdownDrain.class,
         // Support static resources
         // TODO: Need to test serving static resources the WebFlux way. See OTPL-3648.
 })
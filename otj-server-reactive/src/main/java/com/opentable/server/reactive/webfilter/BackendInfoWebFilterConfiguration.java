@@ -32,10 +32,13 @@ import com.opentable.service.ServiceInfo;
 /**
  * Adds headers with prefix {@link #HEADER_PREFIX} with some information about the backend that actually
  * handled the request.
+ * <p>
+ * Only used with {@code ot.server.backend.info.mode=filter}, otherwise
+ * {@link com.opentable.server.BackendInfoConnectorConfiguration} adds the same headers at the connector level.
  */
 @Configuration
 @Import(BackendInfoWebFilterConfiguration.BackendInfoWebFilter.class)
-@Conditional(WireBackendInfo.class)
+@Conditional(WireBackendInfo.FilterMode.class)
 public class BackendInfoWebFilterConfiguration extends BackendInfoFilterBaseConfiguration {
 
     public static class BackendInfoWebFilter implements WebFilter {
@@ -0,0 +1,55 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.opentable.server.reactive.webfilter;
+
+import javax.servlet.ServletRequest;
+
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+
+import com.opentable.server.RouteMetricsConfiguration;
+import com.opentable.server.RouteMetricsHandler;
+
+/**
+ * Hands the route pattern WebFlux matched down to the {@link RouteMetricsHandler}, which only sees the
+ * underlying Jetty request.
+ */
+@Configuration
+@Import(RouteMetricsWebFilterConfiguration.RouteMetricsWebFilter.class)
+@Conditional(RouteMetricsConfiguration.InstallRouteMetrics.class)
+public class RouteMetricsWebFilterConfiguration {
+
+    public static class RouteMetricsWebFilter implements WebFilter {
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+            // doOnTerminate runs before the servlet async context is completed, so the attribute is in place when
+            // the handler records the request
+            return chain.filter(exchange).doOnTerminate(() -> {
+                final Object pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                final Object nativeRequest = ServerHttpRequestDecorator.getNativeRequest(exchange.getRequest());
+                if (pattern != null && nativeRequest instanceof ServletRequest) {
+                    ((ServletRequest) nativeRequest).setAttribute(RouteMetricsHandler.ROUTE_ATTRIBUTE, pattern.toString());
+                }
+            });
+        }
+    }
+}